@@ -0,0 +1,114 @@
+package level;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import level.elements.Level;
+import level.elements.LevelGrid;
+import level.elements.Tile;
+import level.generator.perlinNoise.PerlinNoiseGenerator;
+import level.tools.DesignLabel;
+import level.tools.LevelSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares one path search per monster with one distance field shared by all monsters that chase
+ * the hero.
+ *
+ * <p>Run with <code>./gradlew jmh</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistanceFieldBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"1", "10", "100"})
+    private int monsters;
+
+    private Level level;
+    private Tile hero;
+    private Tile heroStep;
+    private Tile[] monsterTiles;
+    private GraphPath<Tile> path;
+
+    @Setup
+    public void setup() {
+        level =
+                new PerlinNoiseGenerator()
+                        .getLevel(DesignLabel.DEFAULT, LevelSize.LARGE, new Random(SEED));
+        LevelGrid grid = level.getGrid();
+        Random random = new Random(SEED);
+        int heroIndex;
+        do heroIndex = randomAccessibleIndex(random);
+        while (grid.getNeighbours(heroIndex) == 0);
+        hero = level.getTile(heroIndex);
+        heroStep = level.getTile(nextTo(heroIndex));
+        monsterTiles = new Tile[monsters];
+        for (int i = 0; i < monsters; i++)
+            monsterTiles[i] = level.getTile(randomAccessibleIndex(random));
+        path = new DefaultGraphPath<>();
+        level.computeDistanceField(hero);
+    }
+
+    @Benchmark
+    public Tile findPathPerMonster() {
+        Tile last = null;
+        for (Tile monster : monsterTiles) {
+            level.findPath(monster, hero, path);
+            if (path.getCount() > 1) last = path.get(1);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public Tile distanceField() {
+        level.computeDistanceField(hero);
+        Tile last = null;
+        for (Tile monster : monsterTiles) last = level.getNextStep(monster);
+        return last;
+    }
+
+    @Benchmark
+    public Tile distanceFieldMovedGoal() {
+        // the hero steps back and forth
+        level.moveDistanceFieldGoal(hero, heroStep);
+        Tile swap = hero;
+        hero = heroStep;
+        heroStep = swap;
+        Tile last = null;
+        for (Tile monster : monsterTiles) last = level.getNextStep(monster);
+        return last;
+    }
+
+    private int randomAccessibleIndex(Random random) {
+        LevelGrid grid = level.getGrid();
+        int index;
+        do index = random.nextInt(grid.size());
+        while (!grid.isAccessible(index));
+        return index;
+    }
+
+    private int nextTo(int index) {
+        LevelGrid grid = level.getGrid();
+        int neighbours = grid.getNeighbours(index);
+        if ((neighbours & LevelGrid.NORTH) != 0) return index + grid.getWidth();
+        if ((neighbours & LevelGrid.SOUTH) != 0) return index - grid.getWidth();
+        if ((neighbours & LevelGrid.WEST) != 0) return index - 1;
+        return index + 1;
+    }
+}
@@ -0,0 +1,77 @@
+package level;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import level.elements.Level;
+import level.elements.LevelGrid;
+import level.elements.Tile;
+import level.elements.astar.TileHeuristic;
+import level.generator.perlinNoise.PerlinNoiseGenerator;
+import level.tools.DesignLabel;
+import level.tools.LevelSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a new <code>IndexedAStarPathFinder</code> per query (how <code>Level.findPath</code>
+ * worked before) with the pathfinder owned by the level.
+ *
+ * <p>Run with <code>./gradlew jmh</code>, the gc profiler reports the allocations per query as
+ * <code>gc.alloc.rate.norm</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindPathBenchmark {
+    private static final long SEED = 42;
+
+    private Level level;
+    private Tile start;
+    private Tile end;
+    private GraphPath<Tile> path;
+
+    @Setup
+    public void setup() {
+        level =
+                new PerlinNoiseGenerator()
+                        .getLevel(DesignLabel.DEFAULT, LevelSize.LARGE, new Random(SEED));
+        // the first and the last accessible tile are far apart
+        LevelGrid grid = level.getGrid();
+        int first = 0;
+        while (!grid.isAccessible(first)) first++;
+        int last = grid.size() - 1;
+        while (!grid.isAccessible(last)) last--;
+        start = level.getTile(first);
+        end = level.getTile(last);
+        path = new DefaultGraphPath<>();
+        // create the tiles on the path before measuring
+        level.findPath(start, end, path);
+    }
+
+    @Benchmark
+    public GraphPath<Tile> newPathFinderPerQuery() {
+        GraphPath<Tile> result = new DefaultGraphPath<>();
+        new IndexedAStarPathFinder<>(level).searchNodePath(start, end, new TileHeuristic(), result);
+        return result;
+    }
+
+    @Benchmark
+    public GraphPath<Tile> reusedPathFinder() {
+        level.findPath(start, end, path);
+        return path;
+    }
+}
@@ -0,0 +1,85 @@
+package level;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import level.elements.Level;
+import level.elements.LevelGrid;
+import level.elements.PathRequest;
+import level.elements.Tile;
+import level.generator.perlinNoise.PerlinNoiseGenerator;
+import level.tools.DesignLabel;
+import level.tools.LevelSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares searching the paths of a wave of monsters one after the other with the parallel batch
+ * query of the level.
+ *
+ * <p>Run with <code>./gradlew jmh</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindPathsBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"10", "100"})
+    private int monsters;
+
+    private Level level;
+    private List<PathRequest> requests;
+    private GraphPath<Tile> path;
+
+    @Setup
+    public void setup() {
+        level =
+                new PerlinNoiseGenerator()
+                        .getLevel(DesignLabel.DEFAULT, LevelSize.LARGE, new Random(SEED));
+        LevelGrid grid = level.getGrid();
+        Random random = new Random(SEED);
+        Tile hero = level.getTile(randomAccessibleIndex(grid, random));
+        requests = new ArrayList<>();
+        for (int i = 0; i < monsters; i++)
+            requests.add(new PathRequest(level.getTile(randomAccessibleIndex(grid, random)), hero));
+        path = new DefaultGraphPath<>();
+        // create the tiles on the paths before measuring
+        level.findPaths(requests);
+    }
+
+    @Benchmark
+    public GraphPath<Tile> sequential() {
+        for (PathRequest request : requests)
+            level.findPath(request.getStart(), request.getEnd(), path);
+        return path;
+    }
+
+    @Benchmark
+    public List<PathRequest> parallel() {
+        level.findPaths(requests);
+        return requests;
+    }
+
+    private static int randomAccessibleIndex(LevelGrid grid, Random random) {
+        int index;
+        do index = random.nextInt(grid.size());
+        while (!grid.isAccessible(index));
+        return index;
+    }
+}
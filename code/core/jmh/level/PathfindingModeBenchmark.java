@@ -0,0 +1,88 @@
+package level;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import level.elements.Level;
+import level.elements.LevelGrid;
+import level.elements.Tile;
+import level.elements.astar.AbstractGridPathFinder;
+import level.elements.astar.PathfindingMode;
+import level.generator.perlinNoise.PerlinNoiseGenerator;
+import level.tools.DesignLabel;
+import level.tools.LevelSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the pathfinding modes of a level on generated levels of every size.
+ *
+ * <p>Run with <code>./gradlew jmh</code>. The number of expanded tiles of each combination is
+ * printed during the setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PathfindingModeBenchmark {
+    private static final long SEED = 42;
+
+    @Param({"SMALL", "MEDIUM", "LARGE"})
+    private LevelSize size;
+
+    @Param({"A_STAR", "JUMP_POINT_SEARCH", "HIERARCHICAL"})
+    private PathfindingMode mode;
+
+    private Level level;
+    private Tile start;
+    private Tile end;
+    private GraphPath<Tile> path;
+
+    @Setup
+    public void setup() {
+        level = new PerlinNoiseGenerator().getLevel(DesignLabel.DEFAULT, size, new Random(SEED));
+        level.setPathfindingMode(mode);
+        // the first and the last accessible tile are far apart
+        LevelGrid grid = level.getGrid();
+        int first = 0;
+        while (!grid.isAccessible(first)) first++;
+        int last = grid.size() - 1;
+        while (!grid.isAccessible(last)) last--;
+        start = level.getTile(first);
+        end = level.getTile(last);
+        path = new DefaultGraphPath<>();
+        // create the tiles on the path before measuring
+        level.findPath(start, end, path);
+
+        AbstractGridPathFinder pathFinder = mode.newPathFinder(grid);
+        pathFinder.searchNodePath(first, last, new IntArray());
+        System.out.println(
+                "\n"
+                        + size
+                        + " "
+                        + mode
+                        + ": path length "
+                        + path.getCount()
+                        + ", expanded tiles "
+                        + pathFinder.getExpandedNodes());
+    }
+
+    @Benchmark
+    public GraphPath<Tile> findPath() {
+        level.findPath(start, end, path);
+        return path;
+    }
+}
@@ -0,0 +1,88 @@
+package level;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import level.elements.Level;
+import level.elements.LevelGrid;
+import level.elements.Tile;
+import level.generator.perlinNoise.PerlinNoiseGenerator;
+import level.tools.DesignLabel;
+import level.tools.LevelElement;
+import level.tools.LevelSize;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the spatial queries of a level for a frame in which every monster near the hero checks
+ * if it can see the hero and looks for the tiles around it.
+ *
+ * <p>Run with <code>./gradlew jmh</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpatialQueryBenchmark {
+    private static final long SEED = 42;
+    /** Monsters are placed at most this many tiles away from the hero. */
+    private static final int SPAWN_RADIUS = 12;
+
+    @Param({"100", "500"})
+    private int monsters;
+
+    private Level level;
+    private Tile hero;
+    private Tile[] monsterTiles;
+    private Array<Tile> tiles;
+
+    @Setup
+    public void setup() {
+        level =
+                new PerlinNoiseGenerator()
+                        .getLevel(DesignLabel.DEFAULT, LevelSize.LARGE, new Random(SEED));
+        LevelGrid grid = level.getGrid();
+        Random random = new Random(SEED);
+        hero = level.getRandomTile(LevelElement.FLOOR);
+        IntArray around = new IntArray();
+        grid.getCellsInRadius(
+                grid.getX(hero.getIndex()), grid.getY(hero.getIndex()), SPAWN_RADIUS, around);
+        monsterTiles = new Tile[monsters];
+        for (int i = 0; i < monsters; i++) {
+            int index;
+            do index = around.get(random.nextInt(around.size));
+            while (!grid.isAccessible(index));
+            monsterTiles[i] = level.getTile(index);
+        }
+        tiles = new Array<>();
+    }
+
+    @Benchmark
+    public int lineOfSight() {
+        int seeing = 0;
+        for (Tile monster : monsterTiles) if (level.hasLineOfSight(monster, hero)) seeing++;
+        return seeing;
+    }
+
+    @Benchmark
+    public int tilesInRadius() {
+        int count = 0;
+        for (Tile monster : monsterTiles) {
+            level.getTilesInRadius(monster, 3, tiles);
+            count += tiles.size;
+        }
+        return count;
+    }
+}
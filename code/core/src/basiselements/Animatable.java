@@ -27,4 +27,9 @@ public abstract class Animatable extends Entity {
     public String getTexturePath() {
         return getActiveAnimation().getNextAnimationTexturePath();
     }
+
+    @Override
+    public int getTextureId() {
+        return getActiveAnimation().getNextAnimationTextureId();
+    }
 }
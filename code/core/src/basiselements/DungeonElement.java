@@ -1,10 +1,15 @@
 package basiselements;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import java.util.Objects;
+import textures.TextureRegistry;
 import tools.Point;
 
 public abstract class DungeonElement {
     private SpriteBatch batch;
+    // the texture path of the last getTextureId() call and its id
+    private String texturePath;
+    private int textureId = TextureRegistry.NO_TEXTURE;
 
     /**
      * An object in the dungeon that can be drawn
@@ -41,4 +46,19 @@ public abstract class DungeonElement {
      * @return the (current) Texture-Path of the object
      */
     public abstract String getTexturePath();
+
+    /**
+     * The id is only looked up in the <code>TextureRegistry</code> when {@link #getTexturePath()}
+     * returns another path than on the last call.
+     *
+     * @return the id of the (current) texture in the <code>TextureRegistry</code>
+     */
+    public int getTextureId() {
+        String currentPath = getTexturePath();
+        if (!Objects.equals(currentPath, texturePath)) {
+            textureId = TextureRegistry.getInstance().getId(currentPath);
+            texturePath = currentPath;
+        }
+        return textureId;
+    }
 }
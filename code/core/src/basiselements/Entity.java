@@ -26,6 +26,6 @@ public abstract class Entity extends DungeonElement {
     /** Draws this instance on the batch. */
     @Override
     public void draw() {
-        getPainter().draw(getTexturePath(), getPosition(), getBatch());
+        getPainter().draw(getTextureId(), getPosition(), getBatch());
     }
 }
@@ -26,7 +26,7 @@ public abstract class HUDElement extends DungeonElement {
     /** Draws this instance on the batch. */
     @Override
     public void draw() {
-        getPainter().draw(getTexturePath(), getPosition(), getBatch());
+        getPainter().draw(getTextureId(), getPosition(), getBatch());
     }
 
     /**
@@ -37,6 +37,6 @@ public abstract class HUDElement extends DungeonElement {
      */
     public void drawWithScaling(float xScaling, float yScaling) {
         getPainter()
-                .drawWithScaling(xScaling, yScaling, getTexturePath(), getPosition(), getBatch());
+                .drawWithScaling(xScaling, yScaling, getTextureId(), getPosition(), getBatch());
     }
 }
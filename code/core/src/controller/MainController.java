@@ -8,11 +8,15 @@ import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import graphic.DungeonCamera;
 import graphic.HUDPainter;
+import graphic.LevelRenderCache;
 import graphic.Painter;
 import level.IOnLevelLoader;
 import level.LevelAPI;
+import level.elements.PathScheduler;
 import level.generator.IGenerator;
 import level.generator.randomwalk.RandomWalkGenerator;
+import textures.TextureAtlasMap;
+import textures.TextureHandler;
 
 /** The heart of the framework. From here all strings are pulled. */
 public abstract class MainController extends ScreenAdapter implements IOnLevelLoader {
@@ -34,6 +38,8 @@ public abstract class MainController extends ScreenAdapter implements IOnLevelLo
     protected HUDPainter hudPainter;
 
     protected LevelAPI levelAPI;
+    /** Searches the paths requested by entities within a time budget per frame. */
+    protected PathScheduler pathScheduler;
     /** Generates the level */
     protected IGenerator generator;
 
@@ -62,8 +68,11 @@ public abstract class MainController extends ScreenAdapter implements IOnLevelLo
     }
 
     /**
-     * Main game loop. Redraws the dungeon and calls the own implementation (beginFrame, endFrame
-     * and onLevelLoad).
+     * Main game loop. Redraws the dungeon, continues the requested path searches and calls the own
+     * implementation (beginFrame, endFrame and onLevelLoad).
+     *
+     * <p>The batch is begun once for the level and all entities, so their textures are sent to the
+     * graphics card together instead of one by one.
      *
      * @param delta Time since last loop.
      */
@@ -74,9 +83,15 @@ public abstract class MainController extends ScreenAdapter implements IOnLevelLo
         clearScreen();
         beginFrame();
         if (stopLoop()) return;
-        levelAPI.update();
-        if (stopLoop()) return;
-        entityController.update();
+        batch.begin();
+        try {
+            levelAPI.update();
+            if (stopLoop()) return;
+            pathScheduler.update();
+            entityController.update();
+        } finally {
+            batch.end();
+        }
         if (stopLoop()) return;
         camera.update();
         if (stopLoop()) return;
@@ -98,10 +113,15 @@ public abstract class MainController extends ScreenAdapter implements IOnLevelLo
                 Lwjgl3ApplicationConfiguration.getDisplayMode().height / 16f,
                 0.25f);
         painter = new Painter(camera);
+        // packs the textures once, so the frames draw most of them from a few pages
+        painter.setTextureAtlas(
+                TextureAtlasMap.pack(TextureHandler.getInstance().getAvailablePaths()));
         hudPainter = new HUDPainter();
         hudController = new HUDController(hudBatch);
         generator = new RandomWalkGenerator();
         levelAPI = new LevelAPI(batch, painter, generator, this);
+        levelAPI.setRenderCache(new LevelRenderCache(painter));
+        pathScheduler = new PathScheduler();
         setup();
     }
 
@@ -1,14 +1,13 @@
 package graphic;
 
-import java.util.ArrayList;
 import java.util.Collection;
-import java.util.List;
+import textures.TextureRegistry;
 
 /** A list of textures from an animation. */
 public class Animation {
 
-    /** The set of textures that build the animation. */
-    private final List<String> animationFrames;
+    /** The ids of the textures that build the animation, see {@link TextureRegistry}. */
+    private final int[] animationFrames;
 
     /** The count of textures for the animation. */
     private final int frames;
@@ -31,8 +30,11 @@ public class Animation {
     public Animation(Collection<String> animationFrames, int frameTime) {
         assert (animationFrames != null && !animationFrames.isEmpty());
         assert (frameTime > 0);
-        this.animationFrames = new ArrayList<>(animationFrames);
         frames = animationFrames.size();
+        this.animationFrames = new int[frames];
+        int frame = 0;
+        for (String texturePath : animationFrames)
+            this.animationFrames[frame++] = TextureRegistry.getInstance().getId(texturePath);
         this.frameTime = frameTime;
     }
 
@@ -42,11 +44,21 @@ public class Animation {
      * @return The texture of the next animation step (draw this).
      */
     public String getNextAnimationTexturePath() {
-        String stringToReturn = animationFrames.get(currentFrameIndex);
+        return TextureRegistry.getInstance().getPath(getNextAnimationTextureId());
+    }
+
+    /**
+     * Automatically updates currentFrame to next frame, like {@link
+     * #getNextAnimationTexturePath()}.
+     *
+     * @return The id of the texture of the next animation step in the {@link TextureRegistry}.
+     */
+    public int getNextAnimationTextureId() {
+        int idToReturn = animationFrames[currentFrameIndex];
         frameTimeCounter = (frameTimeCounter + 1) % frameTime;
         if (frameTimeCounter == 0) {
             currentFrameIndex = (currentFrameIndex + 1) % frames;
         }
-        return stringToReturn;
+        return idToReturn;
     }
 }
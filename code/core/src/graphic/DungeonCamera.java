@@ -2,14 +2,22 @@ package graphic;
 
 import basiselements.Entity;
 import com.badlogic.gdx.graphics.OrthographicCamera;
-import com.badlogic.gdx.math.Vector3;
-import com.badlogic.gdx.math.collision.BoundingBox;
+import com.badlogic.gdx.math.Rectangle;
+import java.util.BitSet;
 import tools.Point;
 
 /** Sauron's eye. */
 public class DungeonCamera extends OrthographicCamera {
+    /** Margin around points, the textures reach about one tile beyond their position. */
+    private static final float OFFSET = 1f;
+
     private Entity follows;
     private Point focusPoint;
+    // the part of the world the camera shows, computed in update()
+    private float viewLeft;
+    private float viewBottom;
+    private float viewRight;
+    private float viewTop;
 
     /**
      * Creates a new camera.
@@ -25,7 +33,7 @@ public class DungeonCamera extends OrthographicCamera {
         }
     }
 
-    /** Updates camera position. */
+    /** Updates camera position and the part of the world it shows. */
     public void update() {
         if (follows != null) {
             Point fp = getFollowedObject().getPosition();
@@ -37,6 +45,13 @@ public class DungeonCamera extends OrthographicCamera {
             position.set(focusPoint.x, focusPoint.y, 0);
         }
         super.update();
+        // the camera is not rotated, so the frustum is this rectangle
+        float halfWidth = viewportWidth * zoom / 2;
+        float halfHeight = viewportHeight * zoom / 2;
+        viewLeft = position.x - halfWidth;
+        viewBottom = position.y - halfHeight;
+        viewRight = position.x + halfWidth;
+        viewTop = position.y + halfHeight;
     }
 
     /**
@@ -68,13 +83,64 @@ public class DungeonCamera extends OrthographicCamera {
     /**
      * Checks if the point (x,y) is probably been seen on the screen. Otherwise, don't redender this
      * point.
+     *
+     * <p>Compares the point with the area computed by the last {@link #update()}, so it can be
+     * called for every object in every frame without creating garbage.
      */
     public boolean isPointInFrustum(float x, float y) {
-        final float OFFSET = 1f;
-        BoundingBox bounds =
-                new BoundingBox(
-                        new Vector3(x - OFFSET, y - OFFSET, 0),
-                        new Vector3(x + OFFSET, y + OFFSET, 0));
-        return frustum.boundsInFrustum(bounds);
+        return x + OFFSET >= viewLeft
+                && x - OFFSET <= viewRight
+                && y + OFFSET >= viewBottom
+                && y - OFFSET <= viewTop;
+    }
+
+    /**
+     * Checks many points at once, see {@link #isPointInFrustum(float, float)}.
+     *
+     * @param positions the coordinates of the points, x and y of each point one after another
+     * @param count number of points
+     * @param outVisible receives the result: bit i is set if point i is probably seen. It is
+     *     cleared first.
+     */
+    public void cullPoints(float[] positions, int count, BitSet outVisible) {
+        outVisible.clear();
+        float left = viewLeft - OFFSET;
+        float bottom = viewBottom - OFFSET;
+        float right = viewRight + OFFSET;
+        float top = viewTop + OFFSET;
+        for (int i = 0; i < count; i++) {
+            float x = positions[2 * i];
+            float y = positions[2 * i + 1];
+            if (x >= left && x <= right && y >= bottom && y <= top) outVisible.set(i);
+        }
+    }
+
+    /**
+     * Returns the part of the world the camera showed at the last {@link #update()}, like {@link
+     * #isPointInFrustum(float, float)} with a margin of one tile around the screen.
+     *
+     * @param out receives the area
+     * @return <code>out</code>
+     */
+    public Rectangle getVisibleArea(Rectangle out) {
+        return out.set(
+                viewLeft - OFFSET,
+                viewBottom - OFFSET,
+                viewRight - viewLeft + 2 * OFFSET,
+                viewTop - viewBottom + 2 * OFFSET);
+    }
+
+    /**
+     * Checks if a part of the rectangle is probably seen on the screen, using the area computed by
+     * the last {@link #update()}.
+     *
+     * @param x X coordinate of the bottom left corner.
+     * @param y Y coordinate of the bottom left corner.
+     * @param width Width of the rectangle.
+     * @param height Height of the rectangle.
+     * @return true if the rectangle may be visible
+     */
+    public boolean isRectangleInFrustum(float x, float y, float width, float height) {
+        return x + width >= viewLeft && x <= viewRight && y + height >= viewBottom && y <= viewTop;
     }
 }
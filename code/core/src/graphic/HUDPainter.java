@@ -2,59 +2,77 @@ package graphic;
 
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import java.util.Arrays;
 import textures.TextureMap;
+import textures.TextureRegistry;
 import tools.Point;
 
-/** Uses LibGDX to draw sprites on the various <code>SpriteBatch</code>es. */
+/**
+ * Uses LibGDX to draw sprites on the various <code>SpriteBatch</code>es.
+ *
+ * <p>Like {@link Painter}, the textures are kept per id of the {@link TextureRegistry}, so the
+ * methods that take a texture id find the texture with an array access. The methods that take a
+ * path look up its id first.
+ */
 public class HUDPainter {
     private final TextureMap textureMap = new TextureMap();
+    // per texture id of the TextureRegistry its texture
+    private Texture[] textures = new Texture[0];
 
     /** Draws the instance based on its position. */
     public void draw(String texturePath, Point position, SpriteBatch batch) {
-        Texture texture = textureMap.getTexture(texturePath);
-        Sprite sprite = new Sprite(texture);
-
-        // set up scaling of textures
-        sprite.setSize(texture.getWidth(), texture.getHeight());
-
-        // where to draw the sprite
-        sprite.setPosition(
-                position.x,
-                Lwjgl3ApplicationConfiguration.getDisplayMode().height
-                        - position.y
-                        - texture.getHeight());
-
-        // need to be called before drawing
-        batch.begin();
-        // draw sprite
-        sprite.draw(batch);
-        // need to be called after drawing
-        batch.end();
+        draw(TextureRegistry.getInstance().getId(texturePath), position, batch);
+    }
+
+    /**
+     * Draws the instance based on its position.
+     *
+     * @param textureId Id of the texture in the {@link TextureRegistry}.
+     */
+    public void draw(int textureId, Point position, SpriteBatch batch) {
+        drawWithScaling(1, 1, textureId, position, batch);
     }
 
     /** Draws the instance based on its position with default offset and specific scaling. */
     public void drawWithScaling(
             float xScaling, float yScaling, String texturePath, Point position, SpriteBatch batch) {
-        Texture texture = textureMap.getTexture(texturePath);
-        Sprite sprite = new Sprite(texture);
-
-        // set up scaling of textures
-        sprite.setSize(texture.getWidth() * xScaling, texture.getHeight() * yScaling);
-
-        // where to draw the sprite
-        sprite.setPosition(
-                position.x,
-                Lwjgl3ApplicationConfiguration.getDisplayMode().height
-                        - position.y
-                        - texture.getHeight() * yScaling);
-
-        // need to be called before drawing
-        batch.begin();
-        // draw sprite
-        sprite.draw(batch);
-        // need to be called after drawing
-        batch.end();
+        drawWithScaling(
+                xScaling,
+                yScaling,
+                TextureRegistry.getInstance().getId(texturePath),
+                position,
+                batch);
+    }
+
+    /**
+     * Draws the instance based on its position with default offset and specific scaling.
+     *
+     * @param textureId Id of the texture in the {@link TextureRegistry}.
+     */
+    public void drawWithScaling(
+            float xScaling, float yScaling, int textureId, Point position, SpriteBatch batch) {
+        Texture texture = getTexture(textureId);
+        float width = texture.getWidth() * xScaling;
+        float height = texture.getHeight() * yScaling;
+        // the HUD counts y from the top of the screen
+        float y = Lwjgl3ApplicationConfiguration.getDisplayMode().height - position.y - height;
+
+        boolean drawing = batch.isDrawing();
+        if (!drawing) batch.begin();
+        batch.draw(texture, position.x, y, width, height);
+        if (!drawing) batch.end();
+    }
+
+    /** Loads a texture once, later calls read it from an array. */
+    private Texture getTexture(int textureId) {
+        if (textureId >= textures.length)
+            textures = Arrays.copyOf(textures, Math.max(textureId + 1, 2 * textures.length));
+        Texture texture = textures[textureId];
+        if (texture == null) {
+            texture = textureMap.getTexture(TextureRegistry.getInstance().getPath(textureId));
+            textures[textureId] = texture;
+        }
+        return texture;
     }
 }
@@ -0,0 +1,224 @@
+package graphic;
+
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Arrays;
+import java.util.BitSet;
+import level.elements.FieldOfView;
+import level.elements.Level;
+import level.elements.LevelChunks;
+import level.elements.LevelGrid;
+import level.tools.LevelElement;
+import textures.TextureAtlasMap;
+
+/**
+ * Keeps the tiles of a level on the graphics card, so drawing the level costs a few draw calls per
+ * frame instead of one call per tile.
+ *
+ * <p>The tiles of each chunk of the level (see {@link Level#getChunks()}) are stored in a {@link
+ * SpriteCache}. A chunk is built again only after {@link Level#changeTileElementType} changed it or
+ * the field of view of the level explored new tiles in it; all other frames only draw the chunks
+ * the camera shows. The textures come from the painter, so they are loaded only once; if the
+ * painter has a {@link TextureAtlasMap}, a chunk is one draw call.
+ *
+ * <p>Like {@link Level#drawLevel}, the cache leaves out the tiles the field of view of the level
+ * has not explored yet. Instead of a range of tiles it leaves out the chunks the camera does not
+ * show.
+ *
+ * <p>The cache draws with its own shader, so it must not be used while a <code>SpriteBatch</code>
+ * is drawing.
+ */
+public class LevelRenderCache implements Disposable {
+    private final Painter painter;
+    private final DungeonCamera camera;
+    private final IntArray cells = new IntArray();
+
+    private Level level;
+    private LevelChunks chunks;
+    private BitSet dirty;
+    private SpriteCache cache;
+    /** Number of tiles the cache has room for. */
+    private int capacity;
+    /** Per chunk the id of its cache, -1 if it has not been built yet. */
+    private int[] cacheIds;
+    /** Per chunk the number of tiles its cache has room for. */
+    private int[] reserved;
+
+    private FieldOfView fieldOfView;
+    /** The explored tiles the chunks were built with. */
+    private final BitSet builtExplored = new BitSet();
+    private final BitSet changedExplored = new BitSet();
+
+    /**
+     * Creates an empty cache, see {@link #setLevel(Level)}.
+     *
+     * @param painter Provides the textures; only the chunks its camera shows are drawn.
+     */
+    public LevelRenderCache(Painter painter) {
+        this.painter = painter;
+        camera = painter.getCamera();
+    }
+
+    /**
+     * Drops the tiles of the old level and puts the tiles of the new level into the cache. Must be
+     * called on the render thread.
+     *
+     * @param level The level to draw, null to draw nothing.
+     */
+    public void setLevel(Level level) {
+        if (chunks != null) chunks.removeConsumer(dirty);
+        this.level = level;
+        chunks = null;
+        if (level != null) rebuild();
+    }
+
+    /** Draws the tiles of the level the camera shows. Chunks that have changed are built first. */
+    public void draw() {
+        if (level == null) return;
+        if (level.getChunks() != chunks) rebuild();
+        checkFieldOfView();
+        for (int chunk = dirty.nextSetBit(0); chunk >= 0; chunk = dirty.nextSetBit(chunk + 1)) {
+            if (!buildChunk(chunk)) {
+                rebuild();
+                break;
+            }
+            dirty.clear(chunk);
+        }
+
+        int chunkSize = chunks.getChunkSize();
+        cache.setProjectionMatrix(camera.combined);
+        cache.begin();
+        for (int chunk = 0; chunk < cacheIds.length; chunk++) {
+            // the textures reach about one tile beyond their cell
+            if (cacheIds[chunk] >= 0
+                    && camera.isRectangleInFrustum(
+                            chunks.getX(chunk) - 1,
+                            chunks.getY(chunk) - 1,
+                            chunkSize + 2,
+                            chunkSize + 2)) cache.draw(cacheIds[chunk]);
+        }
+        cache.end();
+    }
+
+    /** Frees the memory of the cache on the graphics card. */
+    @Override
+    public void dispose() {
+        setLevel(null);
+        if (cache != null) cache.dispose();
+        cache = null;
+        capacity = 0;
+    }
+
+    /**
+     * Marks the chunks dirty whose explored tiles have changed since they were built. The explored
+     * tiles are compared with a copy, so tiles explored by several updates of the field of view
+     * between two frames are all found.
+     */
+    private void checkFieldOfView() {
+        FieldOfView current = level.getFieldOfView();
+        if (current != fieldOfView) {
+            dirty.set(0, chunks.size());
+            copyExplored(current);
+            return;
+        }
+        if (current == null) return;
+        current.getExplored(changedExplored);
+        changedExplored.xor(builtExplored);
+        LevelGrid grid = level.getGrid();
+        for (int index = changedExplored.nextSetBit(0);
+                index >= 0;
+                index = changedExplored.nextSetBit(index + 1))
+            dirty.set(chunks.chunkAt(grid.getX(index), grid.getY(index)));
+        builtExplored.xor(changedExplored);
+    }
+
+    private void copyExplored(FieldOfView current) {
+        fieldOfView = current;
+        if (current != null) current.getExplored(builtExplored);
+        else builtExplored.clear();
+    }
+
+    /** Reserves room for all tiles of the level and builds every chunk. */
+    private void rebuild() {
+        if (chunks != null) chunks.removeConsumer(dirty);
+        chunks = level.getChunks();
+        dirty = chunks.addConsumer();
+        LevelGrid grid = level.getGrid();
+        cacheIds = new int[chunks.size()];
+        Arrays.fill(cacheIds, -1);
+        reserved = new int[chunks.size()];
+        int tiles = 0;
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            chunks.getCells(chunk, cells);
+            for (int i = 0; i < cells.size; i++)
+                if (grid.getLevelElement(cells.get(i)) != LevelElement.VOID) reserved[chunk]++;
+            tiles += reserved[chunk];
+        }
+        if (cache == null || tiles > capacity) {
+            if (cache != null) cache.dispose();
+            capacity = Math.max(tiles, 1);
+            cache = new SpriteCache(capacity, false);
+        } else {
+            cache.clear();
+        }
+        copyExplored(level.getFieldOfView());
+        buildDirtyChunks();
+    }
+
+    private void buildDirtyChunks() {
+        for (int chunk = dirty.nextSetBit(0); chunk >= 0; chunk = dirty.nextSetBit(chunk + 1)) {
+            // after a rebuild every chunk fits into its reserved room
+            buildChunk(chunk);
+            dirty.clear(chunk);
+        }
+    }
+
+    /**
+     * Puts the tiles of a chunk into its cache. The cache always takes the room of all tiles of the
+     * chunk, so it can be built again when more of them are explored; the unused room is filled
+     * with empty images.
+     *
+     * @return false if the chunk does not fit into the room reserved for it any more
+     */
+    private boolean buildChunk(int chunk) {
+        LevelGrid grid = level.getGrid();
+        chunks.getCells(chunk, cells);
+        int tiles = 0;
+        int explored = 0;
+        int first = -1;
+        for (int i = 0; i < cells.size; i++) {
+            int index = cells.get(i);
+            if (grid.getLevelElement(index) == LevelElement.VOID) continue;
+            if (first < 0) first = index;
+            tiles++;
+            if (fieldOfView == null || fieldOfView.isExplored(index)) explored++;
+        }
+        // a cache cannot grow, and an empty chunk has no texture to fill its old cache with
+        if (tiles > reserved[chunk] || tiles == 0 && cacheIds[chunk] >= 0) return false;
+        if (explored == 0 && cacheIds[chunk] < 0) return true;
+
+        if (cacheIds[chunk] >= 0) cache.beginCache(cacheIds[chunk]);
+        else cache.beginCache();
+        for (int i = 0; i < cells.size; i++) {
+            int index = cells.get(i);
+            if (grid.getLevelElement(index) == LevelElement.VOID
+                    || fieldOfView != null && !fieldOfView.isExplored(index)) continue;
+            TextureRegion region = painter.getTextureRegion(grid.getTextureId(index));
+            cache.add(
+                    region,
+                    grid.getX(index) + Painter.DEFAULT_X_OFFSET,
+                    grid.getY(index) + Painter.DEFAULT_Y_OFFSET,
+                    1,
+                    (float) region.getRegionHeight() / region.getRegionWidth());
+        }
+        if (explored < reserved[chunk]) {
+            TextureRegion filler = painter.getTextureRegion(grid.getTextureId(first));
+            for (int i = explored; i < reserved[chunk]; i++)
+                cache.add(filler, grid.getX(first), grid.getY(first), 0, 0);
+        }
+        cacheIds[chunk] = cache.endCache();
+        return true;
+    }
+}
@@ -1,15 +1,44 @@
 package graphic;
 
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import java.util.Arrays;
+import level.elements.FieldOfView;
+import textures.TextureAtlasMap;
 import textures.TextureMap;
+import textures.TextureRegistry;
 import tools.Point;
 
-/** Uses LibGDX to draw sprites on the various <code>SpriteBatch</code>es. */
+/**
+ * Uses LibGDX to draw sprites on the various <code>SpriteBatch</code>es.
+ *
+ * <p>The textures are passed to the batch directly. If the batch is already drawing (the {@link
+ * controller.MainController} begins it once per frame), they are only queued and sent to the
+ * graphics card together; otherwise the painter begins and ends the batch around each texture.
+ *
+ * <p>Textures that are in the {@link TextureAtlasMap} (see {@link #setTextureAtlas}) are drawn from
+ * its pages, so the batch does not have to switch textures between them.
+ *
+ * <p>The methods that take a texture path look up its id in the {@link TextureRegistry} on every
+ * call; things drawn every frame should use the methods that take the id.
+ */
 public class Painter {
+    // offsets of textures that are drawn without explicit offsets, the values are best guesses
+    static final float DEFAULT_X_OFFSET = -0.85f;
+    static final float DEFAULT_Y_OFFSET = -0.5f;
+    /** Handle of textures that have not been looked up in the atlas yet. */
+    private static final int UNRESOLVED = -2;
+
     private final DungeonCamera camera;
     private final TextureMap textureMap = new TextureMap();
+    private FieldOfView fieldOfView;
+    private TextureAtlasMap atlas;
+
+    // per texture id of the TextureRegistry its texture and its handle in the atlas
+    private Texture[] textures = new Texture[0];
+    private TextureRegion[] textureRegions = new TextureRegion[0];
+    private int[] regionHandles = new int[0];
 
     /**
      * Uses LibGDX to draw sprites on the various <code>SpriteBatch</code>es.
@@ -20,6 +49,39 @@ public class Painter {
         this.camera = camera;
     }
 
+    /**
+     * @return the camera that decides what is drawn
+     */
+    public DungeonCamera getCamera() {
+        return camera;
+    }
+
+    /**
+     * Hides everything on tiles the hero has not seen yet, for example monsters in unexplored
+     * rooms.
+     *
+     * @param fieldOfView The field of view of the hero, see {@link
+     *     level.elements.Level#computeFieldOfView(Point, int)}; null to draw everything.
+     */
+    public void setFieldOfView(FieldOfView fieldOfView) {
+        this.fieldOfView = fieldOfView;
+    }
+
+    /**
+     * Draws the textures that are in the given atlas from its pages. The other textures are still
+     * loaded one by one.
+     *
+     * @param atlas The packed textures, null to load every texture on its own.
+     */
+    public void setTextureAtlas(TextureAtlasMap atlas) {
+        this.atlas = atlas;
+        Arrays.fill(regionHandles, UNRESOLVED);
+    }
+
+    public TextureAtlasMap getTextureAtlas() {
+        return atlas;
+    }
+
     /** Draws the instance based on its position. */
     public void draw(
             float xOffset,
@@ -29,46 +91,94 @@ public class Painter {
             String texturePath,
             Point position,
             SpriteBatch batch) {
-        if (camera.isPointInFrustum(position.x, position.y)) {
-            Sprite sprite = new Sprite(textureMap.getTexture(texturePath));
-            // set up scaling of textures
-            sprite.setSize(xScaling, yScaling);
-            // where to draw the sprite
-            sprite.setPosition(position.x + xOffset, position.y + yOffset);
-
-            // need to be called before drawing
-            batch.begin();
-            // draw sprite
-            sprite.draw(batch);
-            // need to be called after drawing
-            batch.end();
-        }
+        drawTexture(
+                xOffset,
+                yOffset,
+                xScaling,
+                yScaling,
+                TextureRegistry.getInstance().getId(texturePath),
+                position,
+                batch);
+    }
+
+    /**
+     * Draws the instance based on its position. The texture is found with an array access instead
+     * of hashing its path.
+     *
+     * @param textureId Id of the texture in the {@link TextureRegistry}.
+     */
+    public void draw(
+            float xOffset,
+            float yOffset,
+            float xScaling,
+            float yScaling,
+            int textureId,
+            Point position,
+            SpriteBatch batch) {
+        drawTexture(xOffset, yOffset, xScaling, yScaling, textureId, position, batch);
+    }
+
+    /**
+     * Draws a texture of the atlas based on its position.
+     *
+     * @param region Handle of the texture in the atlas, see {@link TextureAtlasMap#getHandle}.
+     */
+    public void drawRegion(
+            float xOffset,
+            float yOffset,
+            float xScaling,
+            float yScaling,
+            int region,
+            Point position,
+            SpriteBatch batch) {
+        if (!isVisible(position)) return;
+        boolean drawing = batch.isDrawing();
+        if (!drawing) batch.begin();
+        batch.draw(
+                atlas.getRegion(region),
+                position.x + xOffset,
+                position.y + yOffset,
+                xScaling,
+                yScaling);
+        if (!drawing) batch.end();
     }
 
     /** Draws the instance based on its position with default offset and default scaling. */
     public void draw(String texturePath, Point position, SpriteBatch batch) {
-        // the concrete offset values are best guesses
-        Texture t = textureMap.getTexture(texturePath);
-
         draw(
-                -0.85f,
-                -0.5f,
+                DEFAULT_X_OFFSET,
+                DEFAULT_Y_OFFSET,
                 1,
-                ((float) t.getHeight() / (float) t.getWidth()),
+                aspectRatio(TextureRegistry.getInstance().getId(texturePath)),
                 texturePath,
                 position,
                 batch);
     }
 
+    /**
+     * Draws the instance based on its position with default offset and default scaling.
+     *
+     * @param textureId Id of the texture in the {@link TextureRegistry}.
+     */
+    public void draw(int textureId, Point position, SpriteBatch batch) {
+        drawTexture(
+                DEFAULT_X_OFFSET,
+                DEFAULT_Y_OFFSET,
+                1,
+                aspectRatio(textureId),
+                textureId,
+                position,
+                batch);
+    }
+
     /** Draws the instance based on its position with default scaling and specific offset. */
     public void draw(
             float xOffset, float yOffset, String texturePath, Point position, SpriteBatch batch) {
-        Texture t = textureMap.getTexture(texturePath);
         draw(
                 xOffset,
                 yOffset,
                 1,
-                ((float) t.getHeight() / (float) t.getWidth()),
+                aspectRatio(TextureRegistry.getInstance().getId(texturePath)),
                 texturePath,
                 position,
                 batch);
@@ -77,6 +187,102 @@ public class Painter {
     /** Draws the instance based on its position with default offset and specific scaling. */
     public void drawWithScaling(
             float xScaling, float yScaling, String texturePath, Point position, SpriteBatch batch) {
-        draw(-0.85f, -0.5f, xScaling, yScaling, texturePath, position, batch);
+        draw(DEFAULT_X_OFFSET, DEFAULT_Y_OFFSET, xScaling, yScaling, texturePath, position, batch);
+    }
+
+    private void drawTexture(
+            float xOffset,
+            float yOffset,
+            float xScaling,
+            float yScaling,
+            int textureId,
+            Point position,
+            SpriteBatch batch) {
+        if (!isVisible(position)) return;
+        int region = getRegionHandle(textureId);
+        boolean drawing = batch.isDrawing();
+        if (!drawing) batch.begin();
+        if (region != TextureAtlasMap.NO_REGION)
+            batch.draw(
+                    atlas.getRegion(region),
+                    position.x + xOffset,
+                    position.y + yOffset,
+                    xScaling,
+                    yScaling);
+        else
+            batch.draw(
+                    getTexture(textureId),
+                    position.x + xOffset,
+                    position.y + yOffset,
+                    xScaling,
+                    yScaling);
+        if (!drawing) batch.end();
+    }
+
+    private boolean isVisible(Point position) {
+        if (fieldOfView != null && !fieldOfView.isExplored((int) position.x, (int) position.y))
+            return false;
+        return camera.isPointInFrustum(position.x, position.y);
+    }
+
+    /** Height of a texture divided by its width. */
+    private float aspectRatio(int textureId) {
+        int region = getRegionHandle(textureId);
+        if (region != TextureAtlasMap.NO_REGION) {
+            TextureRegion textureRegion = atlas.getRegion(region);
+            return (float) textureRegion.getRegionHeight() / textureRegion.getRegionWidth();
+        }
+        Texture t = getTexture(textureId);
+        return (float) t.getHeight() / (float) t.getWidth();
+    }
+
+    /** Looks up the handle of a texture in the atlas once, later calls read it from an array. */
+    private int getRegionHandle(int textureId) {
+        if (atlas == null) return TextureAtlasMap.NO_REGION;
+        if (textureId >= regionHandles.length) {
+            int oldLength = regionHandles.length;
+            regionHandles = Arrays.copyOf(regionHandles, Math.max(textureId + 1, 2 * oldLength));
+            Arrays.fill(regionHandles, oldLength, regionHandles.length, UNRESOLVED);
+        }
+        int region = regionHandles[textureId];
+        if (region == UNRESOLVED) {
+            region = atlas.getHandle(TextureRegistry.getInstance().getPath(textureId));
+            regionHandles[textureId] = region;
+        }
+        return region;
+    }
+
+    /**
+     * Returns the texture as a region: its region in the atlas, or a region that covers the whole
+     * texture if it is not in the atlas.
+     *
+     * @param textureId Id of the texture in the {@link TextureRegistry}.
+     * @return The region, the same object for every call with the same id.
+     */
+    TextureRegion getTextureRegion(int textureId) {
+        int region = getRegionHandle(textureId);
+        if (region != TextureAtlasMap.NO_REGION) return atlas.getRegion(region);
+        if (textureId >= textureRegions.length)
+            textureRegions =
+                    Arrays.copyOf(
+                            textureRegions, Math.max(textureId + 1, 2 * textureRegions.length));
+        TextureRegion textureRegion = textureRegions[textureId];
+        if (textureRegion == null) {
+            textureRegion = new TextureRegion(getTexture(textureId));
+            textureRegions[textureId] = textureRegion;
+        }
+        return textureRegion;
+    }
+
+    /** Loads a texture once, later calls read it from an array. */
+    private Texture getTexture(int textureId) {
+        if (textureId >= textures.length)
+            textures = Arrays.copyOf(textures, Math.max(textureId + 1, 2 * textures.length));
+        Texture texture = textures[textureId];
+        if (texture == null) {
+            texture = textureMap.getTexture(TextureRegistry.getInstance().getPath(textureId));
+            textures[textureId] = texture;
+        }
+        return texture;
     }
 }
@@ -1,6 +1,7 @@
 package level;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import graphic.LevelRenderCache;
 import graphic.Painter;
 import level.elements.Level;
 import level.generator.IGenerator;
@@ -13,6 +14,7 @@ public class LevelAPI {
     private final IOnLevelLoader onLevelLoader;
     private IGenerator gen;
     private Level currentLevel;
+    private LevelRenderCache renderCache;
 
     /**
      * @param batch Batch on which to draw.
@@ -34,6 +36,7 @@ public class LevelAPI {
     /** Load a new level. */
     public void loadLevel() {
         currentLevel = gen.getLevel();
+        if (renderCache != null) renderCache.setLevel(currentLevel);
         onLevelLoader.onLevelLoad();
     }
 
@@ -44,6 +47,7 @@ public class LevelAPI {
      */
     public void loadLevel(DesignLabel designLabel) {
         currentLevel = gen.getLevel(designLabel);
+        if (renderCache != null) renderCache.setLevel(currentLevel);
         onLevelLoader.onLevelLoad();
     }
 
@@ -52,7 +56,25 @@ public class LevelAPI {
         if (currentLevel == null) {
             return;
         }
-        currentLevel.drawLevel(painter, batch);
+        if (renderCache == null) {
+            currentLevel.drawLevel(painter, batch);
+            return;
+        }
+        // the cache cannot draw while the batch is drawing
+        boolean drawing = batch.isDrawing();
+        if (drawing) batch.end();
+        renderCache.draw();
+        if (drawing) batch.begin();
+    }
+
+    /**
+     * Draws the levels from a cache on the graphics card instead of tile by tile.
+     *
+     * @param renderCache The cache, null to draw the tiles with the painter.
+     */
+    public void setRenderCache(LevelRenderCache renderCache) {
+        this.renderCache = renderCache;
+        if (renderCache != null) renderCache.setLevel(currentLevel);
     }
 
     public Level getCurrentLevel() {
@@ -84,6 +106,7 @@ public class LevelAPI {
      */
     public void setLevel(Level level) {
         currentLevel = level;
+        if (renderCache != null) renderCache.setLevel(currentLevel);
         onLevelLoader.onLevelLoad();
     }
 }
@@ -0,0 +1,210 @@
+package level.elements;
+
+import java.util.BitSet;
+
+/**
+ * The cells of a level grid that a viewer (usually the hero) can see, and the cells it has seen
+ * before (fog of war).
+ *
+ * <p>The visible cells are computed with recursive shadowcasting: each of the eight octants around
+ * the viewer is scanned row by row, and the parts of a row that lie behind a wall or empty cell are
+ * skipped together instead of tracing a line to every cell. Walls that are seen are visible
+ * themselves. The field is only computed again when the viewer enters another cell or the grid was
+ * changed, so calling {@link #update(int, int)} every frame is cheap.
+ */
+public class FieldOfView {
+    /**
+     * Transformations of the first octant into the eight octants: for each octant the factors xx,
+     * xy, yx and yy of <code>x = dx * xx + dy * xy</code> and <code>y = dx * yx + dy * yy</code>.
+     */
+    private static final int[][] OCTANTS = {
+        {1, 0, 0, 1}, {0, 1, 1, 0}, {0, -1, 1, 0}, {-1, 0, 0, 1},
+        {-1, 0, 0, -1}, {0, -1, -1, 0}, {0, 1, -1, 0}, {1, 0, 0, -1}
+    };
+
+    private final LevelGrid grid;
+    private final BitSet visible;
+    private final BitSet explored;
+    private int radius;
+    private int viewerX = -1;
+    private int viewerY = -1;
+    private int modificationCount;
+
+    /**
+     * Creates a field of view in which nothing is visible or explored until the first {@link
+     * #update(int, int)}.
+     *
+     * @param grid The grid the viewer is on.
+     * @param radius How many cells far the viewer can see.
+     */
+    public FieldOfView(LevelGrid grid, int radius) {
+        this.grid = grid;
+        this.radius = radius;
+        visible = new BitSet(grid.size());
+        explored = new BitSet(grid.size());
+    }
+
+    /**
+     * Moves the viewer. The visible cells are computed again if the viewer entered another cell or
+     * the grid changed since the last call, and are added to the explored cells.
+     *
+     * @param x X coordinate of the viewer's cell.
+     * @param y Y coordinate of the viewer's cell.
+     * @return true if the visible cells were computed again
+     */
+    public boolean update(int x, int y) {
+        if (x == viewerX && y == viewerY && modificationCount == grid.getModificationCount())
+            return false;
+        viewerX = x;
+        viewerY = y;
+        modificationCount = grid.getModificationCount();
+        visible.clear();
+        if (grid.isInBounds(x, y)) {
+            visible.set(grid.index(x, y));
+            for (int[] octant : OCTANTS)
+                castLight(1, 1.0, 0.0, octant[0], octant[1], octant[2], octant[3]);
+        }
+        explored.or(visible);
+        return true;
+    }
+
+    /**
+     * Scans the rows of one octant, starting at the given row, between two slopes. When a row has
+     * walls, the part of the next rows between the walls is scanned with a recursive call and the
+     * scan continues behind the walls.
+     */
+    private void castLight(int row, double start, double end, int xx, int xy, int yx, int yy) {
+        if (start < end) return;
+        int radiusSquared = radius * radius;
+        double newStart = 0;
+        for (int distance = row; distance <= radius; distance++) {
+            int dy = -distance;
+            boolean blocked = false;
+            for (int dx = -distance; dx <= 0; dx++) {
+                double leftSlope = (dx - 0.5) / (dy + 0.5);
+                double rightSlope = (dx + 0.5) / (dy - 0.5);
+                if (start < rightSlope) continue;
+                if (end > leftSlope) break;
+
+                int x = viewerX + dx * xx + dy * xy;
+                int y = viewerY + dx * yx + dy * yy;
+                boolean inBounds = grid.isInBounds(x, y);
+                if (inBounds && dx * dx + dy * dy <= radiusSquared) visible.set(grid.index(x, y));
+                boolean opaque = !inBounds || !grid.isAccessible(grid.index(x, y));
+                if (blocked) {
+                    if (opaque) {
+                        newStart = rightSlope;
+                    } else {
+                        blocked = false;
+                        start = newStart;
+                    }
+                } else if (opaque && distance < radius) {
+                    blocked = true;
+                    castLight(distance + 1, start, leftSlope, xx, xy, yx, yy);
+                    newStart = rightSlope;
+                }
+            }
+            if (blocked) break;
+        }
+    }
+
+    /**
+     * @param index Index of the cell.
+     * @return true if the viewer can see the cell right now
+     */
+    public boolean isVisible(int index) {
+        return visible.get(index);
+    }
+
+    /**
+     * @param index Index of the cell.
+     * @return true if the viewer has seen the cell since the last {@link #resetExplored()}
+     */
+    public boolean isExplored(int index) {
+        return explored.get(index);
+    }
+
+    /**
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     * @return true if the viewer can see the cell right now; false if it is out of bounds
+     */
+    public boolean isVisible(int x, int y) {
+        return grid.isInBounds(x, y) && visible.get(grid.index(x, y));
+    }
+
+    /**
+     * @param x X coordinate of the cell.
+     * @param y Y coordinate of the cell.
+     * @return true if the viewer has seen the cell; false if it is out of bounds
+     */
+    public boolean isExplored(int x, int y) {
+        return grid.isInBounds(x, y) && explored.get(grid.index(x, y));
+    }
+
+    /**
+     * Finds the next explored cell, to go through the explored cells without looking at the others:
+     * <code>for (int i = nextExplored(0); i >= 0; i = nextExplored(i + 1))</code>.
+     *
+     * @param fromIndex Index of the first cell to look at.
+     * @return Index of the next explored cell, or -1 if there is none.
+     */
+    public int nextExplored(int fromIndex) {
+        return explored.nextSetBit(fromIndex);
+    }
+
+    /**
+     * Finds the next visible cell, like {@link #nextExplored(int)}.
+     *
+     * @param fromIndex Index of the first cell to look at.
+     * @return Index of the next visible cell, or -1 if there is none.
+     */
+    public int nextVisible(int fromIndex) {
+        return visible.nextSetBit(fromIndex);
+    }
+
+    /**
+     * Copies the explored cells, for example to find out later which cells were explored since.
+     *
+     * @param outExplored Receives the indices of the explored cells. It is cleared first.
+     */
+    public void getExplored(BitSet outExplored) {
+        outExplored.clear();
+        outExplored.or(explored);
+    }
+
+    /**
+     * @return Number of cells that are visible right now.
+     */
+    public int countVisible() {
+        return visible.cardinality();
+    }
+
+    /**
+     * @return Number of cells that have been seen.
+     */
+    public int countExplored() {
+        return explored.cardinality();
+    }
+
+    /** Forgets the explored cells, only the cells that are visible right now stay explored. */
+    public void resetExplored() {
+        explored.clear();
+        explored.or(visible);
+    }
+
+    /**
+     * Changes how far the viewer can see. Takes effect with the next {@link #update(int, int)}.
+     *
+     * @param radius How many cells far the viewer can see.
+     */
+    public void setRadius(int radius) {
+        this.radius = radius;
+        viewerX = -1;
+        viewerY = -1;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+}
@@ -4,15 +4,27 @@ import basiselements.Entity;
 import com.badlogic.gdx.ai.pfa.Connection;
 import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
 import com.badlogic.gdx.ai.pfa.GraphPath;
-import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
 import com.badlogic.gdx.ai.pfa.indexed.IndexedGraph;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import graphic.DungeonCamera;
 import graphic.Painter;
+import java.util.List;
 import java.util.Random;
-import level.elements.astar.TileHeuristic;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import level.elements.astar.AbstractGridPathFinder;
+import level.elements.astar.ConnectedComponents;
+import level.elements.astar.DistanceField;
+import level.elements.astar.GridHeuristic;
+import level.elements.astar.PathCache;
+import level.elements.astar.PathfindingMode;
+import level.elements.astar.TileConnection;
 import level.tools.Coordinate;
 import level.tools.DesignLabel;
+import level.tools.DiagonalMovement;
 import level.tools.LevelElement;
 import level.tools.TileTextureFactory;
 import tools.Point;
@@ -20,15 +32,50 @@ import tools.Point;
 /**
  * A level is a 2D-Array of Tiles.
  *
+ * <p>The layout is stored in a {@link LevelGrid}. The {@link Tile} objects are only created when
+ * they are requested (for example by {@link #getTileAt(Coordinate)} or {@link #getLayout()}) and
+ * then kept, so each position is always represented by the same tile.
+ *
  * @author Andre Matutat
  */
 public class Level implements IndexedGraph<Tile> {
+    /**
+     * Cost of the connection to a diagonal neighbour, the same as for the grid path finders, so
+     * {@link level.elements.astar.TileHeuristic} never overestimates it.
+     */
+    private static final float DIAGONAL_COST =
+            AbstractGridPathFinder.DIAGONAL_COST / (float) AbstractGridPathFinder.STRAIGHT_COST;
+
     private final transient Random random;
-    private final transient TileHeuristic tileHeuristic = new TileHeuristic();
+    /** Search states of the concurrent searches that are not in use, see {@link #findPaths}. */
+    private final transient Array<AbstractGridPathFinder> freePathFinders = new Array<>(false, 4);
+
+    private transient PathfindingMode pathfindingMode = PathfindingMode.A_STAR;
+    private transient AbstractGridPathFinder pathFinder;
+    /**
+     * Path finders of others that learn about every changed cell, see {@link #attachPathFinder}.
+     */
+    private final transient Array<AbstractGridPathFinder> attachedPathFinders =
+            new Array<>(false, 2);
+
+    private transient IntArray pathBuffer;
+    private transient IntArray queryBuffer;
+    private transient PathCache pathCache;
+    private transient DistanceField distanceField;
+    private transient ConnectedComponents components;
+    private transient FieldOfView fieldOfView;
+    private transient LevelChunks chunks;
+    /** Position of the tile that is drawn, reused for every tile. */
+    private final transient Point drawPosition = new Point(0, 0);
+
+    private final transient Rectangle visibleArea = new Rectangle();
+    private transient Array<Connection<Tile>> connectionBuffer;
+    private transient int version;
+    private transient int expandedNodes;
     private Tile startTile;
     private Tile endTile;
-    private int nodeCount = 0;
-    private Tile[][] layout;
+    private final LevelGrid grid;
+    private transient Tile[][] layout;
 
     /**
      * Create a new level
@@ -45,6 +92,21 @@ public class Level implements IndexedGraph<Tile> {
      * @param layout The layout of the level.
      */
     public Level(Tile[][] layout, Random random) {
+        this(toGrid(layout), layout, random);
+    }
+
+    /**
+     * Create a new Level
+     *
+     * @param layout The layout of the Level
+     * @param designLabel The design the level should have
+     */
+    public Level(LevelElement[][] layout, DesignLabel designLabel) {
+        this(toGrid(layout, designLabel), null, new Random());
+    }
+
+    private Level(LevelGrid grid, Tile[][] layout, Random random) {
+        this.grid = grid;
         this.layout = layout;
         this.random = random;
         makeConnections();
@@ -53,19 +115,24 @@ public class Level implements IndexedGraph<Tile> {
     }
 
     /**
-     * Create a new Level
+     * Creates a level on a grid whose start and end are already known, see {@link LevelSnapshot}.
      *
-     * @param layout The layout of the Level
-     * @param designLabel The design the level should have
+     * @param grid The grid of the level, the end tile must already be an exit.
+     * @param startIndex Index of the start tile, -1 for none.
+     * @param endIndex Index of the end tile, -1 for none.
      */
-    public Level(LevelElement[][] layout, DesignLabel designLabel) {
-        this(convertLevelElementToTile(layout, designLabel));
+    Level(LevelGrid grid, int startIndex, int endIndex) {
+        this.grid = grid;
+        this.random = new Random();
+        makeConnections();
+        startTile = startIndex >= 0 ? getTile(startIndex) : null;
+        endTile = endIndex >= 0 ? getTile(endIndex) : null;
     }
 
     // --------------------------- API ---------------------------
 
     /**
-     * Starts the indexed A* pathfinding algorithm a returns a path
+     * Starts the pathfinding algorithm a returns a path
      *
      * @param start Start tile
      * @param end End tile
@@ -74,18 +141,521 @@ public class Level implements IndexedGraph<Tile> {
      */
     public GraphPath<Tile> findPath(Tile start, Tile end) {
         GraphPath<Tile> path = new DefaultGraphPath<>();
-        new IndexedAStarPathFinder<>(this).searchNodePath(start, end, tileHeuristic, path);
+        findPath(start, end, path);
         return path;
     }
 
+    /**
+     * Starts the pathfinding algorithm and writes the path into the given path.
+     *
+     * <p>The search state of the level is reused between calls, so this does not create garbage
+     * once the tiles on the path exist. Must only be called from one thread, see {@link
+     * #findPathConcurrently(int, int, IntArray)} for concurrent callers.
+     *
+     * @param start Start tile
+     * @param end End tile
+     * @param outPath Receives the path. It is cleared first and stays empty if there is no path.
+     * @return true if a path was found
+     */
+    public boolean findPath(Tile start, Tile end, GraphPath<Tile> outPath) {
+        return findPath(start, end, null, outPath);
+    }
+
+    /**
+     * Starts the pathfinding algorithm with the given heuristic and writes the path into the given
+     * path.
+     *
+     * <p>A heuristic that never overestimates (see {@link GridHeuristic}) finds a shortest path
+     * with {@link PathfindingMode#A_STAR} and {@link PathfindingMode#JUMP_POINT_SEARCH}, the
+     * heuristics differ in the number of tiles that are expanded on the way, see {@link
+     * #getExpandedNodes()}. {@link PathfindingMode#HIERARCHICAL} returns approximate paths that
+     * can be longer than the shortest ones; only for start and end in the same or neighbouring
+     * clusters the path is the shortest one inside these clusters.
+     *
+     * <p>Only searches with the default heuristic use the path cache, a path of another heuristic
+     * may be longer than the one a default query promises.
+     *
+     * @param start Start tile
+     * @param end End tile
+     * @param heuristic Estimates the distance to the end tile, <code>null</code> for the default
+     *     heuristic of the pathfinder.
+     * @param outPath Receives the path. It is cleared first and stays empty if there is no path.
+     * @return true if a path was found
+     */
+    public boolean findPath(
+            Tile start, Tile end, GridHeuristic heuristic, GraphPath<Tile> outPath) {
+        outPath.clear();
+        expandedNodes = 0;
+        if (pathBuffer == null) pathBuffer = new IntArray();
+        PathCache cache = heuristic == null ? pathCache : null;
+        if (cache != null && cache.get(start.getIndex(), end.getIndex(), version, pathBuffer)) {
+            for (int i = 0; i < pathBuffer.size; i++) outPath.add(getTile(pathBuffer.get(i)));
+            return pathBuffer.size > 0;
+        }
+        if (pathFinder == null) pathFinder = pathfindingMode.newPathFinder(grid);
+        boolean found =
+                pathFinder.searchNodePath(start.getIndex(), end.getIndex(), heuristic, pathBuffer);
+        expandedNodes = pathFinder.getExpandedNodes();
+        if (cache != null) cache.put(start.getIndex(), end.getIndex(), version, pathBuffer);
+        for (int i = 0; i < pathBuffer.size; i++) outPath.add(getTile(pathBuffer.get(i)));
+        return found;
+    }
+
+    /**
+     * Starts the pathfinding algorithm on the grid indices of the tiles.
+     *
+     * <p>Each search takes a search state of its own from a pool of the level, so this can be
+     * called from several threads at the same time as long as the level is not changed meanwhile.
+     * The path cache is not used.
+     *
+     * @param start Index of the start tile
+     * @param end Index of the end tile
+     * @param outPath Receives the indices of the tiles on the path. It is cleared first and stays
+     *     empty if there is no path.
+     * @return true if a path was found
+     */
+    public boolean findPathConcurrently(int start, int end, IntArray outPath) {
+        AbstractGridPathFinder finder = obtainPathFinder();
+        try {
+            return finder.searchNodePath(start, end, outPath);
+        } finally {
+            freePathFinder(finder);
+        }
+    }
+
+    /**
+     * @return Number of tiles expanded by the last search of {@link #findPath(Tile, Tile,
+     *     GridHeuristic, GraphPath)}, 0 if the path was taken from the path cache.
+     */
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    /**
+     * Takes an unused search state from the pool or creates one. The pool only grows to the number
+     * of searches that ran at the same time and goes away with the level, unlike search states
+     * bound to the (long-living) worker threads.
+     *
+     * <p>The search states in the pool are informed about changed cells, so a state taken again
+     * does not need to prepare the whole level. A state that is used over several frames has to be
+     * attached with {@link #attachPathFinder(AbstractGridPathFinder)} meanwhile.
+     *
+     * @return A search state for the current {@link #getPathfindingMode()}.
+     */
+    public AbstractGridPathFinder obtainPathFinder() {
+        synchronized (freePathFinders) {
+            if (freePathFinders.size > 0) return freePathFinders.pop();
+        }
+        return pathfindingMode.newPathFinder(grid);
+    }
+
+    /**
+     * Puts a search state back into the pool.
+     *
+     * @param finder A search state from {@link #obtainPathFinder()}, which must not be used
+     *     afterwards. It is dropped if the pathfinding mode was changed meanwhile.
+     */
+    public void freePathFinder(AbstractGridPathFinder finder) {
+        synchronized (freePathFinders) {
+            if (finder.getPathfindingMode() == pathfindingMode) freePathFinders.add(finder);
+        }
+    }
+
+    /**
+     * Searches the paths of all requests in parallel on the common {@link ForkJoinPool}.
+     *
+     * @param requests The requests, each receives its path.
+     * @see #findPaths(List, ForkJoinPool)
+     */
+    public void findPaths(List<PathRequest> requests) {
+        findPaths(requests, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Searches the paths of all requests in parallel and returns when all are done.
+     *
+     * <p>Each search uses its own search state (see {@link #findPathConcurrently(int, int,
+     * IntArray)}), so the level must not be changed during the call. For requests with the default
+     * heuristic, cached paths are taken from the path cache and new paths are stored in it. The
+     * tiles of the paths are looked up on the calling thread.
+     *
+     * @param requests The requests, each receives its path.
+     * @param pool The pool that runs the searches.
+     */
+    public void findPaths(List<PathRequest> requests, ForkJoinPool pool) {
+        for (PathRequest request : requests) {
+            request.resolved = false;
+            request.expandedNodes = 0;
+            if (pathCache == null
+                    || request.getHeuristic() != null
+                    || !pathCache.get(
+                            request.getStart().getIndex(),
+                            request.getEnd().getIndex(),
+                            version,
+                            request.nodePath)) continue;
+            request.setFound(request.nodePath.size > 0);
+            request.resolved = true;
+        }
+        pool.invoke(new FindPathsTask(requests, 0, requests.size()));
+        for (PathRequest request : requests) {
+            if (pathCache != null && !request.resolved && request.getHeuristic() == null)
+                pathCache.put(
+                        request.getStart().getIndex(),
+                        request.getEnd().getIndex(),
+                        version,
+                        request.nodePath);
+            GraphPath<Tile> path = request.getPath();
+            path.clear();
+            for (int i = 0; i < request.nodePath.size; i++)
+                path.add(getTile(request.nodePath.get(i)));
+        }
+    }
+
+    /** Splits a list of path requests until each task searches a single path. */
+    private class FindPathsTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<PathRequest> requests;
+        private final int from;
+        private final int to;
+
+        private FindPathsTask(List<PathRequest> requests, int from, int to) {
+            this.requests = requests;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(
+                        new FindPathsTask(requests, from, middle),
+                        new FindPathsTask(requests, middle, to));
+                return;
+            }
+            if (from == to) return;
+            PathRequest request = requests.get(from);
+            if (request.resolved) return;
+            AbstractGridPathFinder pathFinder = obtainPathFinder();
+            try {
+                request.setFound(
+                        pathFinder.searchNodePath(
+                                request.getStart().getIndex(),
+                                request.getEnd().getIndex(),
+                                request.getHeuristic(),
+                                request.nodePath));
+                request.expandedNodes = pathFinder.getExpandedNodes();
+            } finally {
+                freePathFinder(pathFinder);
+            }
+        }
+    }
+
+    /**
+     * Selects the algorithm used by the pathfinding methods of this level. Cached paths are
+     * dropped.
+     *
+     * @param mode The algorithm to use, {@link PathfindingMode#A_STAR} by default.
+     */
+    public void setPathfindingMode(PathfindingMode mode) {
+        if (mode == pathfindingMode) return;
+        synchronized (freePathFinders) {
+            pathfindingMode = mode;
+            freePathFinders.clear();
+        }
+        // the pathfinder may need to prepare the level, do that now and not on the first query
+        pathFinder = mode.newPathFinder(grid);
+        if (pathCache != null) pathCache.clear();
+    }
+
+    /**
+     * Informs a path finder on the grid of this level about every cell {@link
+     * #changeTileElementType(Tile, LevelElement)} changes, like the path finder of the level
+     * itself. A {@link PathfindingMode#HIERARCHICAL} finder then updates only the clusters of the
+     * changed cells instead of building its whole graph again.
+     *
+     * @param finder A path finder created for {@link #getGrid()}.
+     * @see #detachPathFinder(AbstractGridPathFinder)
+     */
+    public void attachPathFinder(AbstractGridPathFinder finder) {
+        if (!attachedPathFinders.contains(finder, true)) attachedPathFinders.add(finder);
+    }
+
+    /**
+     * Stops informing a path finder about changed cells.
+     *
+     * @param finder A path finder given to {@link #attachPathFinder(AbstractGridPathFinder)}.
+     */
+    public void detachPathFinder(AbstractGridPathFinder finder) {
+        attachedPathFinders.removeValue(finder, true);
+    }
+
+    /**
+     * @return The algorithm used by the pathfinding methods of this level.
+     */
+    public PathfindingMode getPathfindingMode() {
+        return pathfindingMode;
+    }
+
+    /**
+     * Allows or forbids diagonal steps between tiles. The neighbours of all tiles are computed
+     * again, so cached paths are dropped.
+     *
+     * <p>Diagonal steps are used by {@link PathfindingMode#A_STAR} and by the connections of the
+     * tiles ({@link #getConnections(Tile)}). The other modes and the distance field keep to the
+     * four direct neighbours.
+     *
+     * @param diagonalMovement The rule for diagonal steps, {@link DiagonalMovement#NONE} by
+     *     default.
+     */
+    public void setDiagonalMovement(DiagonalMovement diagonalMovement) {
+        if (diagonalMovement == grid.getDiagonalMovement()) return;
+        grid.setDiagonalMovement(diagonalMovement);
+        makeConnections();
+    }
+
+    /**
+     * @return The rule for diagonal steps between tiles.
+     */
+    public DiagonalMovement getDiagonalMovement() {
+        return grid.getDiagonalMovement();
+    }
+
+    /**
+     * Enables a cache for the paths found by {@link #findPath(Tile, Tile, GraphPath)}.
+     *
+     * <p>The least recently used path is dropped when the cache is full. Each change through {@link
+     * #changeTileElementType(Tile, LevelElement)} (and therefore {@link #setStartTile(Tile)} and
+     * {@link #setEndTile(Tile)}) or {@link #makeConnections()} increases the version of the level,
+     * which invalidates all cached paths.
+     *
+     * @param capacity Maximum number of cached paths, 0 disables the cache.
+     */
+    public void setPathCacheCapacity(int capacity) {
+        pathCache = capacity > 0 ? new PathCache(capacity) : null;
+    }
+
+    /**
+     * Get the chunks of the level. Consumers of the level register with {@link
+     * LevelChunks#addConsumer()} to learn which chunks {@link #changeTileElementType(Tile,
+     * LevelElement)} has changed.
+     *
+     * @return The chunks, {@link LevelChunks#DEFAULT_CHUNK_SIZE} cells wide unless {@link
+     *     #setChunkSize(int)} was called.
+     */
+    public LevelChunks getChunks() {
+        if (chunks == null) chunks = new LevelChunks(grid, LevelChunks.DEFAULT_CHUNK_SIZE);
+        return chunks;
+    }
+
+    /**
+     * Divides the level into chunks of another size. Consumers of the old chunks are no longer
+     * informed about changes and have to register again.
+     *
+     * @param chunkSize Width and height of a chunk in tiles.
+     */
+    public void setChunkSize(int chunkSize) {
+        chunks = new LevelChunks(grid, chunkSize);
+    }
+
+    /**
+     * Get the path cache, for example to read its hit and miss counters.
+     *
+     * @return The path cache, <code>null</code> if it is disabled.
+     */
+    public PathCache getPathCache() {
+        return pathCache;
+    }
+
+    /**
+     * Get the version of the level. The version increases with every change of the layout.
+     *
+     * @return The version of the level.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Computes the distance of every tile to the nearest of the given goal tiles in one
+     * breadth-first search.
+     *
+     * <p>Use this if many characters walk to the same goals (for example monsters chasing the
+     * hero): instead of searching a path for every character, each one asks {@link
+     * #getNextStep(Tile)} for its next tile. The field is reused between calls.
+     *
+     * @param goals The goal tiles.
+     * @return The distance field of this level.
+     */
+    public DistanceField computeDistanceField(Tile... goals) {
+        if (distanceField == null) distanceField = new DistanceField(grid);
+        int[] indices = new int[goals.length];
+        for (int i = 0; i < goals.length; i++) indices[i] = goals[i].getIndex();
+        distanceField.compute(indices);
+        return distanceField;
+    }
+
+    /**
+     * Moves a goal of the distance field and only updates the distances that change.
+     *
+     * @param from The current goal tile.
+     * @param to The new goal tile.
+     */
+    public void moveDistanceFieldGoal(Tile from, Tile to) {
+        if (distanceField == null) computeDistanceField(to);
+        else distanceField.moveGoal(from.getIndex(), to.getIndex());
+    }
+
+    /**
+     * Finds the next tile on the way to the nearest goal of the distance field.
+     *
+     * @param tile The tile a character is on.
+     * @return The neighbour one step closer to the nearest goal, <code>null</code> if the tile is a
+     *     goal, no goal is reachable or no distance field was computed.
+     */
+    public Tile getNextStep(Tile tile) {
+        if (distanceField == null) return null;
+        int next = distanceField.getNextStep(tile.getIndex());
+        return next == -1 ? null : getTile(next);
+    }
+
+    /**
+     * @return The distance field of this level, <code>null</code> if it was never computed.
+     */
+    public DistanceField getDistanceField() {
+        return distanceField;
+    }
+
+    /**
+     * Checks if there is a path between two tiles without searching it.
+     *
+     * <p>Every accessible tile is labelled with the id of its connected component the first time
+     * this is called, after that each check takes constant time. {@link
+     * #changeTileElementType(Tile, LevelElement)} updates the labels.
+     *
+     * @param from Start tile
+     * @param to End tile
+     * @return true if both tiles are the same or {@link #findPath(Tile, Tile)} would find a path
+     */
+    public boolean isReachable(Tile from, Tile to) {
+        if (components == null) components = new ConnectedComponents(grid);
+        return components.isReachable(from.getIndex(), to.getIndex());
+    }
+
+    /**
+     * Starts to track what a character (usually the hero) can see. From now on {@link
+     * #drawLevel(Painter, SpriteBatch)} only draws the tiles the character has seen.
+     *
+     * @param viewer Position of the character.
+     * @param radius How many tiles far the character can see.
+     * @return The field of view, see {@link #updateFieldOfView(Point)} to move the character.
+     */
+    public FieldOfView computeFieldOfView(Point viewer, int radius) {
+        fieldOfView = new FieldOfView(grid, radius);
+        updateFieldOfView(viewer);
+        return fieldOfView;
+    }
+
+    /**
+     * Moves the character of the field of view. Can be called every frame: the visible tiles are
+     * only computed again when the character entered another tile or the level changed.
+     *
+     * @param viewer Position of the character.
+     * @return true if the visible tiles were computed again; false if they are unchanged or there
+     *     is no field of view (see {@link #computeFieldOfView(Point, int)})
+     */
+    public boolean updateFieldOfView(Point viewer) {
+        return fieldOfView != null && fieldOfView.update((int) viewer.x, (int) viewer.y);
+    }
+
+    /**
+     * @return The field of view or null if there is none, see {@link #computeFieldOfView(Point,
+     *     int)}.
+     */
+    public FieldOfView getFieldOfView() {
+        return fieldOfView;
+    }
+
+    /**
+     * Collects the tiles whose centre is at most the given distance away from the centre of a tile,
+     * for example to find everything near an entity.
+     *
+     * <p>The search runs on the grid of the level and does not create garbage once the tiles exist.
+     * Must only be called from one thread, the grid offers the same query on indices for other
+     * callers (see {@link LevelGrid#getCellsInRadius(int, int, int, IntArray)}).
+     *
+     * @param center The tile in the centre.
+     * @param radius Distance in tiles.
+     * @param outTiles Receives the tiles. It is cleared first.
+     */
+    public void getTilesInRadius(Tile center, int radius, Array<Tile> outTiles) {
+        if (queryBuffer == null) queryBuffer = new IntArray();
+        grid.getCellsInRadius(
+                grid.getX(center.getIndex()), grid.getY(center.getIndex()), radius, queryBuffer);
+        toTiles(queryBuffer, outTiles);
+    }
+
+    /**
+     * Collects the tiles of a rectangle, the parts outside of the level are left out.
+     *
+     * <p>Like {@link #getTilesInRadius(Tile, int, Array)} this does not create garbage once the
+     * tiles exist and must only be called from one thread.
+     *
+     * @param from One corner of the rectangle.
+     * @param to The opposite corner of the rectangle (inclusive).
+     * @param outTiles Receives the tiles. It is cleared first.
+     */
+    public void getTilesInRectangle(Coordinate from, Coordinate to, Array<Tile> outTiles) {
+        if (queryBuffer == null) queryBuffer = new IntArray();
+        grid.getCellsInRectangle(from.x, from.y, to.x, to.y, queryBuffer);
+        toTiles(queryBuffer, outTiles);
+    }
+
+    private void toTiles(IntArray indices, Array<Tile> outTiles) {
+        outTiles.clear();
+        outTiles.ensureCapacity(indices.size);
+        for (int i = 0; i < indices.size; i++) outTiles.add(getTile(indices.get(i)));
+    }
+
+    /**
+     * Checks if a character on one tile can see another tile, that is if no wall or empty tile is
+     * on the line between them.
+     *
+     * @param from Tile of the viewer.
+     * @param to Tile to look at.
+     * @return true if the view is not blocked
+     * @see LevelGrid#hasLineOfSight(int, int, int, int)
+     */
+    public boolean hasLineOfSight(Tile from, Tile to) {
+        return grid.hasLineOfSight(
+                grid.getX(from.getIndex()),
+                grid.getY(from.getIndex()),
+                grid.getX(to.getIndex()),
+                grid.getY(to.getIndex()));
+    }
+
+    /**
+     * Checks if a character at one position can see another position, for example a monster looking
+     * for the hero. The positions are rounded down to the tiles they are on.
+     *
+     * @param from Position of the viewer.
+     * @param to Position to look at.
+     * @return true if the view is not blocked
+     */
+    public boolean hasLineOfSight(Point from, Point to) {
+        return grid.hasLineOfSight((int) from.x, (int) from.y, (int) to.x, (int) to.y);
+    }
+
     /**
      * Checks if the passed entity is on the tile to the next level.
      *
      * @param entity entity to check for.
-     * @return if the passed entity is on the tile to the next level
+     * @return if the passed entity is on the tile to the next level, false if the level has none
      */
     public boolean isOnEndTile(Entity entity) {
-        return entity.getPosition().toCoordinate().equals(getEndTile().getCoordinate());
+        return endTile != null
+                && entity.getPosition().toCoordinate().equals(endTile.getCoordinate());
     }
 
     /**
@@ -95,30 +665,44 @@ public class Level implements IndexedGraph<Tile> {
      * @return The tile on that point. null if there is no Tile or the Coordinate is out of bound
      */
     public Tile getTileAt(Coordinate globalPoint) {
-        try {
-            return layout[globalPoint.y][globalPoint.x];
-        } catch (IndexOutOfBoundsException e) {
-            return null;
-        }
+        if (!grid.isInBounds(globalPoint.x, globalPoint.y)) return null;
+        return getTile(grid.index(globalPoint.x, globalPoint.y));
+    }
+
+    /**
+     * Get the tile on the given grid index.
+     *
+     * @param index Index of the tile in the grid, see {@link LevelGrid#index(int, int)}.
+     * @return The tile on that index.
+     */
+    public Tile getTile(int index) {
+        if (layout == null) layout = new Tile[grid.getHeight()][grid.getWidth()];
+        Tile[] row = layout[grid.getY(index)];
+        int x = grid.getX(index);
+        if (row[x] == null) row[x] = new Tile(grid, index);
+        return row[x];
     }
 
     /**
      * @return a random Tile in the Level
      */
     public Tile getRandomTile() {
-        return layout[random.nextInt(layout.length)][random.nextInt(layout[0].length)];
+        return getTile(randomIndex());
     }
 
     /**
      * Get a random Tile
      *
+     * <p>The grid keeps the tiles of each type in a list, so this takes constant time no matter how
+     * few tiles of the type there are.
+     *
      * @param elementType Type of the Tile
-     * @return A random Tile of the given Type
+     * @return A random Tile of the given Type, <code>null</code> if there is none.
      */
     public Tile getRandomTile(LevelElement elementType) {
-        Tile randomTile = getRandomTile();
-        if (randomTile.getLevelElement() == elementType) return randomTile;
-        else return getRandomTile(elementType);
+        int count = grid.countCells(elementType);
+        if (count == 0) return null;
+        return getTile(grid.getCell(elementType, random.nextInt(count)));
     }
 
     /**
@@ -134,10 +718,11 @@ public class Level implements IndexedGraph<Tile> {
      * Get the position of a random Tile as Point
      *
      * @param elementTyp Type of the Tile
-     * @return Position of the Tile as Point
+     * @return Position of the Tile as Point, <code>null</code> if there is no Tile of the Type.
      */
     public Point getRandomTilePoint(LevelElement elementTyp) {
-        return getRandomTile(elementTyp).getCoordinate().toPoint();
+        Tile tile = getRandomTile(elementTyp);
+        return tile == null ? null : tile.getCoordinate().toPoint();
     }
 
     /**
@@ -146,9 +731,19 @@ public class Level implements IndexedGraph<Tile> {
      * @return the layout of the Level
      */
     public Tile[][] getLayout() {
+        for (int index = 0; index < grid.size(); index++) getTile(index);
         return layout;
     }
 
+    /**
+     * Get the grid that stores the layout of the level.
+     *
+     * @return the grid of the level
+     */
+    public LevelGrid getGrid() {
+        return grid;
+    }
+
     /**
      * Set the start tile.
      *
@@ -159,9 +754,13 @@ public class Level implements IndexedGraph<Tile> {
         changeTileElementType(startTile, LevelElement.FLOOR);
     }
 
-    /** Mark a random tile as start */
+    /**
+     * Mark a random floor tile as start. Without a floor tile the start tile stays as it is, which
+     * is <code>null</code> for a new level.
+     */
     public void setRandomStart() {
-        setStartTile(getRandomTile(LevelElement.FLOOR));
+        Tile start = getRandomTile(LevelElement.FLOOR);
+        if (start != null) setStartTile(start);
     }
 
     /**
@@ -184,9 +783,13 @@ public class Level implements IndexedGraph<Tile> {
         changeTileElementType(end, LevelElement.EXIT);
     }
 
-    /** Mark a random tile as end */
+    /**
+     * Mark a random floor tile as end. Without a floor tile the end tile stays as it is, which is
+     * <code>null</code> for a new level.
+     */
     public void setRandomEnd() {
-        setEndTile(getRandomTile(LevelElement.FLOOR));
+        Tile end = getRandomTile(LevelElement.FLOOR);
+        if (end != null) setEndTile(end);
     }
 
     /**
@@ -201,13 +804,30 @@ public class Level implements IndexedGraph<Tile> {
     /**
      * Change the type of tile (including changing texture)
      *
+     * <p>The connections of the tile and its neighbours are updated right away, so for example
+     * opening a door does not need {@link #makeConnections()}.
+     *
      * @param tile The Tile you want to change
      * @param changeInto The LevelElement to change the Tile into.
      */
     public void changeTileElementType(Tile tile, LevelElement changeInto) {
+        version++;
+        int index = tile.getIndex();
+        boolean wasAccessible = grid.isAccessible(index);
         tile.setLevelElement(
                 changeInto,
-                TileTextureFactory.findTexturePath(tile, layout, changeInto, DesignLabel.DEFAULT));
+                TileTextureFactory.findTexturePath(grid, index, changeInto, DesignLabel.DEFAULT));
+        grid.updateNeighbours(index);
+        if (pathFinder != null) pathFinder.cellChanged(index);
+        for (int i = 0; i < attachedPathFinders.size; i++)
+            attachedPathFinders.get(i).cellChanged(index);
+        synchronized (freePathFinders) {
+            for (int i = 0; i < freePathFinders.size; i++)
+                freePathFinders.get(i).cellChanged(index);
+        }
+        if (distanceField != null) distanceField.cellChanged(index, wasAccessible);
+        if (components != null) components.cellChanged(index, wasAccessible);
+        if (chunks != null) chunks.cellChanged(index);
     }
 
     /**
@@ -216,17 +836,16 @@ public class Level implements IndexedGraph<Tile> {
      * @return The level layout in String format
      */
     public String printLevel() {
-        String output = "";
-        for (int y = 0; y < layout.length; y++) {
-            for (int x = 0; x < layout[0].length; x++) {
-                if (layout[y][x].getLevelElement() == LevelElement.FLOOR) output += "F";
-                else if (layout[y][x].getLevelElement() == LevelElement.WALL) output += "W";
-                else if (layout[y][x].getLevelElement() == LevelElement.EXIT) output += "E";
-                else output += "S";
-            }
-            output += "\n";
+        StringBuilder output = new StringBuilder(grid.size() + grid.getHeight());
+        for (int index = 0; index < grid.size(); index++) {
+            LevelElement element = grid.getLevelElement(index);
+            if (element == LevelElement.FLOOR) output.append('F');
+            else if (element == LevelElement.WALL) output.append('W');
+            else if (element == LevelElement.EXIT) output.append('E');
+            else output.append('S');
+            if (grid.getX(index) == grid.getWidth() - 1) output.append('\n');
         }
-        return output;
+        return output.toString();
     }
     // --------------------------- END API ---------------------------
 
@@ -237,9 +856,29 @@ public class Level implements IndexedGraph<Tile> {
         return tile.getIndex();
     }
 
+    /**
+     * Get the connections to the accessible neighbours of a tile.
+     *
+     * <p>The connections are read from the neighbour mask of the grid on every call, so they never
+     * need to be rebuilt. The same array is returned on every call and filled again, so it must be
+     * read before the next call (the libGDX pathfinding algorithms do that) and not by several
+     * threads at once.
+     *
+     * <p>The connection objects are created on each call and not kept by the level. The libGDX
+     * pathfinding algorithms keep the connection that reached a tile to build the path, so the
+     * connections can not be shared between tiles, but they live no longer than the search.
+     *
+     * @param fromNode Tile to get the connections of.
+     * @return The connections, valid until the next call.
+     */
     @Override
     public Array<Connection<Tile>> getConnections(Tile fromNode) {
-        return fromNode.getConnections();
+        if (connectionBuffer == null) connectionBuffer = new Array<>(8);
+        connectionBuffer.clear();
+        int index = fromNode.getIndex();
+        for (int bits = grid.getNeighbours(index); bits != 0; bits &= bits - 1)
+            connectionBuffer.add(getConnection(index, Integer.numberOfTrailingZeros(bits)));
+        return connectionBuffer;
     }
 
     /**
@@ -248,83 +887,140 @@ public class Level implements IndexedGraph<Tile> {
      * @return nodeCount
      */
     public int getNodeCount() {
-        return nodeCount;
+        return grid.size();
     }
 
-    /** Connect each tile with it neighbour tiles. */
+    /**
+     * Connect each tile with it neighbour tiles.
+     *
+     * <p>Only the neighbour masks of the grid are computed here, there are no connection objects to
+     * build, see {@link #getConnections(Tile)}.
+     */
     public void makeConnections() {
-        for (int x = 0; x < layout[0].length; x++)
-            for (int y = 0; y < layout.length; y++)
-                if (layout[y][x].isAccessible()) {
-                    layout[y][x].setIndex(nodeCount++);
-                    addConnectionsToNeighbours(layout[y][x]);
-                }
+        version++;
+        grid.makeNeighbours();
+        for (int i = 0; i < attachedPathFinders.size; i++) attachedPathFinders.get(i).gridChanged();
+        components = null;
+        if (chunks != null) chunks.markAllDirty();
     }
 
     /**
-     * Check each tile around the tile, if it is accessible add it to the connectionList.
+     * Get the connection from a tile to its neighbour in the given direction.
      *
-     * @param checkTile Tile to check for.
+     * @param index Index of the tile.
+     * @param direction Number of the bit of the direction in the neighbour mask.
+     * @return A new connection.
      */
-    private void addConnectionsToNeighbours(Tile checkTile) {
-
-        // upperTile
-        Coordinate upper =
-                new Coordinate(checkTile.getCoordinate().x, checkTile.getCoordinate().y + 1);
-        Tile upperTile = getTileAt(upper);
-        if (upperTile != null && upperTile.isAccessible()) checkTile.addConnection(upperTile);
+    private TileConnection getConnection(int index, int direction) {
+        int width = grid.getWidth();
+        int to;
+        float cost = 1;
+        switch (1 << direction) {
+            case LevelGrid.NORTH:
+                to = index + width;
+                break;
+            case LevelGrid.EAST:
+                to = index + 1;
+                break;
+            case LevelGrid.SOUTH:
+                to = index - width;
+                break;
+            case LevelGrid.WEST:
+                to = index - 1;
+                break;
+            case LevelGrid.NORTH_EAST:
+                to = index + width + 1;
+                cost = DIAGONAL_COST;
+                break;
+            case LevelGrid.SOUTH_EAST:
+                to = index - width + 1;
+                cost = DIAGONAL_COST;
+                break;
+            case LevelGrid.SOUTH_WEST:
+                to = index - width - 1;
+                cost = DIAGONAL_COST;
+                break;
+            default:
+                to = index + width - 1;
+                cost = DIAGONAL_COST;
+        }
+        return new TileConnection(getTile(index), getTile(to), cost);
+    }
 
-        // lowerTile
-        Coordinate lower =
-                new Coordinate(checkTile.getCoordinate().x, checkTile.getCoordinate().y - 1);
-        Tile lowerTile = getTileAt(lower);
-        if (lowerTile != null && lowerTile.isAccessible()) checkTile.addConnection(lowerTile);
+    // --------------------------- End LibGDX Pathfinding ---------------------------
 
-        // leftTile
-        Coordinate left =
-                new Coordinate(checkTile.getCoordinate().x - 1, checkTile.getCoordinate().y);
-        Tile leftTile = getTileAt(left);
-        if (leftTile != null && leftTile.isAccessible()) checkTile.addConnection(leftTile);
-        // rightTile
-        Coordinate right =
-                new Coordinate(checkTile.getCoordinate().x + 1, checkTile.getCoordinate().y);
-        Tile rightTile = getTileAt(right);
-        if (rightTile != null && rightTile.isAccessible()) checkTile.addConnection(rightTile);
+    private int randomIndex() {
+        int y = random.nextInt(grid.getHeight());
+        return grid.index(random.nextInt(grid.getWidth()), y);
     }
 
-    // --------------------------- End LibGDX Pathfinding ---------------------------
+    /**
+     * Converts the given Tile[][] in a corresponding grid. The tiles become views on the grid.
+     *
+     * @param layout The Tile[][]
+     * @return The grid
+     */
+    private static LevelGrid toGrid(Tile[][] layout) {
+        LevelGrid grid = new LevelGrid(layout[0].length, layout.length);
+        for (int y = 0; y < layout.length; y++)
+            for (int x = 0; x < layout[0].length; x++) layout[y][x].attach(grid, grid.index(x, y));
+        return grid;
+    }
 
     /**
-     * Converts the given LevelElement[][] in a corresponding Tile[][]
+     * Converts the given LevelElement[][] in a corresponding grid
      *
      * @param layout The LevelElement[][]
      * @param designLabel The selected Design for the Tiles
-     * @return The converted Tile[][]
+     * @return The grid
      */
-    private static Tile[][] convertLevelElementToTile(
-            LevelElement[][] layout, DesignLabel designLabel) {
-        Tile[][] tileLayout = new Tile[layout.length][layout[0].length];
+    private static LevelGrid toGrid(LevelElement[][] layout, DesignLabel designLabel) {
+        LevelGrid grid = new LevelGrid(layout[0].length, layout.length);
         for (int y = 0; y < layout.length; y++)
             for (int x = 0; x < layout[0].length; x++) {
-                Coordinate coordinate = new Coordinate(x, y);
                 String texturePath =
                         TileTextureFactory.findTexturePath(
-                                layout[y][x], designLabel, layout, coordinate);
-                tileLayout[y][x] = new Tile(texturePath, coordinate, layout[y][x]);
+                                layout[y][x], designLabel, layout, new Coordinate(x, y));
+                grid.setLevelElement(grid.index(x, y), layout[y][x], texturePath);
             }
-        return tileLayout;
+        return grid;
     }
 
+    /**
+     * Draws the tiles of the level. Only the tiles in the area the camera of the painter shows are
+     * looked at, so the costs depend on the size of the screen, not on the size of the level. If
+     * there is a field of view (see {@link #computeFieldOfView(Point, int)}) only the tiles that
+     * have been seen are drawn.
+     *
+     * @param painter Painter that draws the tiles.
+     * @param batch Batch to draw on.
+     */
     public void drawLevel(Painter painter, SpriteBatch batch) {
-        Tile[][] layout = getLayout();
-        for (int y = 0; y < layout.length; y++)
-            for (int x = 0; x < layout[0].length; x++) {
-                Tile t = layout[y][x];
-                if (t.getLevelElement() != LevelElement.VOID)
-                    painter.draw(
-                            t.getTexturePath(),
-                            new Point(t.getCoordinate().x, t.getCoordinate().y),
-                            batch);
+        int minX = 0;
+        int minY = 0;
+        int maxX = grid.getWidth() - 1;
+        int maxY = grid.getHeight() - 1;
+        DungeonCamera camera = painter.getCamera();
+        if (camera != null) {
+            camera.getVisibleArea(visibleArea);
+            minX = Math.max(minX, (int) Math.floor(visibleArea.x));
+            minY = Math.max(minY, (int) Math.floor(visibleArea.y));
+            maxX = Math.min(maxX, (int) Math.floor(visibleArea.x + visibleArea.width));
+            maxY = Math.min(maxY, (int) Math.floor(visibleArea.y + visibleArea.height));
+        }
+        for (int y = minY; y <= maxY; y++)
+            for (int x = minX; x <= maxX; x++) {
+                int index = grid.index(x, y);
+                if (fieldOfView == null || fieldOfView.isExplored(index))
+                    drawTile(index, painter, batch);
             }
     }
+
+    private void drawTile(int index, Painter painter, SpriteBatch batch) {
+        if (grid.getLevelElement(index) != LevelElement.VOID) {
+            drawPosition.x = grid.getX(index);
+            drawPosition.y = grid.getY(index);
+            painter.draw(grid.getTextureId(index), drawPosition, batch);
+        }
+    }
 }
@@ -0,0 +1,161 @@
+package level.elements;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.BitSet;
+
+/**
+ * Divides a level grid into square chunks and tracks which chunks have changed.
+ *
+ * <p>Every consumer that keeps data derived from the level (for example a renderer, a path cache or
+ * a minimap) gets its own dirty flags with {@link #addConsumer()}. A change of a cell sets the flag
+ * of its chunk in the flags of all consumers, and each consumer clears the flags of the chunks it
+ * has processed. So a consumer only has to update the chunks that changed since it last looked,
+ * without knowing about the other consumers.
+ *
+ * <p>Chunks are numbered row by row, starting at the bottom left chunk. The chunks in the last
+ * column and row are smaller if the size of the grid is not a multiple of the chunk size.
+ */
+public class LevelChunks {
+    /** Width and height of a chunk in cells if nothing else is set. */
+    public static final int DEFAULT_CHUNK_SIZE = 32;
+
+    private final LevelGrid grid;
+    private final int chunkSize;
+    private final int chunksX;
+    private final int chunksY;
+    private final Array<BitSet> consumers = new Array<>(false, 4);
+
+    /**
+     * Divides the given grid into chunks.
+     *
+     * @param grid The grid to divide.
+     * @param chunkSize Width and height of a chunk in cells.
+     */
+    public LevelChunks(LevelGrid grid, int chunkSize) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive");
+        this.grid = grid;
+        this.chunkSize = chunkSize;
+        chunksX = (grid.getWidth() + chunkSize - 1) / chunkSize;
+        chunksY = (grid.getHeight() + chunkSize - 1) / chunkSize;
+    }
+
+    /**
+     * Registers a new consumer. All chunks are dirty in the beginning, because the consumer has not
+     * seen any of them yet.
+     *
+     * <p>The consumer reads the flags with {@link BitSet#nextSetBit(int)} and clears the flag of a
+     * chunk with {@link BitSet#clear(int)} once it is up to date.
+     *
+     * @return The dirty flags of the consumer, one bit per chunk.
+     */
+    public BitSet addConsumer() {
+        BitSet dirty = new BitSet(size());
+        dirty.set(0, size());
+        consumers.add(dirty);
+        return dirty;
+    }
+
+    /**
+     * Stops updating the dirty flags of a consumer.
+     *
+     * @param dirty The flags returned by {@link #addConsumer()}.
+     */
+    public void removeConsumer(BitSet dirty) {
+        consumers.removeValue(dirty, true);
+    }
+
+    /**
+     * Marks the chunks of a changed cell as dirty. A change of a cell also changes the connections
+     * of its neighbours, so if the cell lies on the border of a chunk, the chunk next to it is
+     * marked as well.
+     *
+     * @param index Index of the changed cell.
+     */
+    public void cellChanged(int index) {
+        int x = grid.getX(index);
+        int y = grid.getY(index);
+        int fromX = Math.max(0, x - 1) / chunkSize;
+        int toX = Math.min(grid.getWidth() - 1, x + 1) / chunkSize;
+        int fromY = Math.max(0, y - 1) / chunkSize;
+        int toY = Math.min(grid.getHeight() - 1, y + 1) / chunkSize;
+        for (int chunkY = fromY; chunkY <= toY; chunkY++)
+            for (int chunkX = fromX; chunkX <= toX; chunkX++) markDirty(chunkX + chunkY * chunksX);
+    }
+
+    /**
+     * Marks a chunk as dirty for all consumers.
+     *
+     * @param chunk Number of the chunk.
+     */
+    public void markDirty(int chunk) {
+        for (BitSet dirty : consumers) dirty.set(chunk);
+    }
+
+    /** Marks all chunks as dirty for all consumers, for example after the whole level changed. */
+    public void markAllDirty() {
+        for (BitSet dirty : consumers) dirty.set(0, size());
+    }
+
+    /**
+     * @param x X coordinate of a cell.
+     * @param y Y coordinate of a cell.
+     * @return Number of the chunk that contains the cell.
+     */
+    public int chunkAt(int x, int y) {
+        return x / chunkSize + y / chunkSize * chunksX;
+    }
+
+    /**
+     * Collects the cells of a chunk.
+     *
+     * @param chunk Number of the chunk.
+     * @param outCells Receives the indices of the cells, row by row. It is cleared first.
+     */
+    public void getCells(int chunk, IntArray outCells) {
+        int x = getX(chunk);
+        int y = getY(chunk);
+        grid.getCellsInRectangle(x, y, x + chunkSize - 1, y + chunkSize - 1, outCells);
+    }
+
+    /**
+     * @param chunk Number of the chunk.
+     * @return X coordinate of the bottom left cell of the chunk.
+     */
+    public int getX(int chunk) {
+        return chunk % chunksX * chunkSize;
+    }
+
+    /**
+     * @param chunk Number of the chunk.
+     * @return Y coordinate of the bottom left cell of the chunk.
+     */
+    public int getY(int chunk) {
+        return chunk / chunksX * chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return Number of chunks in a row.
+     */
+    public int getChunksX() {
+        return chunksX;
+    }
+
+    /**
+     * @return Number of chunks in a column.
+     */
+    public int getChunksY() {
+        return chunksY;
+    }
+
+    /**
+     * @return Number of chunks.
+     */
+    public int size() {
+        return chunksX * chunksY;
+    }
+}
@@ -0,0 +1,408 @@
+package level.elements;
+
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Arrays;
+import level.tools.DiagonalMovement;
+import level.tools.LevelElement;
+import textures.TextureRegistry;
+
+/**
+ * Flat storage of a level layout.
+ *
+ * <p>Every cell of the level is addressed by its index <code>y * width + x</code>. The type of each
+ * cell, its texture and its accessible neighbours are stored in primitive arrays, so a scan over
+ * the whole level only walks a few contiguous blocks of memory.
+ */
+public class LevelGrid {
+    /** Bit in the neighbour mask for the upper neighbour (y + 1). */
+    public static final int NORTH = 1;
+    /** Bit in the neighbour mask for the right neighbour (x + 1). */
+    public static final int EAST = 1 << 1;
+    /** Bit in the neighbour mask for the lower neighbour (y - 1). */
+    public static final int SOUTH = 1 << 2;
+    /** Bit in the neighbour mask for the left neighbour (x - 1). */
+    public static final int WEST = 1 << 3;
+    /** Bit in the neighbour mask for the upper right neighbour (x + 1, y + 1). */
+    public static final int NORTH_EAST = 1 << 4;
+    /** Bit in the neighbour mask for the lower right neighbour (x + 1, y - 1). */
+    public static final int SOUTH_EAST = 1 << 5;
+    /** Bit in the neighbour mask for the lower left neighbour (x - 1, y - 1). */
+    public static final int SOUTH_WEST = 1 << 6;
+    /** Bit in the neighbour mask for the upper left neighbour (x - 1, y + 1). */
+    public static final int NORTH_WEST = 1 << 7;
+    /** The bits of the four direct neighbours. */
+    public static final int STRAIGHT_NEIGHBOURS = NORTH | EAST | SOUTH | WEST;
+
+    private static final LevelElement[] ELEMENTS = LevelElement.values();
+
+    private final int width;
+    private final int height;
+    private final byte[] elements;
+    private final int[] textures;
+    private final byte[] neighbours;
+    /** The cell indices grouped by type, the cells of each type form one contiguous segment. */
+    private final int[] cellsByElement;
+    /** Position of each cell in {@link #cellsByElement}. */
+    private final int[] cellPositions;
+    /** Start of the segment of each type, the last entry is the number of cells. */
+    private final int[] elementStarts = new int[ELEMENTS.length + 1];
+
+    private DiagonalMovement diagonalMovement = DiagonalMovement.NONE;
+    private int modificationCount;
+
+    /**
+     * Creates a new grid where every cell is {@link LevelElement#VOID}.
+     *
+     * @param width Number of columns.
+     * @param height Number of rows.
+     */
+    public LevelGrid(int width, int height) {
+        this.width = width;
+        this.height = height;
+        elements = new byte[width * height];
+        textures = new int[width * height];
+        neighbours = new byte[width * height];
+        Arrays.fill(elements, (byte) LevelElement.VOID.ordinal());
+        Arrays.fill(textures, TextureRegistry.NO_TEXTURE);
+        cellsByElement = new int[width * height];
+        cellPositions = new int[width * height];
+        for (int index = 0; index < cellsByElement.length; index++) {
+            cellsByElement[index] = index;
+            cellPositions[index] = index;
+        }
+        Arrays.fill(elementStarts, LevelElement.VOID.ordinal() + 1, elementStarts.length, size());
+    }
+
+    /**
+     * @return Number of columns.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return Number of rows.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return Number of cells.
+     */
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * @param x Column of the cell.
+     * @param y Row of the cell.
+     * @return Index of the cell.
+     */
+    public int index(int x, int y) {
+        return y * width + x;
+    }
+
+    /**
+     * @param index Index of the cell.
+     * @return Column of the cell.
+     */
+    public int getX(int index) {
+        return index % width;
+    }
+
+    /**
+     * @param index Index of the cell.
+     * @return Row of the cell.
+     */
+    public int getY(int index) {
+        return index / width;
+    }
+
+    /**
+     * @param x Column to check.
+     * @param y Row to check.
+     * @return true if the position is inside the grid.
+     */
+    public boolean isInBounds(int x, int y) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    /**
+     * @param index Index of the cell.
+     * @return The type of the cell.
+     */
+    public LevelElement getLevelElement(int index) {
+        return ELEMENTS[elements[index]];
+    }
+
+    /**
+     * @param index Index of the cell.
+     * @return Path to the texture of the cell, <code>null</code> if it has none.
+     */
+    public String getTexturePath(int index) {
+        return TextureRegistry.getInstance().getPath(textures[index]);
+    }
+
+    /**
+     * @param index Index of the cell.
+     * @return Id of the texture of the cell in the {@link TextureRegistry}.
+     */
+    public int getTextureId(int index) {
+        return textures[index];
+    }
+
+    /**
+     * Change the type and texture of a cell.
+     *
+     * <p>The neighbour masks are not touched, use {@link #makeNeighbours()} to recompute them.
+     *
+     * @param index Index of the cell.
+     * @param element New type of the cell.
+     * @param texturePath New texture of the cell.
+     */
+    public void setLevelElement(int index, LevelElement element, String texturePath) {
+        setLevelElement(index, element, TextureRegistry.getInstance().getId(texturePath));
+    }
+
+    /**
+     * Change the type and texture of a cell, see {@link #setLevelElement(int, LevelElement,
+     * String)}.
+     *
+     * @param index Index of the cell.
+     * @param element New type of the cell.
+     * @param textureId Id of the new texture of the cell in the {@link TextureRegistry}.
+     */
+    public void setLevelElement(int index, LevelElement element, int textureId) {
+        moveCell(index, elements[index], element.ordinal());
+        elements[index] = (byte) element.ordinal();
+        textures[index] = textureId;
+        modificationCount++;
+    }
+
+    /**
+     * @param element Type of the cells.
+     * @return Number of cells of the given type.
+     */
+    public int countCells(LevelElement element) {
+        return elementStarts[element.ordinal() + 1] - elementStarts[element.ordinal()];
+    }
+
+    /**
+     * Get a cell of the given type. Together with {@link #countCells(LevelElement)} this allows to
+     * pick a random cell of a type in constant time. The order of the cells changes when the grid
+     * is changed.
+     *
+     * @param element Type of the cell.
+     * @param i Number of the cell, between 0 and {@link #countCells(LevelElement)} - 1.
+     * @return Index of the cell.
+     */
+    public int getCell(LevelElement element, int i) {
+        return cellsByElement[elementStarts[element.ordinal()] + i];
+    }
+
+    /**
+     * Counts the calls of {@link #setLevelElement(int, LevelElement, String)}. Data derived from
+     * the grid can compare it to find out if it is outdated.
+     *
+     * @return Number of changes made to the cells of this grid.
+     */
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    /**
+     * Returns if the cell is accessible by a character.
+     *
+     * @param index Index of the cell.
+     * @return true if the cell is floor or exit; false if it is a wall or empty.
+     */
+    public boolean isAccessible(int index) {
+        return isAccessible(elements[index]);
+    }
+
+    /**
+     * Collects the cells whose centre is at most the given distance away from the centre of a cell.
+     * Only the rows and columns inside the circle are visited.
+     *
+     * @param x Column of the centre cell.
+     * @param y Row of the centre cell.
+     * @param radius Distance in cells.
+     * @param outCells Receives the indices of the cells, row by row. It is cleared first.
+     */
+    public void getCellsInRadius(int x, int y, int radius, IntArray outCells) {
+        outCells.clear();
+        int radiusSquared = radius * radius;
+        int maxY = Math.min(height - 1, y + radius);
+        for (int cellY = Math.max(0, y - radius); cellY <= maxY; cellY++) {
+            int dy = cellY - y;
+            // half the width of the circle in this row
+            int dx = (int) Math.sqrt(radiusSquared - dy * dy);
+            int maxX = Math.min(width - 1, x + dx);
+            for (int cellX = Math.max(0, x - dx); cellX <= maxX; cellX++)
+                outCells.add(index(cellX, cellY));
+        }
+    }
+
+    /**
+     * Collects the cells of a rectangle, the parts outside of the grid are left out.
+     *
+     * @param fromX Left column of the rectangle.
+     * @param fromY Bottom row of the rectangle.
+     * @param toX Right column of the rectangle (inclusive).
+     * @param toY Top row of the rectangle (inclusive).
+     * @param outCells Receives the indices of the cells, row by row. It is cleared first.
+     */
+    public void getCellsInRectangle(int fromX, int fromY, int toX, int toY, IntArray outCells) {
+        outCells.clear();
+        int minX = Math.max(0, Math.min(fromX, toX));
+        int maxX = Math.min(width - 1, Math.max(fromX, toX));
+        int maxY = Math.min(height - 1, Math.max(fromY, toY));
+        for (int cellY = Math.max(0, Math.min(fromY, toY)); cellY <= maxY; cellY++)
+            for (int cellX = minX; cellX <= maxX; cellX++) outCells.add(index(cellX, cellY));
+    }
+
+    /**
+     * Checks if the line between the centres of two cells only crosses accessible cells. The cells
+     * on the line are walked with Bresenham's algorithm, the two end cells themselves are not
+     * checked.
+     *
+     * @param fromX Column of the first cell.
+     * @param fromY Row of the first cell.
+     * @param toX Column of the second cell.
+     * @param toY Row of the second cell.
+     * @return true if no cell between the two cells blocks the view
+     */
+    public boolean hasLineOfSight(int fromX, int fromY, int toX, int toY) {
+        if (fromX == toX && fromY == toY) return true;
+        int dx = Math.abs(toX - fromX);
+        int dy = -Math.abs(toY - fromY);
+        int stepX = fromX < toX ? 1 : -1;
+        int stepY = fromY < toY ? 1 : -1;
+        int error = dx + dy;
+        int x = fromX;
+        int y = fromY;
+        while (true) {
+            int doubleError = 2 * error;
+            if (doubleError >= dy) {
+                error += dy;
+                x += stepX;
+            }
+            if (doubleError <= dx) {
+                error += dx;
+                y += stepY;
+            }
+            if (x == toX && y == toY) return true;
+            if (!isAccessible(elements[index(x, y)])) return false;
+        }
+    }
+
+    /**
+     * @param index Index of the cell.
+     * @return Bitmask of the accessible neighbours, see {@link #NORTH}, {@link #EAST}, {@link
+     *     #SOUTH} and {@link #WEST}. If diagonal movement is enabled, it also contains the bits of
+     *     the diagonal neighbours that can be reached, see {@link #NORTH_EAST} and the following.
+     */
+    public int getNeighbours(int index) {
+        return neighbours[index] & 0xFF;
+    }
+
+    /**
+     * Selects if the neighbour masks contain diagonal neighbours. Call {@link #makeNeighbours()}
+     * afterwards.
+     *
+     * @param diagonalMovement The rule for diagonal steps, {@link DiagonalMovement#NONE} by
+     *     default.
+     */
+    public void setDiagonalMovement(DiagonalMovement diagonalMovement) {
+        this.diagonalMovement = diagonalMovement;
+    }
+
+    /**
+     * @return The rule for diagonal steps.
+     */
+    public DiagonalMovement getDiagonalMovement() {
+        return diagonalMovement;
+    }
+
+    /**
+     * Recomputes the neighbour masks of a cell and the cells around it, call this after the type of
+     * the cell was changed.
+     *
+     * @param index Index of the changed cell.
+     */
+    public void updateNeighbours(int index) {
+        int x = getX(index);
+        int y = getY(index);
+        if (diagonalMovement == DiagonalMovement.NONE) {
+            neighbours[index] = (byte) computeNeighbours(index);
+            if (y + 1 < height) neighbours[index + width] = (byte) computeNeighbours(index + width);
+            if (y > 0) neighbours[index - width] = (byte) computeNeighbours(index - width);
+            if (x > 0) neighbours[index - 1] = (byte) computeNeighbours(index - 1);
+            if (x + 1 < width) neighbours[index + 1] = (byte) computeNeighbours(index + 1);
+            return;
+        }
+        // the cell can also block or open diagonal steps between its direct neighbours
+        for (int cellY = Math.max(0, y - 1); cellY <= Math.min(height - 1, y + 1); cellY++)
+            for (int cellX = Math.max(0, x - 1); cellX <= Math.min(width - 1, x + 1); cellX++)
+                neighbours[index(cellX, cellY)] = (byte) computeNeighbours(index(cellX, cellY));
+    }
+
+    /** Recomputes the neighbour mask of every cell in a single row-major scan. */
+    public void makeNeighbours() {
+        for (int index = 0; index < elements.length; index++) {
+            neighbours[index] = (byte) computeNeighbours(index);
+        }
+    }
+
+    private int computeNeighbours(int index) {
+        if (!isAccessible(elements[index])) return 0;
+        int x = getX(index);
+        int y = getY(index);
+        int mask = 0;
+        if (y + 1 < height && isAccessible(elements[index + width])) mask |= NORTH;
+        if (x + 1 < width && isAccessible(elements[index + 1])) mask |= EAST;
+        if (y > 0 && isAccessible(elements[index - width])) mask |= SOUTH;
+        if (x > 0 && isAccessible(elements[index - 1])) mask |= WEST;
+        if (diagonalMovement == DiagonalMovement.NONE) return mask;
+        if (isDiagonalStep(x + 1, y + 1, mask, NORTH, EAST)) mask |= NORTH_EAST;
+        if (isDiagonalStep(x + 1, y - 1, mask, SOUTH, EAST)) mask |= SOUTH_EAST;
+        if (isDiagonalStep(x - 1, y - 1, mask, SOUTH, WEST)) mask |= SOUTH_WEST;
+        if (isDiagonalStep(x - 1, y + 1, mask, NORTH, WEST)) mask |= NORTH_WEST;
+        return mask;
+    }
+
+    private boolean isDiagonalStep(int x, int y, int mask, int first, int second) {
+        return isInBounds(x, y)
+                && isAccessible(elements[index(x, y)])
+                && diagonalMovement.allows((mask & first) != 0, (mask & second) != 0);
+    }
+
+    /**
+     * Moves a cell from the segment of one type to the segment of another. Each segment in between
+     * is shifted by one position, which only swaps its first or last cell.
+     */
+    private void moveCell(int index, int from, int to) {
+        for (int element = from; element < to; element++) {
+            // the last cell of the segment takes the place of the moved cell, which then becomes
+            // the first cell of the next segment
+            swapCells(cellPositions[index], --elementStarts[element + 1]);
+        }
+        for (int element = from; element > to; element--) {
+            swapCells(cellPositions[index], elementStarts[element]++);
+        }
+    }
+
+    private void swapCells(int position, int otherPosition) {
+        int cell = cellsByElement[position];
+        int other = cellsByElement[otherPosition];
+        cellsByElement[position] = other;
+        cellsByElement[otherPosition] = cell;
+        cellPositions[other] = position;
+        cellPositions[cell] = otherPosition;
+    }
+
+    private static boolean isAccessible(byte element) {
+        return element == LevelElement.FLOOR.ordinal() || element == LevelElement.EXIT.ordinal();
+    }
+}
@@ -0,0 +1,188 @@
+package level.elements;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntIntMap;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import level.tools.DiagonalMovement;
+import level.tools.LevelElement;
+import textures.TextureRegistry;
+
+/**
+ * Saves levels in a compact binary format and loads them again.
+ *
+ * <p>The format stores the grid of the level, not its tiles:
+ *
+ * <ol>
+ *   <li>a header: the bytes <code>PMDL</code>, the format version, width, height, the diagonal
+ *       movement and the indices of the start and end tile (-1 for none),
+ *   <li>the texture table: every texture path once, the cells refer to it by id,
+ *   <li>the cells row by row, run-length encoded: the type, the texture id and the number of
+ *       following cells with the same type and texture.
+ * </ol>
+ *
+ * <p>Numbers after the header are stored as variable-length integers, so small ids and short runs
+ * take one byte. Levels consist of large areas of the same floor and empty tiles, so even a large
+ * level only takes a few kilobytes.
+ *
+ * <p>Loading maps the file into memory and fills the grid directly. Tiles and connections are not
+ * stored; they are created on demand like for every other level.
+ */
+public class LevelSnapshot {
+    private static final byte[] MAGIC = {'P', 'M', 'D', 'L'};
+    private static final int VERSION = 1;
+    private static final LevelElement[] ELEMENTS = LevelElement.values();
+    private static final DiagonalMovement[] DIAGONAL_MOVEMENTS = DiagonalMovement.values();
+
+    private LevelSnapshot() {}
+
+    /**
+     * Saves a level.
+     *
+     * @param level The level to save.
+     * @param path Where to save?
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Level level, String path) throws IOException {
+        LevelGrid grid = level.getGrid();
+        // the file numbers only the textures of this level
+        IntIntMap fileIds = new IntIntMap();
+        Array<String> texturePaths = new Array<>();
+        for (int index = 0; index < grid.size(); index++) {
+            int textureId = grid.getTextureId(index);
+            if (!fileIds.containsKey(textureId)) {
+                fileIds.put(textureId, texturePaths.size);
+                texturePaths.add(TextureRegistry.getInstance().getPath(textureId));
+            }
+        }
+        try (DataOutputStream out =
+                new DataOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(Paths.get(path))))) {
+            out.write(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(grid.getWidth());
+            out.writeInt(grid.getHeight());
+            out.writeByte(grid.getDiagonalMovement().ordinal());
+            out.writeInt(level.getStartTile() != null ? level.getStartTile().getIndex() : -1);
+            out.writeInt(level.getEndTile() != null ? level.getEndTile().getIndex() : -1);
+
+            writeVarInt(out, texturePaths.size);
+            for (String texturePath : texturePaths) {
+                if (texturePath == null) {
+                    writeVarInt(out, 0);
+                } else {
+                    byte[] bytes = texturePath.getBytes(StandardCharsets.UTF_8);
+                    writeVarInt(out, bytes.length + 1);
+                    out.write(bytes);
+                }
+            }
+
+            int index = 0;
+            while (index < grid.size()) {
+                LevelElement element = grid.getLevelElement(index);
+                int textureId = grid.getTextureId(index);
+                int end = index + 1;
+                while (end < grid.size()
+                        && grid.getLevelElement(end) == element
+                        && grid.getTextureId(end) == textureId) end++;
+                out.writeByte(element.ordinal());
+                writeVarInt(out, fileIds.get(textureId, 0));
+                writeVarInt(out, end - index);
+                index = end;
+            }
+        }
+    }
+
+    /**
+     * Loads a level saved with {@link #save(Level, String)}.
+     *
+     * @param path Path to the file.
+     * @return The level.
+     * @throws IOException if the file cannot be read or is not a saved level
+     */
+    public static Level load(String path) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Level file " + path + " is damaged", e);
+        }
+    }
+
+    private static Level read(ByteBuffer buffer) throws IOException {
+        for (byte b : MAGIC) {
+            if (buffer.get() != b) throw new IOException("Not a level file");
+        }
+        int version = buffer.get();
+        if (version != VERSION) throw new IOException("Unsupported level file version " + version);
+        int width = buffer.getInt();
+        int height = buffer.getInt();
+        DiagonalMovement diagonalMovement = DIAGONAL_MOVEMENTS[buffer.get()];
+        int startIndex = buffer.getInt();
+        int endIndex = buffer.getInt();
+        // check the header before anything is allocated from it
+        if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE)
+            throw new IOException("Level file has an invalid size " + width + "x" + height);
+        int size = width * height;
+        if (startIndex < -1 || startIndex >= size || endIndex < -1 || endIndex >= size)
+            throw new IOException("Level file has an invalid start or end tile");
+
+        // each texture takes at least one byte
+        int textureCount = readVarInt(buffer);
+        if (textureCount < 0 || textureCount > buffer.remaining())
+            throw new IOException("Level file has an invalid texture table");
+        int[] textureIds = new int[textureCount];
+        for (int id = 0; id < textureIds.length; id++) {
+            int length = readVarInt(buffer) - 1;
+            if (length < 0) {
+                textureIds[id] = TextureRegistry.NO_TEXTURE;
+                continue;
+            }
+            if (length > buffer.remaining()) throw new IOException("Level file is damaged");
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            textureIds[id] =
+                    TextureRegistry.getInstance().getId(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        LevelGrid grid = new LevelGrid(width, height);
+        grid.setDiagonalMovement(diagonalMovement);
+        int index = 0;
+        while (index < grid.size()) {
+            LevelElement element = ELEMENTS[buffer.get()];
+            int textureId = textureIds[readVarInt(buffer)];
+            int count = readVarInt(buffer);
+            if (count <= 0) throw new IOException("Level file has an empty run of cells");
+            if (count > grid.size() - index) throw new IOException("Level file has too many cells");
+            int end = index + count;
+            for (; index < end; index++) grid.setLevelElement(index, element, textureId);
+        }
+        return new Level(grid, startIndex, endIndex);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer buffer) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+}
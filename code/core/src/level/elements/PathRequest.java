@@ -0,0 +1,105 @@
+package level.elements;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.utils.IntArray;
+import level.elements.astar.GridHeuristic;
+
+/**
+ * A search for a path between two tiles, used to search many paths at once with {@link
+ * Level#findPaths(java.util.List)}.
+ *
+ * <p>A request can be reused: change the tiles with {@link #set(Tile, Tile)} and pass it again.
+ */
+public class PathRequest {
+    private Tile start;
+    private Tile end;
+    private final GraphPath<Tile> path = new DefaultGraphPath<>();
+    private boolean found;
+    private GridHeuristic heuristic;
+    final IntArray nodePath = new IntArray();
+    boolean resolved;
+    int expandedNodes;
+
+    /**
+     * Creates a new request.
+     *
+     * @param start Start tile
+     * @param end End tile
+     */
+    public PathRequest(Tile start, Tile end) {
+        set(start, end);
+    }
+
+    /**
+     * Changes the tiles of this request and clears the last result.
+     *
+     * @param start Start tile
+     * @param end End tile
+     */
+    public void set(Tile start, Tile end) {
+        this.start = start;
+        this.end = end;
+        path.clear();
+        found = false;
+        expandedNodes = 0;
+    }
+
+    /**
+     * Selects the heuristic used to search the path of this request.
+     *
+     * @param heuristic The heuristic, <code>null</code> (the default) for the default heuristic of
+     *     the pathfinder.
+     */
+    public void setHeuristic(GridHeuristic heuristic) {
+        this.heuristic = heuristic;
+    }
+
+    /**
+     * @return The heuristic used to search the path of this request, <code>null</code> for the
+     *     default heuristic of the pathfinder.
+     */
+    public GridHeuristic getHeuristic() {
+        return heuristic;
+    }
+
+    /**
+     * @return Start tile
+     */
+    public Tile getStart() {
+        return start;
+    }
+
+    /**
+     * @return End tile
+     */
+    public Tile getEnd() {
+        return end;
+    }
+
+    /**
+     * @return The found path, empty if there is no path or the request was not searched yet.
+     */
+    public GraphPath<Tile> getPath() {
+        return path;
+    }
+
+    /**
+     * @return true if a path was found
+     */
+    public boolean isFound() {
+        return found;
+    }
+
+    /**
+     * @return Number of tiles expanded by the search of this request, 0 if the path was taken from
+     *     the path cache.
+     */
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    void setFound(boolean found) {
+        this.found = found;
+    }
+}
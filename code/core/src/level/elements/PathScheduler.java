@@ -0,0 +1,218 @@
+package level.elements;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.utils.IntArray;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import level.elements.astar.AbstractGridPathFinder;
+import level.elements.astar.PathCache;
+
+/**
+ * Queue of path searches that are run step by step within a time budget per frame.
+ *
+ * <p>Instead of searching a path at once with {@link Level#findPath(Tile, Tile)}, an entity asks
+ * for a path with {@link #findPath(Level, Tile, Tile, int)} and gets a future. The main loop calls
+ * {@link #update()} once per frame, which continues the searches until the frame budget is used up,
+ * so a long search is spread over several frames. The future is completed (and its callbacks run)
+ * on the thread that calls {@link #update()}; cancel it to drop the request.
+ *
+ * <p>Requests with a higher priority are started first, requests with the same priority in the
+ * order they were made. A running search is finished before the next one starts. If the level
+ * changes while a search is running, the search goes on with the changed level, it only starts
+ * again if a changed tile was already reached by the search.
+ *
+ * <p>While there are requests, the scheduler borrows a search state from the pool of the level
+ * (see {@link Level#obtainPathFinder()}) and gives it back as soon as the queue is empty.
+ */
+public class PathScheduler {
+    /** Default time per frame for searching paths: 2 milliseconds. */
+    public static final long DEFAULT_FRAME_BUDGET_NANOS = 2_000_000;
+    /** Number of expanded tiles between two checks of the clock. */
+    private static final int EXPANSIONS_PER_CHECK = 64;
+
+    private final PriorityQueue<Request> requests = new PriorityQueue<>();
+    private final IntArray nodePath = new IntArray();
+    private long frameBudgetNanos = DEFAULT_FRAME_BUDGET_NANOS;
+    private long requestCount;
+    private Request current;
+    private Level pathFinderLevel;
+    private AbstractGridPathFinder pathFinder;
+
+    /**
+     * Asks for a path with priority 0.
+     *
+     * @param level The level to search on.
+     * @param start Start tile
+     * @param end End tile
+     * @return Future of the path, the path is empty if there is none.
+     */
+    public CompletableFuture<GraphPath<Tile>> findPath(Level level, Tile start, Tile end) {
+        return findPath(level, start, end, 0);
+    }
+
+    /**
+     * Asks for a path.
+     *
+     * @param level The level to search on.
+     * @param start Start tile
+     * @param end End tile
+     * @param priority Requests with a higher priority are searched first.
+     * @return Future of the path, the path is empty if there is none.
+     */
+    public CompletableFuture<GraphPath<Tile>> findPath(
+            Level level, Tile start, Tile end, int priority) {
+        Request request = new Request(level, start, end, priority, requestCount++);
+        requests.add(request);
+        return request.future;
+    }
+
+    /** Continues the searches for the time of one frame budget. */
+    public void update() {
+        update(frameBudgetNanos);
+    }
+
+    /**
+     * Continues the searches for the given time. At least a few steps are searched, even if the
+     * time is 0.
+     *
+     * @param budgetNanos Time in nanoseconds.
+     */
+    public void update(long budgetNanos) {
+        long deadline = System.nanoTime() + budgetNanos;
+        do {
+            if (current == null && !startNext()) return;
+            if (current.future.isDone()) {
+                // cancelled meanwhile
+                current = null;
+                continue;
+            }
+            if (pathFinder.isSearchOutdated()) start(current);
+            if (pathFinder.continueSearch(EXPANSIONS_PER_CHECK)) finish(current);
+        } while (System.nanoTime() - deadline < 0);
+    }
+
+    /**
+     * Sets the time that {@link #update()} may use per frame.
+     *
+     * @param frameBudgetNanos Time in nanoseconds.
+     */
+    public void setFrameBudget(long frameBudgetNanos) {
+        this.frameBudgetNanos = frameBudgetNanos;
+    }
+
+    /**
+     * @return Time in nanoseconds that {@link #update()} may use per frame.
+     */
+    public long getFrameBudget() {
+        return frameBudgetNanos;
+    }
+
+    /**
+     * @return Number of requests that are not finished yet (including cancelled ones that were not
+     *     removed yet).
+     */
+    public int getPendingRequests() {
+        return requests.size() + (current == null ? 0 : 1);
+    }
+
+    /** Cancels all requests that are not finished yet. */
+    public void clear() {
+        if (current != null) current.future.cancel(false);
+        current = null;
+        for (Request request : requests) request.future.cancel(false);
+        requests.clear();
+        releasePathFinder();
+    }
+
+    private boolean startNext() {
+        while (!requests.isEmpty()) {
+            Request request = requests.poll();
+            if (request.future.isDone()) continue;
+            if (completeFromCache(request)) continue;
+            start(request);
+            return true;
+        }
+        releasePathFinder();
+        return false;
+    }
+
+    private boolean completeFromCache(Request request) {
+        PathCache cache = request.level.getPathCache();
+        if (cache == null
+                || !cache.get(
+                        request.start.getIndex(),
+                        request.end.getIndex(),
+                        request.level.getVersion(),
+                        nodePath)) return false;
+        complete(request);
+        return true;
+    }
+
+    private void start(Request request) {
+        Level level = request.level;
+        if (pathFinderLevel != level
+                || pathFinder.getPathfindingMode() != level.getPathfindingMode()) {
+            releasePathFinder();
+            // a search of its own, so the level can still search paths at once meanwhile
+            pathFinderLevel = level;
+            pathFinder = level.obtainPathFinder();
+            // so changed tiles do not make the next search prepare the whole level again
+            level.attachPathFinder(pathFinder);
+        }
+        current = request;
+        pathFinder.startSearch(request.start.getIndex(), request.end.getIndex());
+    }
+
+    /** Gives the search state back to its level, which keeps it informed about changes. */
+    private void releasePathFinder() {
+        if (pathFinderLevel == null) return;
+        pathFinderLevel.detachPathFinder(pathFinder);
+        pathFinderLevel.freePathFinder(pathFinder);
+        pathFinderLevel = null;
+        pathFinder = null;
+    }
+
+    private void finish(Request request) {
+        current = null;
+        pathFinder.getNodePath(nodePath);
+        PathCache cache = request.level.getPathCache();
+        // changes during the search did not touch the path, so it belongs to the current version
+        if (cache != null)
+            cache.put(
+                    request.start.getIndex(),
+                    request.end.getIndex(),
+                    request.level.getVersion(),
+                    nodePath);
+        complete(request);
+    }
+
+    private void complete(Request request) {
+        GraphPath<Tile> path = new DefaultGraphPath<>();
+        for (int i = 0; i < nodePath.size; i++) path.add(request.level.getTile(nodePath.get(i)));
+        request.future.complete(path);
+    }
+
+    private static class Request implements Comparable<Request> {
+        private final Level level;
+        private final Tile start;
+        private final Tile end;
+        private final int priority;
+        private final long order;
+        private final CompletableFuture<GraphPath<Tile>> future = new CompletableFuture<>();
+
+        private Request(Level level, Tile start, Tile end, int priority, long order) {
+            this.level = level;
+            this.start = start;
+            this.end = end;
+            this.priority = priority;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(Request other) {
+            if (priority != other.priority) return Integer.compare(other.priority, priority);
+            return Long.compare(order, other.order);
+        }
+    }
+}
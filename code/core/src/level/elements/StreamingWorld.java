@@ -0,0 +1,323 @@
+package level.elements;
+
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import graphic.DungeonCamera;
+import graphic.Painter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import level.elements.astar.GridPathFinder;
+import level.generator.IChunkGenerator;
+import level.tools.Coordinate;
+import level.tools.DesignLabel;
+import level.tools.LevelElement;
+import level.tools.TileTextureFactory;
+import textures.TextureRegistry;
+import tools.Point;
+
+/**
+ * An endless level that is generated chunk by chunk around the camera.
+ *
+ * <p>Only the chunks around the camera are loaded: {@link #update(DungeonCamera)} copies the chunk
+ * of the camera and the chunks within the view radius into one grid (the window) whenever the
+ * camera enters another chunk. Pathfinding and drawing work on this window, so they do not notice
+ * the borders between the chunks. Chunks that are needed are generated with an {@link
+ * IChunkGenerator} from the seed and their coordinates; a bounded cache keeps the most recently
+ * used ones, so walking back and forth does not generate them again, while the memory stays
+ * constant no matter how far the camera moves.
+ *
+ * <p>All coordinates are world coordinates and can be negative. Everything outside of the loaded
+ * chunks counts as {@link LevelElement#VOID}.
+ */
+public class StreamingWorld {
+    /** Width and height of a chunk in tiles if nothing else is set. */
+    public static final int DEFAULT_CHUNK_SIZE = 32;
+    /** Number of chunks that are loaded in each direction of the camera's chunk by default. */
+    public static final int DEFAULT_VIEW_RADIUS = 1;
+    /** Number of generated chunks that are kept by default. */
+    public static final int DEFAULT_CACHE_CAPACITY = 64;
+
+    private static final LevelElement[] ELEMENTS = LevelElement.values();
+
+    private final IChunkGenerator generator;
+    private final long seed;
+    private final DesignLabel designLabel;
+    private final int chunkSize;
+    private final int viewRadius;
+    private final int cacheCapacity;
+    private final Map<Long, byte[]> chunks;
+    private final LevelElement[] generatedCells;
+    /** Per type the texture id of the tiles whose texture does not depend on their neighbours. */
+    private final int[] textures = new int[ELEMENTS.length];
+
+    private final LevelGrid window;
+    private final GridPathFinder pathFinder;
+    private final IntArray pathBuffer = new IntArray();
+    /** Position of the tile that is drawn, reused for every tile. */
+    private final Point drawPosition = new Point(0, 0);
+    /** Area the camera shows, computed again for every frame. */
+    private final Rectangle visibleArea = new Rectangle();
+    /** Column of the bottom left chunk of the window. */
+    private int windowChunkX;
+    /** Row of the bottom left chunk of the window. */
+    private int windowChunkY;
+
+    private boolean loaded;
+    private long generatedChunks;
+
+    /**
+     * Creates a world with the default chunk size, view radius and cache capacity. Nothing is
+     * loaded before the first {@link #update(DungeonCamera)}.
+     *
+     * @param generator Generates the chunks.
+     * @param seed The seed of the world, the same seed gives the same world.
+     * @param designLabel The design of the tiles.
+     */
+    public StreamingWorld(IChunkGenerator generator, long seed, DesignLabel designLabel) {
+        this(
+                generator,
+                seed,
+                designLabel,
+                DEFAULT_CHUNK_SIZE,
+                DEFAULT_VIEW_RADIUS,
+                DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * Creates a world. Nothing is loaded before the first {@link #update(DungeonCamera)}.
+     *
+     * @param generator Generates the chunks.
+     * @param seed The seed of the world, the same seed gives the same world.
+     * @param designLabel The design of the tiles.
+     * @param chunkSize Width and height of a chunk in tiles.
+     * @param viewRadius Number of chunks that are loaded in each direction of the camera's chunk,
+     *     it must cover the part of the world the camera shows.
+     * @param cacheCapacity Maximum number of generated chunks that are kept, at least the number of
+     *     loaded chunks.
+     */
+    public StreamingWorld(
+            IChunkGenerator generator,
+            long seed,
+            DesignLabel designLabel,
+            int chunkSize,
+            int viewRadius,
+            int cacheCapacity) {
+        int windowChunks = 2 * viewRadius + 1;
+        if (chunkSize <= 0) throw new IllegalArgumentException("chunkSize must be positive");
+        if (viewRadius < 0) throw new IllegalArgumentException("viewRadius must not be negative");
+        if (cacheCapacity < windowChunks * windowChunks)
+            throw new IllegalArgumentException("cacheCapacity must fit all loaded chunks");
+        this.generator = generator;
+        this.seed = seed;
+        this.designLabel = designLabel;
+        this.chunkSize = chunkSize;
+        this.viewRadius = viewRadius;
+        this.cacheCapacity = cacheCapacity;
+        chunks =
+                new LinkedHashMap<>(cacheCapacity, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                        return size() > StreamingWorld.this.cacheCapacity;
+                    }
+                };
+        generatedCells = new LevelElement[chunkSize * chunkSize];
+        for (LevelElement element : ELEMENTS)
+            if (element != LevelElement.WALL)
+                textures[element.ordinal()] =
+                        TextureRegistry.getInstance()
+                                .getId(
+                                        TileTextureFactory.findTexturePath(
+                                                element, designLabel, null, null));
+        window = new LevelGrid(windowChunks * chunkSize, windowChunks * chunkSize);
+        pathFinder = new GridPathFinder(window);
+    }
+
+    /**
+     * Loads the chunks around the camera, see {@link #update(float, float)}.
+     *
+     * @param camera The camera.
+     * @return true if other chunks were loaded
+     */
+    public boolean update(DungeonCamera camera) {
+        return update(camera.position.x, camera.position.y);
+    }
+
+    /**
+     * Loads the chunks around a position if it is in another chunk than at the last call. Can be
+     * called every frame, most calls do nothing.
+     *
+     * @param x X coordinate of the position, for example of the camera.
+     * @param y Y coordinate of the position.
+     * @return true if other chunks were loaded
+     */
+    public boolean update(float x, float y) {
+        int chunkX = Math.floorDiv((int) Math.floor(x), chunkSize) - viewRadius;
+        int chunkY = Math.floorDiv((int) Math.floor(y), chunkSize) - viewRadius;
+        if (loaded && chunkX == windowChunkX && chunkY == windowChunkY) return false;
+        windowChunkX = chunkX;
+        windowChunkY = chunkY;
+        loaded = true;
+        loadWindow();
+        return true;
+    }
+
+    private void loadWindow() {
+        int windowChunks = 2 * viewRadius + 1;
+        for (int chunkY = 0; chunkY < windowChunks; chunkY++)
+            for (int chunkX = 0; chunkX < windowChunks; chunkX++) {
+                byte[] cells = getChunk(windowChunkX + chunkX, windowChunkY + chunkY);
+                for (int y = 0; y < chunkSize; y++)
+                    for (int x = 0; x < chunkSize; x++)
+                        window.setLevelElement(
+                                window.index(chunkX * chunkSize + x, chunkY * chunkSize + y),
+                                ELEMENTS[cells[x + y * chunkSize]],
+                                textures[cells[x + y * chunkSize]]);
+            }
+        // the textures of walls depend on the neighbours, which may be in another chunk
+        for (int i = 0; i < window.countCells(LevelElement.WALL); i++) {
+            int index = window.getCell(LevelElement.WALL, i);
+            window.setLevelElement(
+                    index,
+                    LevelElement.WALL,
+                    TileTextureFactory.findTexturePath(
+                            window, index, LevelElement.WALL, designLabel));
+        }
+        window.makeNeighbours();
+    }
+
+    private byte[] getChunk(int chunkX, int chunkY) {
+        long key = ((long) chunkX << 32) | (chunkY & 0xFFFFFFFFL);
+        byte[] cells = chunks.get(key);
+        if (cells == null) {
+            generator.generateChunk(seed, chunkX, chunkY, chunkSize, generatedCells);
+            generatedChunks++;
+            cells = new byte[generatedCells.length];
+            for (int i = 0; i < cells.length; i++) cells[i] = (byte) generatedCells[i].ordinal();
+            chunks.put(key, cells);
+        }
+        return cells;
+    }
+
+    /**
+     * @param x X coordinate of the tile.
+     * @param y Y coordinate of the tile.
+     * @return true if the tile belongs to a loaded chunk
+     */
+    public boolean isLoaded(int x, int y) {
+        return loaded && window.isInBounds(x - getOriginX(), y - getOriginY());
+    }
+
+    /**
+     * @param x X coordinate of the tile.
+     * @param y Y coordinate of the tile.
+     * @return The type of the tile, {@link LevelElement#VOID} if it is not loaded.
+     */
+    public LevelElement getLevelElement(int x, int y) {
+        if (!isLoaded(x, y)) return LevelElement.VOID;
+        return window.getLevelElement(window.index(x - getOriginX(), y - getOriginY()));
+    }
+
+    /**
+     * @param x X coordinate of the tile.
+     * @param y Y coordinate of the tile.
+     * @return true if the tile is loaded and accessible by a character
+     */
+    public boolean isAccessible(int x, int y) {
+        return isLoaded(x, y)
+                && window.isAccessible(window.index(x - getOriginX(), y - getOriginY()));
+    }
+
+    /**
+     * Searches a path within the loaded chunks, across the borders between them.
+     *
+     * @param start Start tile.
+     * @param end End tile.
+     * @param outPath Receives the tiles of the path from start to end, or nothing if there is none.
+     *     It is cleared first.
+     * @return true if a path was found
+     */
+    public boolean findPath(Coordinate start, Coordinate end, Array<Coordinate> outPath) {
+        outPath.clear();
+        if (!isAccessible(start.x, start.y) || !isAccessible(end.x, end.y)) return false;
+        int originX = getOriginX();
+        int originY = getOriginY();
+        if (!pathFinder.searchNodePath(
+                window.index(start.x - originX, start.y - originY),
+                window.index(end.x - originX, end.y - originY),
+                pathBuffer)) return false;
+        outPath.ensureCapacity(pathBuffer.size);
+        for (int i = 0; i < pathBuffer.size; i++) {
+            int index = pathBuffer.get(i);
+            outPath.add(new Coordinate(originX + window.getX(index), originY + window.getY(index)));
+        }
+        return true;
+    }
+
+    /**
+     * Draws the tiles of the loaded chunks the camera of the painter shows.
+     *
+     * @param painter Painter that draws the tiles.
+     * @param batch Batch to draw on.
+     */
+    public void drawLevel(Painter painter, SpriteBatch batch) {
+        if (!loaded) return;
+        int originX = getOriginX();
+        int originY = getOriginY();
+        int minX = 0;
+        int minY = 0;
+        int maxX = window.getWidth() - 1;
+        int maxY = window.getHeight() - 1;
+        DungeonCamera camera = painter.getCamera();
+        if (camera != null) {
+            camera.getVisibleArea(visibleArea);
+            minX = Math.max(minX, (int) Math.floor(visibleArea.x) - originX);
+            minY = Math.max(minY, (int) Math.floor(visibleArea.y) - originY);
+            maxX = Math.min(maxX, (int) Math.floor(visibleArea.x + visibleArea.width) - originX);
+            maxY = Math.min(maxY, (int) Math.floor(visibleArea.y + visibleArea.height) - originY);
+        }
+        for (int y = minY; y <= maxY; y++)
+            for (int x = minX; x <= maxX; x++) {
+                int index = window.index(x, y);
+                if (window.getLevelElement(index) != LevelElement.VOID) {
+                    drawPosition.x = originX + x;
+                    drawPosition.y = originY + y;
+                    painter.draw(window.getTextureId(index), drawPosition, batch);
+                }
+            }
+    }
+
+    /**
+     * @return X coordinate of the bottom left loaded tile.
+     */
+    public int getOriginX() {
+        return windowChunkX * chunkSize;
+    }
+
+    /**
+     * @return Y coordinate of the bottom left loaded tile.
+     */
+    public int getOriginY() {
+        return windowChunkY * chunkSize;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return Number of chunks that are kept in the cache.
+     */
+    public int getCachedChunks() {
+        return chunks.size();
+    }
+
+    /**
+     * @return Number of chunks generated so far, including chunks that were generated again after
+     *     they were dropped from the cache.
+     */
+    public long getGeneratedChunks() {
+        return generatedChunks;
+    }
+}
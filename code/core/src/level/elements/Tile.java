@@ -1,24 +1,27 @@
 package level.elements;
 
-import com.badlogic.gdx.ai.pfa.Connection;
-import com.badlogic.gdx.utils.Array;
 import java.util.ArrayList;
 import java.util.List;
-import level.elements.astar.TileConnection;
 import level.tools.Coordinate;
 import level.tools.LevelElement;
+import textures.TextureRegistry;
 
 /**
  * A Tile is a field of the level.
  *
+ * <p>Tiles that belong to a {@link Level} are views on a cell of its {@link LevelGrid}: the type
+ * and texture are read from and written to the grid.
+ *
  * @author Andre Matutat
  */
 public class Tile {
     private LevelElement elementType;
     private final Coordinate globalPosition;
-    private String texturePath;
-    private transient Array<Connection<Tile>> connections = new Array<>();
+    /** Id of the texture in the {@link TextureRegistry}, the path is kept there only once. */
+    private int textureId;
+
     private int index;
+    private transient LevelGrid grid;
 
     /**
      * Creates a new Tile.
@@ -28,18 +31,44 @@ public class Tile {
      * @param elementType The type of the tile.
      */
     public Tile(String texturePath, Coordinate globalPosition, LevelElement elementType) {
-        this.texturePath = texturePath;
+        this.textureId = TextureRegistry.getInstance().getId(texturePath);
         this.elementType = (elementType == null) ? LevelElement.VOID : elementType;
         this.globalPosition = globalPosition;
     }
 
+    /**
+     * Creates a tile that is a view on a cell of a level grid.
+     *
+     * @param grid The grid that stores the type and texture of the tile.
+     * @param index Index of the cell in the grid.
+     */
+    Tile(LevelGrid grid, int index) {
+        this.globalPosition = new Coordinate(grid.getX(index), grid.getY(index));
+        this.grid = grid;
+        this.index = index;
+    }
+
+    /**
+     * Moves the type and texture of this tile into the given grid. From now on the grid is the only
+     * storage of these values.
+     *
+     * @param grid The grid that stores the type and texture of the tile.
+     * @param index Index of the cell in the grid.
+     */
+    void attach(LevelGrid grid, int index) {
+        grid.setLevelElement(index, getLevelElement(), getTextureId());
+        this.grid = grid;
+        this.index = index;
+        elementType = null;
+    }
+
     /**
      * Returns if the tile is accessible by a character.
      *
      * @return true if the tile is floor or exit; false if it is a wall or empty.
      */
     public boolean isAccessible() {
-        switch (elementType) {
+        switch (getLevelElement()) {
             case FLOOR:
             case EXIT:
                 return true;
@@ -56,12 +85,23 @@ public class Tile {
      * @param texture New texture of the tile.
      */
     public void setLevelElement(LevelElement elementType, String texture) {
-        this.elementType = elementType;
-        this.texturePath = texture;
+        if (grid != null) {
+            grid.setLevelElement(index, elementType, texture);
+        } else {
+            this.elementType = elementType;
+            this.textureId = TextureRegistry.getInstance().getId(texture);
+        }
     }
 
     public String getTexturePath() {
-        return texturePath;
+        return TextureRegistry.getInstance().getPath(getTextureId());
+    }
+
+    /**
+     * @return Id of the texture in the {@link TextureRegistry}.
+     */
+    public int getTextureId() {
+        return grid != null ? grid.getTextureId(index) : textureId;
     }
 
     /**
@@ -72,7 +112,15 @@ public class Tile {
     }
 
     public LevelElement getLevelElement() {
-        return elementType;
+        return grid != null ? grid.getLevelElement(index) : elementType;
+    }
+
+    /**
+     * @return The grid of the level the tile belongs to, <code>null</code> if it was not added to a
+     *     level.
+     */
+    public LevelGrid getGrid() {
+        return grid;
     }
 
     // --------------------------- For LibGDX Pathfinding ---------------------------
@@ -91,21 +139,6 @@ public class Tile {
         return index;
     }
 
-    /**
-     * connects to tile together. this mean you can go from one tile to another. Connections are
-     * needed to calculate a path through the dungeon.
-     *
-     * @param to Tile to connect with.
-     */
-    public void addConnection(Tile to) {
-        if (connections == null) connections = new Array<>();
-        connections.add(new TileConnection(this, to));
-    }
-
-    public Array<Connection<Tile>> getConnections() {
-        return connections;
-    }
-
     /**
      * Returns the direction to a given tile.
      *
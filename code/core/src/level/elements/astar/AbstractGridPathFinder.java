@@ -0,0 +1,408 @@
+package level.elements.astar;
+
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Arrays;
+import level.elements.LevelGrid;
+
+/**
+ * Base of the pathfinding algorithms that run directly on the grid of a level.
+ *
+ * <p>All search state is kept in primitive arrays that are allocated once and reused for every
+ * query, so a search does not create garbage. The subclasses decide which cells are expanded, the
+ * cost to the goal is estimated by a {@link GridHeuristic}. Costs are integers, a step to a direct
+ * neighbour costs {@link #STRAIGHT_COST}. If two cells have the same estimated total cost, the one
+ * closer to the goal is expanded first. An instance must not be used by more than one thread at a
+ * time.
+ */
+public abstract class AbstractGridPathFinder {
+    /** Cost of a step to a direct neighbour. */
+    public static final int STRAIGHT_COST = 1000;
+    /** Cost of a diagonal step, rounded up from the square root of 2 times the straight cost. */
+    public static final int DIAGONAL_COST = 1415;
+
+    private static final byte UNVISITED = 0;
+    private static final byte OPEN = 1;
+    private static final byte CLOSED = 2;
+
+    protected final LevelGrid grid;
+    private final int[] costSoFar;
+    private final int[] estimatedTotalCost;
+    private final int[] parent;
+    private final int[] searchIds;
+    private final byte[] status;
+    private final int[] openList;
+    private final int[] openListPosition;
+    private int openListSize;
+    private int searchId;
+    private int expandedNodes;
+    private GridHeuristic defaultHeuristic;
+    private GridHeuristic heuristic;
+    private int start;
+    private int goal;
+    private boolean found;
+    private boolean searching;
+    private boolean searchOutdated;
+    private int searchModificationCount;
+
+    /**
+     * Creates a pathfinder for the given grid.
+     *
+     * @param grid The grid to search on.
+     */
+    protected AbstractGridPathFinder(LevelGrid grid) {
+        this.grid = grid;
+        int nodeCount = grid.size();
+        costSoFar = new int[nodeCount];
+        estimatedTotalCost = new int[nodeCount];
+        parent = new int[nodeCount];
+        searchIds = new int[nodeCount];
+        status = new byte[nodeCount];
+        openList = new int[nodeCount];
+        openListPosition = new int[nodeCount];
+    }
+
+    /**
+     * Searches the shortest path between two cells.
+     *
+     * @param start Index of the start cell.
+     * @param goal Index of the goal cell.
+     * @param outPath Receives the indices of the cells on the path, from start to goal. It is
+     *     cleared before the search and stays empty if there is no path.
+     * @return true if a path was found
+     */
+    public boolean searchNodePath(int start, int goal, IntArray outPath) {
+        return searchNodePath(start, goal, null, outPath);
+    }
+
+    /**
+     * Searches the shortest path between two cells with the given heuristic.
+     *
+     * @param start Index of the start cell.
+     * @param goal Index of the goal cell.
+     * @param heuristic Estimates the cost to the goal, <code>null</code> for the default one.
+     * @param outPath Receives the indices of the cells on the path, from start to goal. It is
+     *     cleared before the search and stays empty if there is no path.
+     * @return true if a path was found
+     */
+    public boolean searchNodePath(int start, int goal, GridHeuristic heuristic, IntArray outPath) {
+        startSearch(start, goal, heuristic);
+        continueSearch(Integer.MAX_VALUE);
+        return getNodePath(outPath);
+    }
+
+    /**
+     * Starts a search with the default heuristic.
+     *
+     * @param start Index of the start cell.
+     * @param goal Index of the goal cell.
+     * @see #startSearch(int, int, GridHeuristic)
+     */
+    public void startSearch(int start, int goal) {
+        startSearch(start, goal, null);
+    }
+
+    /**
+     * Starts a search that is run step by step with {@link #continueSearch(int)}, so a long search
+     * can be spread over several frames. Starting a new search drops the current one.
+     *
+     * @param start Index of the start cell.
+     * @param goal Index of the goal cell.
+     * @param heuristic Estimates the cost to the goal, <code>null</code> for the default one.
+     */
+    public void startSearch(int start, int goal, GridHeuristic heuristic) {
+        if (++searchId == Integer.MAX_VALUE) {
+            Arrays.fill(searchIds, 0);
+            searchId = 1;
+        }
+        this.start = start;
+        this.goal = goal;
+        this.heuristic = heuristic != null ? heuristic : getDefaultHeuristic();
+        found = false;
+        searching = true;
+        searchOutdated = false;
+        searchModificationCount = grid.getModificationCount();
+        openListSize = 0;
+        expandedNodes = 0;
+        searchIds[start] = searchId;
+        status[start] = UNVISITED;
+        costSoFar[start] = 0;
+        parent[start] = -1;
+        estimatedTotalCost[start] = estimate(start, goal);
+        push(start);
+    }
+
+    /**
+     * Continues the search started with {@link #startSearch(int, int)}.
+     *
+     * @param maxExpansions Maximum number of cells to expand.
+     * @return true if the search is finished, false if it needs more steps
+     */
+    public boolean continueSearch(int maxExpansions) {
+        for (int i = 0; i < maxExpansions && !found && openListSize > 0; i++) {
+            int current = pop();
+            status[current] = CLOSED;
+            expandedNodes++;
+            if (current == goal) found = true;
+            else visitChildren(current, goal);
+        }
+        if (found || openListSize == 0) searching = false;
+        return !searching;
+    }
+
+    /**
+     * Gets the result of a finished search.
+     *
+     * @param outPath Receives the indices of the cells on the path, from start to goal. It is
+     *     cleared first and stays empty if there is no path.
+     * @return true if a path was found
+     */
+    public boolean getNodePath(IntArray outPath) {
+        outPath.clear();
+        if (!found) return false;
+        for (int node = goal; node != start; node = parent[node]) addSegment(node, outPath);
+        outPath.add(start);
+        outPath.reverse();
+        return true;
+    }
+
+    /**
+     * Tells the pathfinder that the type of a cell was changed, so it can update data it derived
+     * from the grid. Subclasses that override this must call it.
+     *
+     * <p>A running search goes on with the changed grid, unless the search already reached the cell
+     * or one of its neighbours, see {@link #isSearchOutdated()}.
+     *
+     * @param index Index of the changed cell.
+     */
+    public void cellChanged(int index) {
+        if (!searching || searchOutdated) return;
+        // changes of the grid that were not reported leave the count behind
+        if (++searchModificationCount != grid.getModificationCount() || affectsSearch(index))
+            searchOutdated = true;
+    }
+
+    /**
+     * Tells the pathfinder that the neighbours of all cells may have changed, for example because
+     * diagonal steps were allowed. A running search is outdated then.
+     */
+    public void gridChanged() {
+        if (searching) searchOutdated = true;
+    }
+
+    /**
+     * Checks if the running search has to be started again, because a cell it already reached was
+     * changed or the grid was changed without {@link #cellChanged(int)}. Changes of cells the
+     * search has not reached yet do not matter, the search sees them when it gets there.
+     *
+     * @return true if the result of the running search may be wrong
+     */
+    public boolean isSearchOutdated() {
+        return searchOutdated
+                || searching && searchModificationCount != grid.getModificationCount();
+    }
+
+    /**
+     * @return true if the last search found a path
+     */
+    protected boolean isFound() {
+        return found;
+    }
+
+    /**
+     * @return true if a search was started and is not finished yet
+     */
+    public boolean isSearching() {
+        return searching;
+    }
+
+    /**
+     * @return Number of cells that were taken from the open list during the last search.
+     */
+    public int getExpandedNodes() {
+        return expandedNodes;
+    }
+
+    /**
+     * Sets the heuristic of the searches that do not name one.
+     *
+     * @param heuristic The heuristic, <code>null</code> to choose it by the moves of the
+     *     pathfinder: {@link GridHeuristic#OCTILE} with diagonal steps, {@link
+     *     GridHeuristic#MANHATTAN} without.
+     */
+    public void setDefaultHeuristic(GridHeuristic heuristic) {
+        defaultHeuristic = heuristic;
+    }
+
+    /**
+     * @return The heuristic of the searches that do not name one.
+     */
+    public GridHeuristic getDefaultHeuristic() {
+        if (defaultHeuristic != null) return defaultHeuristic;
+        return usesDiagonalSteps() ? GridHeuristic.OCTILE : GridHeuristic.MANHATTAN;
+    }
+
+    /**
+     * @return The algorithm of this pathfinder, the mode that creates it with {@link
+     *     PathfindingMode#newPathFinder(LevelGrid)}.
+     */
+    public abstract PathfindingMode getPathfindingMode();
+
+    /**
+     * @return true if the pathfinder follows the diagonal neighbours of the grid mask. False by
+     *     default, the paths only use the four direct neighbours then.
+     */
+    protected boolean usesDiagonalSteps() {
+        return false;
+    }
+
+    /**
+     * Adds the cells from the given cell back to (but without) its parent to the path.
+     *
+     * @param node Index of the cell.
+     * @param outPath The path, built from the goal to the start.
+     */
+    protected void addSegment(int node, IntArray outPath) {
+        outPath.add(node);
+    }
+
+    /**
+     * Calls {@link #visit(int, int, int, int)} for every cell that can follow the current cell.
+     *
+     * @param current Index of the cell that is expanded.
+     * @param goal Index of the goal cell.
+     */
+    protected abstract void visitChildren(int current, int goal);
+
+    /**
+     * Estimates the cost between two cells with the heuristic of the current search.
+     *
+     * @param node Index of the cell.
+     * @param goal Index of the goal cell.
+     * @return The estimated cost.
+     */
+    protected int estimate(int node, int goal) {
+        return heuristic.estimate(
+                Math.abs(grid.getX(goal) - grid.getX(node)),
+                Math.abs(grid.getY(goal) - grid.getY(node)));
+    }
+
+    /**
+     * Checks if a changed cell matters for the running search. By default this is the case if the
+     * search reached the cell or one of its eight neighbours, because the way between them was
+     * taken from the old grid.
+     *
+     * @param index Index of the changed cell.
+     * @return true if the search has to be started again
+     */
+    protected boolean affectsSearch(int index) {
+        int x = grid.getX(index);
+        int y = grid.getY(index);
+        for (int neighbourY = y - 1; neighbourY <= y + 1; neighbourY++)
+            for (int neighbourX = x - 1; neighbourX <= x + 1; neighbourX++)
+                if (grid.isInBounds(neighbourX, neighbourY)
+                        && isReached(grid.index(neighbourX, neighbourY))) return true;
+        return false;
+    }
+
+    /**
+     * @param node Index of a cell.
+     * @return true if the cell was put on the open list by the current search
+     */
+    protected boolean isReached(int node) {
+        return searchIds[node] == searchId;
+    }
+
+    /**
+     * @param node Index of a visited cell.
+     * @return Index of the cell the node was reached from, -1 for the start cell.
+     */
+    protected int getParent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * Updates a cell that can be reached from the current cell.
+     *
+     * @param current Index of the cell that is expanded.
+     * @param node Index of the reached cell.
+     * @param cost Cost between the two cells.
+     * @param goal Index of the goal cell.
+     */
+    protected void visit(int current, int node, int cost, int goal) {
+        int nodeCost = costSoFar[current] + cost;
+        int heuristic;
+        if (searchIds[node] == searchId) {
+            // open and closed nodes are only updated if we found a cheaper way
+            if (costSoFar[node] <= nodeCost) return;
+            heuristic = estimatedTotalCost[node] - costSoFar[node];
+        } else {
+            searchIds[node] = searchId;
+            status[node] = UNVISITED;
+            heuristic = estimate(node, goal);
+        }
+        costSoFar[node] = nodeCost;
+        parent[node] = current;
+        estimatedTotalCost[node] = nodeCost + heuristic;
+        if (status[node] == OPEN) siftUp(openListPosition[node]);
+        else push(node);
+    }
+
+    // --------------------------- Open list (binary heap) ---------------------------
+
+    private void push(int node) {
+        status[node] = OPEN;
+        openList[openListSize] = node;
+        openListPosition[node] = openListSize;
+        siftUp(openListSize++);
+    }
+
+    private int pop() {
+        int node = openList[0];
+        if (--openListSize > 0) {
+            move(openList[openListSize], 0);
+            siftDown(0);
+        }
+        return node;
+    }
+
+    private void siftUp(int position) {
+        int node = openList[position];
+        while (position > 0) {
+            int parentPosition = (position - 1) >> 1;
+            int parentNode = openList[parentPosition];
+            if (!isBefore(node, parentNode)) break;
+            move(parentNode, position);
+            position = parentPosition;
+        }
+        move(node, position);
+    }
+
+    private void siftDown(int position) {
+        int node = openList[position];
+        while (true) {
+            int child = (position << 1) + 1;
+            if (child >= openListSize) break;
+            if (child + 1 < openListSize && isBefore(openList[child + 1], openList[child])) child++;
+            if (!isBefore(openList[child], node)) break;
+            move(openList[child], position);
+            position = child;
+        }
+        move(node, position);
+    }
+
+    /**
+     * Orders the open list by the estimated total cost. On a tie the cell that got further (and so
+     * is closer to the goal) comes first, which avoids expanding all the equally good cells of an
+     * open area.
+     */
+    private boolean isBefore(int node, int other) {
+        if (estimatedTotalCost[node] != estimatedTotalCost[other])
+            return estimatedTotalCost[node] < estimatedTotalCost[other];
+        return costSoFar[node] > costSoFar[other];
+    }
+
+    private void move(int node, int position) {
+        openList[position] = node;
+        openListPosition[node] = position;
+    }
+}
@@ -0,0 +1,257 @@
+package level.elements.astar;
+
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Arrays;
+import level.elements.LevelGrid;
+import level.tools.DiagonalMovement;
+
+/**
+ * Labels the accessible cells of a level grid with the id of their connected component, so the
+ * question "is there a path between these two cells?" is answered without a search.
+ *
+ * <p>The labels are computed once with a breadth-first search. When a cell is opened, the
+ * components around it are merged (labels are linked with union-find). When a cell is closed, the
+ * searches started at its neighbours only cover the parts that split off, so the update does not
+ * depend on the size of the remaining component. Changes that were not reported with {@link
+ * #cellChanged(int, boolean)} are detected with the modification count of the grid and lead to a
+ * complete relabelling.
+ *
+ * <p>If the grid allows diagonal steps, the diagonal neighbours are connected as well. A changed
+ * cell can then also block or open the diagonal step between two of its neighbours, so every change
+ * leads to a complete relabelling before the next query.
+ */
+public class ConnectedComponents {
+    private static final int NO_COMPONENT = -1;
+
+    private final LevelGrid grid;
+    private final int[] labels;
+    /** Union-find forest over the labels. */
+    private final IntArray parents = new IntArray();
+
+    private final int[] marks;
+    private int markBase;
+    private final IntArray[] queues = new IntArray[4];
+    private final int[] heads = new int[4];
+    private final int[] groups = new int[4];
+    private final boolean[] finished = new boolean[4];
+    private int modificationCount;
+
+    /**
+     * Labels the cells of the given grid.
+     *
+     * @param grid The grid, its neighbour masks must be up to date.
+     */
+    public ConnectedComponents(LevelGrid grid) {
+        this.grid = grid;
+        labels = new int[grid.size()];
+        marks = new int[grid.size()];
+        for (int i = 0; i < queues.length; i++) queues[i] = new IntArray();
+        compute();
+    }
+
+    /**
+     * Checks if there is a path between two cells.
+     *
+     * @param from Index of the first cell.
+     * @param to Index of the second cell.
+     * @return true if both cells are the same or are accessible and connected
+     */
+    public boolean isReachable(int from, int to) {
+        if (from == to) return true;
+        if (modificationCount != grid.getModificationCount()) compute();
+        if (labels[from] == NO_COMPONENT || labels[to] == NO_COMPONENT) return false;
+        return find(labels[from]) == find(labels[to]);
+    }
+
+    /**
+     * @param index Index of the cell.
+     * @return Id of the connected component of the cell, -1 if the cell is not accessible. Cells
+     *     with the same id are connected. The ids change when the grid is changed.
+     */
+    public int getComponent(int index) {
+        if (modificationCount != grid.getModificationCount()) compute();
+        return labels[index] == NO_COMPONENT ? NO_COMPONENT : find(labels[index]);
+    }
+
+    /**
+     * Updates the labels after the type of a cell was changed. The neighbour masks of the grid must
+     * already be updated.
+     *
+     * @param index Index of the changed cell.
+     * @param wasAccessible true if the cell was accessible before the change
+     */
+    public void cellChanged(int index, boolean wasAccessible) {
+        if (grid.getModificationCount() != modificationCount + 1) {
+            // more changes than reported, relabel on the next query
+            return;
+        }
+        if (grid.getDiagonalMovement() != DiagonalMovement.NONE) return;
+        modificationCount++;
+        boolean accessible = grid.isAccessible(index);
+        if (accessible && !wasAccessible) open(index);
+        else if (!accessible && wasAccessible) close(index);
+    }
+
+    /** Labels all cells with a breadth-first search per component. */
+    private void compute() {
+        modificationCount = grid.getModificationCount();
+        Arrays.fill(labels, NO_COMPONENT);
+        parents.clear();
+        IntArray queue = queues[0];
+        for (int index = 0; index < labels.length; index++) {
+            if (labels[index] != NO_COMPONENT || !grid.isAccessible(index)) continue;
+            int label = newLabel();
+            labels[index] = label;
+            queue.clear();
+            queue.add(index);
+            for (int head = 0; head < queue.size; head++) {
+                int current = queue.get(head);
+                int neighbours = grid.getNeighbours(current);
+                for (int direction = 0; direction < 8; direction++) {
+                    if ((neighbours & (1 << direction)) == 0) continue;
+                    int next = neighbour(current, direction);
+                    if (labels[next] != NO_COMPONENT) continue;
+                    labels[next] = label;
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /** The opened cell joins all components around it. */
+    private void open(int index) {
+        int root = NO_COMPONENT;
+        int neighbours = grid.getNeighbours(index);
+        for (int direction = 0; direction < 4; direction++) {
+            if ((neighbours & (1 << direction)) == 0) continue;
+            int other = find(labels[neighbour(index, direction)]);
+            if (root == NO_COMPONENT) root = other;
+            else if (other != root) parents.set(other, root);
+        }
+        labels[index] = root == NO_COMPONENT ? newLabel() : root;
+    }
+
+    /**
+     * The closed cell may split its component. A search is started at each neighbour and all run in
+     * turns. Searches that meet belong to the same part; a part whose searches run out of cells is
+     * cut off and gets a new label. It stops when only one part is left, which keeps the old label.
+     */
+    private void close(int index) {
+        labels[index] = NO_COMPONENT;
+        // the mask of a closed cell is empty, so its neighbours are checked one by one
+        int x = grid.getX(index);
+        int y = grid.getY(index);
+        int neighbours = 0;
+        if (y + 1 < grid.getHeight() && grid.isAccessible(index + grid.getWidth()))
+            neighbours |= LevelGrid.NORTH;
+        if (x + 1 < grid.getWidth() && grid.isAccessible(index + 1)) neighbours |= LevelGrid.EAST;
+        if (y > 0 && grid.isAccessible(index - grid.getWidth())) neighbours |= LevelGrid.SOUTH;
+        if (x > 0 && grid.isAccessible(index - 1)) neighbours |= LevelGrid.WEST;
+        int count = 0;
+        for (int direction = 0; direction < 4; direction++) {
+            if ((neighbours & (1 << direction)) == 0) continue;
+            IntArray queue = queues[count];
+            queue.clear();
+            queue.add(neighbour(index, direction));
+            heads[count] = 0;
+            groups[count] = count;
+            finished[count] = false;
+            count++;
+        }
+        if (count < 2) return;
+        if (markBase > Integer.MAX_VALUE - 8) {
+            Arrays.fill(marks, 0);
+            markBase = 0;
+        }
+        int base = markBase + 1;
+        markBase += 4;
+        for (int search = 0; search < count; search++) marks[queues[search].get(0)] = base + search;
+
+        int parts = count;
+        while (parts > 1) {
+            for (int search = 0; search < count && parts > 1; search++) {
+                if (finished[search]) continue;
+                IntArray queue = queues[search];
+                if (heads[search] == queue.size) {
+                    int group = groupOf(search);
+                    if (groupExhausted(group, count)) {
+                        splitOff(group, count);
+                        parts--;
+                    }
+                    continue;
+                }
+                int current = queue.get(heads[search]++);
+                int currentNeighbours = grid.getNeighbours(current);
+                for (int direction = 0; direction < 4; direction++) {
+                    if ((currentNeighbours & (1 << direction)) == 0) continue;
+                    int next = neighbour(current, direction);
+                    int mark = marks[next] - base;
+                    if (mark < 0 || mark >= count) {
+                        marks[next] = base + search;
+                        queue.add(next);
+                    } else if (groupOf(mark) != groupOf(search)) {
+                        groups[groupOf(mark)] = groupOf(search);
+                        parts--;
+                    }
+                }
+            }
+        }
+    }
+
+    private int groupOf(int search) {
+        while (groups[search] != search) search = groups[search];
+        return search;
+    }
+
+    private boolean groupExhausted(int group, int count) {
+        for (int search = 0; search < count; search++)
+            if (groupOf(search) == group && heads[search] < queues[search].size) return false;
+        return true;
+    }
+
+    /** Gives all cells found by the searches of the group a new label. */
+    private void splitOff(int group, int count) {
+        int label = newLabel();
+        for (int search = 0; search < count; search++) {
+            if (groupOf(search) != group) continue;
+            finished[search] = true;
+            IntArray queue = queues[search];
+            for (int i = 0; i < queue.size; i++) labels[queue.get(i)] = label;
+        }
+    }
+
+    private int newLabel() {
+        parents.add(parents.size);
+        return parents.size - 1;
+    }
+
+    private int find(int label) {
+        while (parents.get(label) != label) {
+            // path halving
+            parents.set(label, parents.get(parents.get(label)));
+            label = parents.get(label);
+        }
+        return label;
+    }
+
+    private int neighbour(int index, int direction) {
+        switch (1 << direction) {
+            case LevelGrid.NORTH:
+                return index + grid.getWidth();
+            case LevelGrid.EAST:
+                return index + 1;
+            case LevelGrid.SOUTH:
+                return index - grid.getWidth();
+            case LevelGrid.WEST:
+                return index - 1;
+            case LevelGrid.NORTH_EAST:
+                return index + grid.getWidth() + 1;
+            case LevelGrid.SOUTH_EAST:
+                return index - grid.getWidth() + 1;
+            case LevelGrid.SOUTH_WEST:
+                return index - grid.getWidth() - 1;
+            default:
+                return index + grid.getWidth() - 1;
+        }
+    }
+}
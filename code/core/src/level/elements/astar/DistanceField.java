@@ -0,0 +1,360 @@
+package level.elements.astar;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.badlogic.gdx.utils.LongArray;
+import java.util.Arrays;
+import level.elements.LevelGrid;
+
+/**
+ * Distance of every cell of a level grid to the nearest of one or more goal cells (also known as
+ * Dijkstra map or flow field).
+ *
+ * <p>The field is computed with one breadth-first search over the accessible cells, no matter how
+ * many characters use it. Each character then finds its next step towards the nearest goal in
+ * constant time with {@link #getNextStep(int)}. Goals can be added, removed and moved, which only
+ * updates the cells whose distance changes. The same holds for cells that are opened or closed and
+ * reported with {@link #cellChanged(int, boolean)}; other changes of the grid lead to a complete
+ * computation.
+ */
+public class DistanceField {
+    /** Distance of cells from which no goal can be reached. */
+    public static final int UNREACHABLE = -1;
+
+    private final LevelGrid grid;
+    private final int[] distances;
+    private final boolean[] goals;
+    private final int[] queue;
+    private final int[] queueDistances;
+    private final LongArray seeds = new LongArray();
+    private int goalCount;
+    private int modificationCount;
+
+    /**
+     * Creates an empty field, every cell is unreachable until goals are set.
+     *
+     * @param grid The grid the distances are computed on.
+     */
+    public DistanceField(LevelGrid grid) {
+        this.grid = grid;
+        distances = new int[grid.size()];
+        goals = new boolean[grid.size()];
+        queue = new int[grid.size()];
+        queueDistances = new int[grid.size()];
+        Arrays.fill(distances, UNREACHABLE);
+        modificationCount = grid.getModificationCount();
+    }
+
+    /**
+     * Replaces all goals and computes the distances from scratch.
+     *
+     * @param goals Indices of the goal cells.
+     */
+    public void compute(int... goals) {
+        Arrays.fill(this.goals, false);
+        goalCount = 0;
+        for (int goal : goals) setGoal(goal, true);
+        computeAll();
+    }
+
+    /**
+     * Adds a goal and lowers the distances of the cells that are closer to it than to the other
+     * goals.
+     *
+     * @param goal Index of the new goal cell.
+     */
+    public void addGoal(int goal) {
+        if (goals[goal]) return;
+        setGoal(goal, true);
+        if (recomputeIfOutdated()) {
+            computeAll();
+            return;
+        }
+        distances[goal] = 0;
+        queue[0] = goal;
+        lower(0, 1);
+    }
+
+    /**
+     * Removes a goal and raises the distances of the cells that were closest to it.
+     *
+     * @param goal Index of the goal cell to remove.
+     */
+    public void removeGoal(int goal) {
+        if (!goals[goal]) return;
+        setGoal(goal, false);
+        if (recomputeIfOutdated()) {
+            computeAll();
+            return;
+        }
+        raise(goal);
+    }
+
+    /**
+     * Moves a goal, for example when the hero made a step.
+     *
+     * <p>If the moved goal is the only one, every distance changes by one (each step changes the
+     * distance from even to odd or back), so the field is computed again in one pass. With more
+     * goals only the cells closest to the moved goal are updated.
+     *
+     * @param from Index of the current goal cell.
+     * @param to Index of the new goal cell.
+     */
+    public void moveGoal(int from, int to) {
+        if (from == to || !goals[from]) return;
+        if (goalCount == 1) {
+            setGoal(from, false);
+            setGoal(to, true);
+            computeAll();
+            return;
+        }
+        addGoal(to);
+        removeGoal(from);
+    }
+
+    /**
+     * Updates the distances after the type of a cell was changed. The neighbour masks of the grid
+     * must already be updated.
+     *
+     * @param index Index of the changed cell.
+     * @param wasAccessible true if the cell was accessible before the change
+     */
+    public void cellChanged(int index, boolean wasAccessible) {
+        if (grid.getModificationCount() != modificationCount + 1) {
+            // more changes than reported
+            computeAll();
+            return;
+        }
+        modificationCount++;
+        boolean accessible = grid.isAccessible(index);
+        if (accessible && !wasAccessible) open(index);
+        else if (!accessible && wasAccessible) close(index);
+    }
+
+    /**
+     * @param index Index of the cell.
+     * @return Number of steps from the cell to the nearest goal or {@link #UNREACHABLE}.
+     */
+    public int getDistance(int index) {
+        return distances[index];
+    }
+
+    /**
+     * @param index Index of the cell.
+     * @return true if the cell is one of the goals
+     */
+    public boolean isGoal(int index) {
+        return goals[index];
+    }
+
+    /**
+     * Finds the neighbour of a cell that is one step closer to the nearest goal.
+     *
+     * @param index Index of the cell.
+     * @return Index of the neighbour or -1 if the cell is a goal or no goal can be reached.
+     */
+    public int getNextStep(int index) {
+        int distance = distances[index] - 1;
+        if (distance < 0) return -1;
+        int neighbours = grid.getNeighbours(index);
+        int width = grid.getWidth();
+        if ((neighbours & LevelGrid.NORTH) != 0 && distances[index + width] == distance)
+            return index + width;
+        if ((neighbours & LevelGrid.SOUTH) != 0 && distances[index - width] == distance)
+            return index - width;
+        if ((neighbours & LevelGrid.WEST) != 0 && distances[index - 1] == distance)
+            return index - 1;
+        if ((neighbours & LevelGrid.EAST) != 0 && distances[index + 1] == distance)
+            return index + 1;
+        return -1;
+    }
+
+    /**
+     * Collects the goals of this field.
+     *
+     * @param outGoals Receives the indices of the goal cells, it is cleared first.
+     */
+    public void getGoals(IntArray outGoals) {
+        outGoals.clear();
+        for (int index = 0; index < goals.length; index++) if (goals[index]) outGoals.add(index);
+    }
+
+    private void setGoal(int index, boolean goal) {
+        if (goals[index] == goal) return;
+        goals[index] = goal;
+        goalCount += goal ? 1 : -1;
+    }
+
+    /** If the grid was changed, all distances are computed again on the next update. */
+    private boolean recomputeIfOutdated() {
+        if (modificationCount == grid.getModificationCount()) return false;
+        modificationCount = grid.getModificationCount();
+        return true;
+    }
+
+    private void computeAll() {
+        modificationCount = grid.getModificationCount();
+        Arrays.fill(distances, UNREACHABLE);
+        int tail = 0;
+        for (int index = 0; index < goals.length; index++) {
+            if (!goals[index]) continue;
+            distances[index] = 0;
+            queue[tail++] = index;
+        }
+        lower(0, tail);
+    }
+
+    /**
+     * Breadth-first search that lowers the distances of the neighbours of the cells in the queue.
+     * The queued cells must be ordered by distance.
+     */
+    private void lower(int head, int tail) {
+        int width = grid.getWidth();
+        while (head < tail) {
+            int current = queue[head++];
+            int distance = distances[current] + 1;
+            int neighbours = grid.getNeighbours(current);
+            if ((neighbours & LevelGrid.NORTH) != 0) tail = lower(current + width, distance, tail);
+            if ((neighbours & LevelGrid.SOUTH) != 0) tail = lower(current - width, distance, tail);
+            if ((neighbours & LevelGrid.WEST) != 0) tail = lower(current - 1, distance, tail);
+            if ((neighbours & LevelGrid.EAST) != 0) tail = lower(current + 1, distance, tail);
+        }
+    }
+
+    private int lower(int index, int distance, int tail) {
+        if (distances[index] != UNREACHABLE && distances[index] <= distance) return tail;
+        distances[index] = distance;
+        queue[tail] = index;
+        return tail + 1;
+    }
+
+    /** Takes the distance of the opened cell from its neighbours and passes it on. */
+    private void open(int index) {
+        if (!goals[index]) {
+            int best = UNREACHABLE;
+            int width = grid.getWidth();
+            int neighbours = grid.getNeighbours(index);
+            if ((neighbours & LevelGrid.NORTH) != 0) best = closer(best, index + width);
+            if ((neighbours & LevelGrid.SOUTH) != 0) best = closer(best, index - width);
+            if ((neighbours & LevelGrid.WEST) != 0) best = closer(best, index - 1);
+            if ((neighbours & LevelGrid.EAST) != 0) best = closer(best, index + 1);
+            if (best == UNREACHABLE) return;
+            distances[index] = best + 1;
+        } else {
+            distances[index] = 0;
+        }
+        queue[0] = index;
+        lower(0, 1);
+    }
+
+    private int closer(int best, int index) {
+        int distance = distances[index];
+        return distance != UNREACHABLE && (best == UNREACHABLE || distance < best)
+                ? distance
+                : best;
+    }
+
+    /** Removes the distance of the closed cell and of the cells that only got theirs through it. */
+    private void close(int index) {
+        if (goals[index]) {
+            // the cells around may all have been closest to this goal
+            computeAll();
+            return;
+        }
+        int next = distances[index] + 1;
+        distances[index] = UNREACHABLE;
+        if (next == 0) return;
+        // the closed cell has no neighbours in its mask any more, so they are found by position
+        int width = grid.getWidth();
+        int x = grid.getX(index);
+        int y = grid.getY(index);
+        int tail = 0;
+        if (y + 1 < grid.getHeight()) tail = raise(index + width, next, tail);
+        if (y > 0) tail = raise(index - width, next, tail);
+        if (x > 0) tail = raise(index - 1, next, tail);
+        if (x + 1 < width) tail = raise(index + 1, next, tail);
+        raiseQueued(tail);
+    }
+
+    /**
+     * Removes the distances of all cells that only got them through the removed goal and computes
+     * them again from the cells around.
+     */
+    private void raise(int goal) {
+        queue[0] = goal;
+        queueDistances[0] = distances[goal];
+        distances[goal] = UNREACHABLE;
+        raiseQueued(1);
+    }
+
+    /** Raises the queued cells, whose distances were removed, and the cells that depend on them. */
+    private void raiseQueued(int tail) {
+        int width = grid.getWidth();
+        // first pass: in order of the old distances, find the cells that lost every neighbour
+        // that was one step closer to a goal
+        int head = 0;
+        while (head < tail) {
+            int current = queue[head];
+            int next = queueDistances[head++] + 1;
+            int neighbours = grid.getNeighbours(current);
+            if ((neighbours & LevelGrid.NORTH) != 0) tail = raise(current + width, next, tail);
+            if ((neighbours & LevelGrid.SOUTH) != 0) tail = raise(current - width, next, tail);
+            if ((neighbours & LevelGrid.WEST) != 0) tail = raise(current - 1, next, tail);
+            if ((neighbours & LevelGrid.EAST) != 0) tail = raise(current + 1, next, tail);
+        }
+        // second pass: search again from the cells with a valid distance next to the raised ones
+        seeds.clear();
+        for (int i = 0; i < tail; i++) {
+            int current = queue[i];
+            int neighbours = grid.getNeighbours(current);
+            if ((neighbours & LevelGrid.NORTH) != 0) addSeed(current + width);
+            if ((neighbours & LevelGrid.SOUTH) != 0) addSeed(current - width);
+            if ((neighbours & LevelGrid.WEST) != 0) addSeed(current - 1);
+            if ((neighbours & LevelGrid.EAST) != 0) addSeed(current + 1);
+        }
+        Arrays.sort(seeds.items, 0, seeds.size);
+        lowerFromSeeds();
+    }
+
+    private int raise(int index, int distance, int tail) {
+        if (distances[index] != distance || goals[index]) return tail;
+        int previous = distance - 1;
+        int width = grid.getWidth();
+        int neighbours = grid.getNeighbours(index);
+        if ((neighbours & LevelGrid.NORTH) != 0 && distances[index + width] == previous)
+            return tail;
+        if ((neighbours & LevelGrid.SOUTH) != 0 && distances[index - width] == previous)
+            return tail;
+        if ((neighbours & LevelGrid.WEST) != 0 && distances[index - 1] == previous) return tail;
+        if ((neighbours & LevelGrid.EAST) != 0 && distances[index + 1] == previous) return tail;
+        distances[index] = UNREACHABLE;
+        queue[tail] = index;
+        queueDistances[tail] = distance;
+        return tail + 1;
+    }
+
+    private void addSeed(int index) {
+        if (distances[index] != UNREACHABLE) seeds.add((long) distances[index] << 32 | index);
+    }
+
+    /** Breadth-first search from the seeds, merged with the queue so cells leave in order. */
+    private void lowerFromSeeds() {
+        int width = grid.getWidth();
+        int head = 0;
+        int tail = 0;
+        int seed = 0;
+        while (seed < seeds.size || head < tail) {
+            int current;
+            if (head == tail
+                    || seed < seeds.size
+                            && (int) (seeds.get(seed) >>> 32) <= distances[queue[head]])
+                current = (int) seeds.get(seed++);
+            else current = queue[head++];
+            int distance = distances[current] + 1;
+            int neighbours = grid.getNeighbours(current);
+            if ((neighbours & LevelGrid.NORTH) != 0) tail = lower(current + width, distance, tail);
+            if ((neighbours & LevelGrid.SOUTH) != 0) tail = lower(current - width, distance, tail);
+            if ((neighbours & LevelGrid.WEST) != 0) tail = lower(current - 1, distance, tail);
+            if ((neighbours & LevelGrid.EAST) != 0) tail = lower(current + 1, distance, tail);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package level.elements.astar;
+
+/**
+ * Estimates of the cost between two cells of a level grid, used to guide the searches of {@link
+ * AbstractGridPathFinder}.
+ *
+ * <p>The estimates are computed from the column and row distance of the cells, in the same integer
+ * units as the costs of the path finders ({@link AbstractGridPathFinder#STRAIGHT_COST} per step).
+ * Whether the found paths are the shortest ones depends on the moves of the path finder: only a
+ * heuristic that never overestimates the real cost guarantees that.
+ *
+ * <ul>
+ *   <li>{@link #OCTILE} and {@link #EUCLIDEAN} never overestimate, with and without diagonal steps.
+ *   <li>{@link #MANHATTAN} never overestimates with the four direct neighbours only. With diagonal
+ *       steps it counts a diagonal step as two straight ones, so the search gets faster but may
+ *       return longer paths.
+ * </ul>
+ *
+ * <p>The closer the estimate is to the real cost, the fewer cells are expanded: on open maps {@link
+ * #MANHATTAN} is exact for four neighbours and {@link #OCTILE} for eight. {@link
+ * AbstractGridPathFinder#getDefaultHeuristic()} chooses between these two by the moves of the path
+ * finder.
+ */
+public enum GridHeuristic {
+    /**
+     * Steps along columns and rows, the best choice for four neighbours. Overestimates with
+     * diagonal steps.
+     */
+    MANHATTAN {
+        @Override
+        public int estimate(int dx, int dy) {
+            return (dx + dy) * AbstractGridPathFinder.STRAIGHT_COST;
+        }
+    },
+    /**
+     * Diagonal steps as far as possible, then straight steps, the best choice for eight neighbours.
+     */
+    OCTILE {
+        @Override
+        public int estimate(int dx, int dy) {
+            int min = Math.min(dx, dy);
+            int max = Math.max(dx, dy);
+            return max * AbstractGridPathFinder.STRAIGHT_COST
+                    + min
+                            * (AbstractGridPathFinder.DIAGONAL_COST
+                                    - AbstractGridPathFinder.STRAIGHT_COST);
+        }
+    },
+    /** Straight line between the cells, rounded down. */
+    EUCLIDEAN {
+        @Override
+        public int estimate(int dx, int dy) {
+            return (int) (AbstractGridPathFinder.STRAIGHT_COST * Math.sqrt(dx * dx + dy * dy));
+        }
+    };
+
+    /**
+     * Estimates the cost between two cells.
+     *
+     * @param dx Distance between the columns of the cells, not negative.
+     * @param dy Distance between the rows of the cells, not negative.
+     * @return The estimated cost.
+     */
+    public abstract int estimate(int dx, int dy);
+}
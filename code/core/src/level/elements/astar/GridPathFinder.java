@@ -0,0 +1,54 @@
+package level.elements.astar;
+
+import level.elements.LevelGrid;
+import level.tools.DiagonalMovement;
+
+/**
+ * A* pathfinding over the neighbours of each cell of a level grid.
+ *
+ * <p>The search expands the neighbours straight from the mask of the grid: the four direct ones
+ * and, if diagonal movement is enabled for the grid (see {@link
+ * LevelGrid#setDiagonalMovement(DiagonalMovement)}), the diagonal ones.
+ */
+public class GridPathFinder extends AbstractGridPathFinder {
+
+    /**
+     * Creates a pathfinder for the given grid.
+     *
+     * @param grid The grid to search on.
+     */
+    public GridPathFinder(LevelGrid grid) {
+        super(grid);
+    }
+
+    @Override
+    public PathfindingMode getPathfindingMode() {
+        return PathfindingMode.A_STAR;
+    }
+
+    @Override
+    protected void visitChildren(int current, int goal) {
+        int neighbours = grid.getNeighbours(current);
+        int width = grid.getWidth();
+        if ((neighbours & LevelGrid.NORTH) != 0)
+            visit(current, current + width, STRAIGHT_COST, goal);
+        if ((neighbours & LevelGrid.SOUTH) != 0)
+            visit(current, current - width, STRAIGHT_COST, goal);
+        if ((neighbours & LevelGrid.WEST) != 0) visit(current, current - 1, STRAIGHT_COST, goal);
+        if ((neighbours & LevelGrid.EAST) != 0) visit(current, current + 1, STRAIGHT_COST, goal);
+        if (neighbours <= LevelGrid.STRAIGHT_NEIGHBOURS) return;
+        if ((neighbours & LevelGrid.NORTH_EAST) != 0)
+            visit(current, current + width + 1, DIAGONAL_COST, goal);
+        if ((neighbours & LevelGrid.SOUTH_EAST) != 0)
+            visit(current, current - width + 1, DIAGONAL_COST, goal);
+        if ((neighbours & LevelGrid.SOUTH_WEST) != 0)
+            visit(current, current - width - 1, DIAGONAL_COST, goal);
+        if ((neighbours & LevelGrid.NORTH_WEST) != 0)
+            visit(current, current + width - 1, DIAGONAL_COST, goal);
+    }
+
+    @Override
+    protected boolean usesDiagonalSteps() {
+        return grid.getDiagonalMovement() != DiagonalMovement.NONE;
+    }
+}
@@ -0,0 +1,504 @@
+package level.elements.astar;
+
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Arrays;
+import level.elements.LevelGrid;
+
+/**
+ * Hierarchical pathfinding (HPA*) over the four neighbours of each cell of a level grid.
+ *
+ * <p>The grid is divided into square clusters. Where two clusters touch, accessible cells on both
+ * sides of the border are connected by transitions, the cells of a transition are the entrances of
+ * the clusters. The distances between all entrances of a cluster are computed in advance, so a
+ * query only searches the small graph of entrances and then fills in the cells between the
+ * entrances that are on the path.
+ *
+ * <p>The paths are close to the shortest ones but not always the shortest, because the search can
+ * only change the cluster at an entrance. If start and goal are in the same or in neighbouring
+ * clusters, the cells of these clusters are searched directly instead, so short paths do not take
+ * a detour over an entrance; only if there is no way inside these clusters the entrances are
+ * searched. Changed cells are reported with {@link #cellChanged(int)}, which rebuilds the cluster
+ * of the cell (and its neighbours if their entrances changed) before the next query.
+ */
+public class HierarchicalPathFinder extends AbstractGridPathFinder {
+    /** Edge length of the clusters if not specified otherwise. */
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    /** Wider openings between two clusters get a transition at both ends instead of one. */
+    private static final int MAX_SINGLE_TRANSITION_WIDTH = 6;
+
+    private final int clusterSize;
+    private final int clustersX;
+    private final int clustersY;
+    /** Per cluster: transitions over the east border as pairs (cell inside, cell outside). */
+    private final int[][] eastTransitions;
+    /** Per cluster: transitions over the north border as pairs (cell inside, cell outside). */
+    private final int[][] northTransitions;
+    /** Per cluster: the entrance cells. */
+    private final int[][] entrances;
+    /** Per cluster: distances between all entrances, -1 if not connected inside the cluster. */
+    private final int[][] distances;
+    /** Per cell: position in the entrances of its cluster, -1 if the cell is no entrance. */
+    private final int[] entranceSlots;
+    /** Per cell: directions of the transitions that start at the cell. */
+    private final byte[] transitions;
+
+    private final boolean[] dirtyClusters;
+    private final boolean[] changedEntrances;
+    private boolean dirty;
+    private int modificationCount;
+    private int clusterRebuilds;
+
+    private final int[] clusterDistances;
+    private final int[] clusterQueue;
+    private final IntArray startDistances = new IntArray();
+    private final IntArray goalDistances = new IntArray();
+    private int queryStart;
+    private int queryGoal;
+    private GridHeuristic queryHeuristic;
+    private int startCluster;
+    private int goalCluster;
+    private int directDistance;
+    /** Whether the running search goes over the cells between the local bounds. */
+    private boolean localSearch;
+    private int localMinX;
+    private int localMinY;
+    private int localMaxX;
+    private int localMaxY;
+
+    /**
+     * Creates a pathfinder for the given grid with clusters of the default size.
+     *
+     * @param grid The grid to search on.
+     */
+    public HierarchicalPathFinder(LevelGrid grid) {
+        this(grid, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Creates a pathfinder for the given grid and builds the clusters.
+     *
+     * @param grid The grid to search on.
+     * @param clusterSize Edge length of the clusters in cells.
+     */
+    public HierarchicalPathFinder(LevelGrid grid, int clusterSize) {
+        super(grid);
+        assert (clusterSize > 1);
+        this.clusterSize = clusterSize;
+        clustersX = (grid.getWidth() + clusterSize - 1) / clusterSize;
+        clustersY = (grid.getHeight() + clusterSize - 1) / clusterSize;
+        int clusterCount = clustersX * clustersY;
+        eastTransitions = new int[clusterCount][];
+        northTransitions = new int[clusterCount][];
+        entrances = new int[clusterCount][];
+        distances = new int[clusterCount][];
+        entranceSlots = new int[grid.size()];
+        Arrays.fill(entranceSlots, -1);
+        transitions = new byte[grid.size()];
+        dirtyClusters = new boolean[clusterCount];
+        changedEntrances = new boolean[clusterCount];
+        clusterDistances = new int[clusterSize * clusterSize];
+        clusterQueue = new int[clusterSize * clusterSize];
+        Arrays.fill(dirtyClusters, true);
+        dirty = true;
+        modificationCount = grid.getModificationCount();
+        update();
+    }
+
+    @Override
+    public void startSearch(int start, int goal, GridHeuristic heuristic) {
+        if (modificationCount != grid.getModificationCount()) {
+            // the grid was changed without telling us where
+            Arrays.fill(dirtyClusters, true);
+            dirty = true;
+            modificationCount = grid.getModificationCount();
+        }
+        update();
+        queryStart = start;
+        queryGoal = goal;
+        queryHeuristic = heuristic;
+        startCluster = clusterOf(start);
+        goalCluster = clusterOf(goal);
+        int startX = startCluster % clustersX;
+        int startY = startCluster / clustersX;
+        int goalX = goalCluster % clustersX;
+        int goalY = goalCluster / clustersX;
+        localSearch = Math.abs(startX - goalX) <= 1 && Math.abs(startY - goalY) <= 1;
+        if (localSearch) {
+            localMinX = Math.min(startX, goalX) * clusterSize;
+            localMinY = Math.min(startY, goalY) * clusterSize;
+            localMaxX = Math.min(grid.getWidth(), (Math.max(startX, goalX) + 1) * clusterSize);
+            localMaxY = Math.min(grid.getHeight(), (Math.max(startY, goalY) + 1) * clusterSize);
+            super.startSearch(start, goal, heuristic);
+        } else {
+            startHierarchicalSearch();
+        }
+    }
+
+    /**
+     * Continues the search. If the direct search in the clusters of start and goal finds no way,
+     * the search goes on over the entrances.
+     */
+    @Override
+    public boolean continueSearch(int maxExpansions) {
+        if (!super.continueSearch(maxExpansions)) return false;
+        if (!localSearch || isFound()) return true;
+        // the way leaves the clusters of start and goal
+        localSearch = false;
+        startHierarchicalSearch();
+        return continueSearch(maxExpansions);
+    }
+
+    private void startHierarchicalSearch() {
+        directDistance = -1;
+        distancesToEntrances(startCluster, queryStart, startDistances);
+        if (startCluster == goalCluster && grid.isAccessible(queryStart))
+            directDistance = clusterDistances[localIndex(startCluster, queryGoal)];
+        distancesToEntrances(goalCluster, queryGoal, goalDistances);
+        super.startSearch(queryStart, queryGoal, queryHeuristic);
+    }
+
+    /**
+     * Marks the cluster of the cell for a rebuild before the next query. During a search that does
+     * not need to start again, the cluster is rebuilt right away.
+     *
+     * @param index Index of the changed cell.
+     */
+    @Override
+    public void cellChanged(int index) {
+        super.cellChanged(index);
+        // if more changes happened than reported, the next query rebuilds everything
+        if (grid.getModificationCount() != modificationCount + 1) return;
+        modificationCount++;
+        dirtyClusters[clusterOf(index)] = true;
+        dirty = true;
+        // the search has not reached the rebuilt clusters, so it can go on with the new ones
+        if (isSearching() && !isSearchOutdated()) update();
+    }
+
+    /**
+     * Rebuilding a cluster changes its entrances and the transitions to its four neighbours, so a
+     * change matters if the search reached one of these clusters or they contain start or goal.
+     */
+    @Override
+    protected boolean affectsSearch(int index) {
+        int cluster = clusterOf(index);
+        int clusterX = cluster % clustersX;
+        int clusterY = cluster / clustersX;
+        return isReachedCluster(cluster)
+                || clusterX > 0 && isReachedCluster(cluster - 1)
+                || clusterX < clustersX - 1 && isReachedCluster(cluster + 1)
+                || clusterY > 0 && isReachedCluster(cluster - clustersX)
+                || clusterY < clustersY - 1 && isReachedCluster(cluster + clustersX);
+    }
+
+    /** Checks if the search reached a cell of the cluster. */
+    private boolean isReachedCluster(int cluster) {
+        if (cluster == startCluster || cluster == goalCluster) return true;
+        int minX = cluster % clustersX * clusterSize;
+        int minY = cluster / clustersX * clusterSize;
+        int maxX = Math.min(grid.getWidth(), minX + clusterSize);
+        int maxY = Math.min(grid.getHeight(), minY + clusterSize);
+        for (int y = minY; y < maxY; y++)
+            for (int x = minX; x < maxX; x++) if (isReached(grid.index(x, y))) return true;
+        return false;
+    }
+
+    /**
+     * @return Edge length of the clusters in cells.
+     */
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * @return Number of times a cluster was rebuilt since this pathfinder was created.
+     */
+    public int getClusterRebuilds() {
+        return clusterRebuilds;
+    }
+
+    @Override
+    public PathfindingMode getPathfindingMode() {
+        return PathfindingMode.HIERARCHICAL;
+    }
+
+    @Override
+    protected void visitChildren(int current, int goal) {
+        if (localSearch) {
+            visitLocalNeighbours(current, goal);
+            return;
+        }
+        if (current == queryStart) {
+            int[] startEntrances = entrances[startCluster];
+            for (int slot = 0; slot < startEntrances.length; slot++)
+                if (startDistances.get(slot) >= 0)
+                    visit(current, startEntrances[slot], cost(startDistances.get(slot)), goal);
+            if (directDistance >= 0) visit(current, goal, cost(directDistance), goal);
+        }
+        int slot = entranceSlots[current];
+        if (slot == -1) return;
+        int cluster = clusterOf(current);
+        int[] clusterEntrances = entrances[cluster];
+        int[] costs = distances[cluster];
+        int offset = slot * clusterEntrances.length;
+        for (int other = 0; other < clusterEntrances.length; other++)
+            if (costs[offset + other] > 0)
+                visit(current, clusterEntrances[other], cost(costs[offset + other]), goal);
+        if (cluster == goalCluster && goalDistances.get(slot) >= 0)
+            visit(current, goal, cost(goalDistances.get(slot)), goal);
+        int directions = transitions[current];
+        int width = grid.getWidth();
+        if ((directions & LevelGrid.NORTH) != 0)
+            visit(current, current + width, STRAIGHT_COST, goal);
+        if ((directions & LevelGrid.SOUTH) != 0)
+            visit(current, current - width, STRAIGHT_COST, goal);
+        if ((directions & LevelGrid.WEST) != 0) visit(current, current - 1, STRAIGHT_COST, goal);
+        if ((directions & LevelGrid.EAST) != 0) visit(current, current + 1, STRAIGHT_COST, goal);
+    }
+
+    private void visitLocalNeighbours(int current, int goal) {
+        int neighbours = grid.getNeighbours(current);
+        int width = grid.getWidth();
+        int x = grid.getX(current);
+        int y = grid.getY(current);
+        if ((neighbours & LevelGrid.NORTH) != 0 && y + 1 < localMaxY)
+            visit(current, current + width, STRAIGHT_COST, goal);
+        if ((neighbours & LevelGrid.SOUTH) != 0 && y > localMinY)
+            visit(current, current - width, STRAIGHT_COST, goal);
+        if ((neighbours & LevelGrid.WEST) != 0 && x > localMinX)
+            visit(current, current - 1, STRAIGHT_COST, goal);
+        if ((neighbours & LevelGrid.EAST) != 0 && x + 1 < localMaxX)
+            visit(current, current + 1, STRAIGHT_COST, goal);
+    }
+
+    /** The distances inside the clusters are counted in steps. */
+    private static int cost(int steps) {
+        return steps * STRAIGHT_COST;
+    }
+
+    @Override
+    protected void addSegment(int node, IntArray outPath) {
+        int parent = getParent(node);
+        int cluster = clusterOf(node);
+        if (localSearch || cluster != clusterOf(parent)) {
+            // a step of the direct search or a transition, the cells are neighbours
+            outPath.add(node);
+            return;
+        }
+        // walk back from the node along decreasing distances to the parent
+        computeClusterDistances(cluster, parent, node);
+        int width = grid.getWidth();
+        int cell = node;
+        while (cell != parent) {
+            outPath.add(cell);
+            int distance = clusterDistances[localIndex(cluster, cell)] - 1;
+            int x = grid.getX(cell);
+            int y = grid.getY(cell);
+            if (distanceInCluster(cluster, x, y + 1) == distance) cell += width;
+            else if (distanceInCluster(cluster, x, y - 1) == distance) cell -= width;
+            else if (distanceInCluster(cluster, x - 1, y) == distance) cell -= 1;
+            else cell += 1;
+        }
+    }
+
+    // --------------------------- Clusters ---------------------------
+
+    private void update() {
+        if (!dirty) return;
+        Arrays.fill(changedEntrances, false);
+        for (int cluster = 0; cluster < dirtyClusters.length; cluster++) {
+            if (!dirtyClusters[cluster]) continue;
+            changedEntrances[cluster] = true;
+            int clusterX = cluster % clustersX;
+            int clusterY = cluster / clustersX;
+            updateEastBorder(cluster);
+            updateNorthBorder(cluster);
+            if (clusterX > 0) updateEastBorder(cluster - 1);
+            if (clusterY > 0) updateNorthBorder(cluster - clustersX);
+        }
+        for (int cluster = 0; cluster < changedEntrances.length; cluster++) {
+            if (!changedEntrances[cluster]) continue;
+            updateEntrances(cluster);
+            clusterRebuilds++;
+        }
+        Arrays.fill(dirtyClusters, false);
+        dirty = false;
+    }
+
+    private void updateEastBorder(int cluster) {
+        int clusterX = cluster % clustersX;
+        if (clusterX == clustersX - 1) return;
+        int x = clusterX * clusterSize + clusterSize - 1;
+        int minY = cluster / clustersX * clusterSize;
+        int maxY = Math.min(grid.getHeight(), minY + clusterSize);
+        IntArray found = new IntArray();
+        int runStart = -1;
+        for (int y = minY; y <= maxY; y++) {
+            boolean open =
+                    y < maxY
+                            && grid.isAccessible(grid.index(x, y))
+                            && grid.isAccessible(grid.index(x + 1, y));
+            if (open && runStart == -1) runStart = y;
+            if (open || runStart == -1) continue;
+            for (int transitionY : transitionsOf(runStart, y - 1))
+                found.addAll(grid.index(x, transitionY), grid.index(x + 1, transitionY));
+            runStart = -1;
+        }
+        int[] old = eastTransitions[cluster];
+        int[] updated = found.toArray();
+        if (Arrays.equals(old, updated)) return;
+        setTransitions(old, LevelGrid.EAST, LevelGrid.WEST, false);
+        setTransitions(updated, LevelGrid.EAST, LevelGrid.WEST, true);
+        eastTransitions[cluster] = updated;
+        changedEntrances[cluster] = true;
+        changedEntrances[cluster + 1] = true;
+    }
+
+    private void updateNorthBorder(int cluster) {
+        int clusterY = cluster / clustersX;
+        if (clusterY == clustersY - 1) return;
+        int y = clusterY * clusterSize + clusterSize - 1;
+        int minX = cluster % clustersX * clusterSize;
+        int maxX = Math.min(grid.getWidth(), minX + clusterSize);
+        IntArray found = new IntArray();
+        int runStart = -1;
+        for (int x = minX; x <= maxX; x++) {
+            boolean open =
+                    x < maxX
+                            && grid.isAccessible(grid.index(x, y))
+                            && grid.isAccessible(grid.index(x, y + 1));
+            if (open && runStart == -1) runStart = x;
+            if (open || runStart == -1) continue;
+            for (int transitionX : transitionsOf(runStart, x - 1))
+                found.addAll(grid.index(transitionX, y), grid.index(transitionX, y + 1));
+            runStart = -1;
+        }
+        int[] old = northTransitions[cluster];
+        int[] updated = found.toArray();
+        if (Arrays.equals(old, updated)) return;
+        setTransitions(old, LevelGrid.NORTH, LevelGrid.SOUTH, false);
+        setTransitions(updated, LevelGrid.NORTH, LevelGrid.SOUTH, true);
+        northTransitions[cluster] = updated;
+        changedEntrances[cluster] = true;
+        changedEntrances[cluster + clustersX] = true;
+    }
+
+    private static int[] transitionsOf(int first, int last) {
+        if (last - first + 1 < MAX_SINGLE_TRANSITION_WIDTH) return new int[] {(first + last) / 2};
+        return new int[] {first, last};
+    }
+
+    private void setTransitions(int[] pairs, int direction, int opposite, boolean set) {
+        if (pairs == null) return;
+        for (int i = 0; i < pairs.length; i += 2) {
+            if (set) {
+                transitions[pairs[i]] |= direction;
+                transitions[pairs[i + 1]] |= opposite;
+            } else {
+                transitions[pairs[i]] &= ~direction;
+                transitions[pairs[i + 1]] &= ~opposite;
+            }
+        }
+    }
+
+    /** Collects the entrances of the cluster and computes the distances between them. */
+    private void updateEntrances(int cluster) {
+        if (entrances[cluster] != null)
+            for (int cell : entrances[cluster]) entranceSlots[cell] = -1;
+        IntArray found = new IntArray();
+        addEntrances(found, eastTransitions[cluster], 0);
+        addEntrances(found, northTransitions[cluster], 0);
+        if (cluster % clustersX > 0) addEntrances(found, eastTransitions[cluster - 1], 1);
+        if (cluster >= clustersX) addEntrances(found, northTransitions[cluster - clustersX], 1);
+        int[] clusterEntrances = found.toArray();
+        int count = clusterEntrances.length;
+        int[] costs = new int[count * count];
+        for (int from = 0; from < count; from++) {
+            computeClusterDistances(cluster, clusterEntrances[from]);
+            for (int to = 0; to < count; to++)
+                costs[from * count + to] =
+                        clusterDistances[localIndex(cluster, clusterEntrances[to])];
+        }
+        entrances[cluster] = clusterEntrances;
+        distances[cluster] = costs;
+    }
+
+    private void addEntrances(IntArray found, int[] pairs, int side) {
+        if (pairs == null) return;
+        for (int i = side; i < pairs.length; i += 2) {
+            if (entranceSlots[pairs[i]] != -1) continue;
+            entranceSlots[pairs[i]] = found.size;
+            found.add(pairs[i]);
+        }
+    }
+
+    private void distancesToEntrances(int cluster, int cell, IntArray out) {
+        out.clear();
+        int[] clusterEntrances = entrances[cluster];
+        if (!grid.isAccessible(cell)) {
+            for (int i = 0; i < clusterEntrances.length; i++) out.add(-1);
+            return;
+        }
+        computeClusterDistances(cluster, cell);
+        for (int entrance : clusterEntrances)
+            out.add(clusterDistances[localIndex(cluster, entrance)]);
+    }
+
+    private void computeClusterDistances(int cluster, int cell) {
+        computeClusterDistances(cluster, cell, -1);
+    }
+
+    /**
+     * Breadth-first search from the cell that does not leave the cluster. Stops as soon as the
+     * target cell is reached, -1 searches the whole cluster.
+     */
+    private void computeClusterDistances(int cluster, int cell, int target) {
+        Arrays.fill(clusterDistances, -1);
+        int minX = cluster % clustersX * clusterSize;
+        int minY = cluster / clustersX * clusterSize;
+        int width = Math.min(clusterSize, grid.getWidth() - minX);
+        int height = Math.min(clusterSize, grid.getHeight() - minY);
+        int localTarget = target == -1 ? -1 : localIndex(cluster, target);
+        int head = 0;
+        int tail = 0;
+        clusterQueue[tail++] = localIndex(cluster, cell);
+        clusterDistances[clusterQueue[0]] = 0;
+        while (head < tail) {
+            int current = clusterQueue[head++];
+            if (current == localTarget) return;
+            int x = current % clusterSize;
+            int y = current / clusterSize;
+            int distance = clusterDistances[current] + 1;
+            if (y + 1 < height) tail = enqueue(current + clusterSize, minX, minY, distance, tail);
+            if (y > 0) tail = enqueue(current - clusterSize, minX, minY, distance, tail);
+            if (x > 0) tail = enqueue(current - 1, minX, minY, distance, tail);
+            if (x + 1 < width) tail = enqueue(current + 1, minX, minY, distance, tail);
+        }
+    }
+
+    private int enqueue(int local, int minX, int minY, int distance, int tail) {
+        if (clusterDistances[local] != -1) return tail;
+        int cell = grid.index(minX + local % clusterSize, minY + local / clusterSize);
+        if (!grid.isAccessible(cell)) return tail;
+        clusterDistances[local] = distance;
+        clusterQueue[tail] = local;
+        return tail + 1;
+    }
+
+    private int distanceInCluster(int cluster, int x, int y) {
+        if (!grid.isInBounds(x, y)) return -1;
+        int cell = grid.index(x, y);
+        if (clusterOf(cell) != cluster) return -1;
+        return clusterDistances[localIndex(cluster, cell)];
+    }
+
+    private int clusterOf(int cell) {
+        return grid.getY(cell) / clusterSize * clustersX + grid.getX(cell) / clusterSize;
+    }
+
+    private int localIndex(int cluster, int cell) {
+        int localX = grid.getX(cell) - cluster % clustersX * clusterSize;
+        int localY = grid.getY(cell) - cluster / clustersX * clusterSize;
+        return localY * clusterSize + localX;
+    }
+}
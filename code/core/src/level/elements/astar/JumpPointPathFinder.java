@@ -0,0 +1,189 @@
+package level.elements.astar;
+
+import com.badlogic.gdx.utils.IntArray;
+import level.elements.LevelGrid;
+
+/**
+ * Jump Point Search over the four neighbours of each cell of a level grid.
+ *
+ * <p>Every step between two accessible cells costs the same. Instead of putting every neighbour on
+ * the open list, the search runs in a straight line until it finds a cell where a different
+ * shortest path could branch off (a jump point). Only these jump points are expanded, which saves
+ * most of the work in open areas. The found path is filled up again, so it contains every cell
+ * between start and goal just like the path of {@link GridPathFinder}.
+ */
+public class JumpPointPathFinder extends AbstractGridPathFinder {
+    private static final byte EAST_JUMP = 1;
+    private static final byte WEST_JUMP = 1 << 1;
+
+    /** For each cell: does a horizontal run starting next to it find a jump point. */
+    private final byte[] horizontalJumps;
+    /** For each row: number of the last search that ran over a cell of the row. */
+    private final int[] scannedRows;
+
+    private int gridModificationCount = -1;
+    private int searchCount;
+
+    /**
+     * Creates a pathfinder for the given grid.
+     *
+     * @param grid The grid to search on.
+     */
+    public JumpPointPathFinder(LevelGrid grid) {
+        super(grid);
+        horizontalJumps = new byte[grid.size()];
+        scannedRows = new int[grid.getHeight()];
+    }
+
+    @Override
+    public void startSearch(int start, int goal, GridHeuristic heuristic) {
+        if (gridModificationCount != grid.getModificationCount()) {
+            for (int y = 0; y < grid.getHeight(); y++) computeHorizontalJumps(y);
+            gridModificationCount = grid.getModificationCount();
+        }
+        searchCount++;
+        scannedRows[grid.getY(start)] = searchCount;
+        super.startSearch(start, goal, heuristic);
+    }
+
+    /**
+     * Updates the jump points of the row of the cell and the rows above and below.
+     *
+     * @param index Index of the changed cell.
+     */
+    @Override
+    public void cellChanged(int index) {
+        super.cellChanged(index);
+        // if more changes happened than reported, the next search computes all rows
+        if (grid.getModificationCount() != gridModificationCount + 1) return;
+        gridModificationCount++;
+        int y = grid.getY(index);
+        for (int row = Math.max(0, y - 1); row <= Math.min(grid.getHeight() - 1, y + 1); row++)
+            computeHorizontalJumps(row);
+    }
+
+    /**
+     * The runs read the cells of their own row and the rows next to it, so a change matters only if
+     * the search already ran over one of these rows.
+     */
+    @Override
+    protected boolean affectsSearch(int index) {
+        int y = grid.getY(index);
+        for (int row = Math.max(0, y - 1); row <= Math.min(grid.getHeight() - 1, y + 1); row++)
+            if (scannedRows[row] == searchCount) return true;
+        return false;
+    }
+
+    @Override
+    public PathfindingMode getPathfindingMode() {
+        return PathfindingMode.JUMP_POINT_SEARCH;
+    }
+
+    @Override
+    protected void visitChildren(int current, int goal) {
+        int x = grid.getX(current);
+        int y = grid.getY(current);
+        int parent = getParent(current);
+        if (parent == -1) {
+            // the start cell has no direction yet, so all neighbours are searched
+            int neighbours = grid.getNeighbours(current);
+            if ((neighbours & LevelGrid.NORTH) != 0) jumpFrom(current, x, y, 0, 1, goal);
+            if ((neighbours & LevelGrid.SOUTH) != 0) jumpFrom(current, x, y, 0, -1, goal);
+            if ((neighbours & LevelGrid.WEST) != 0) jumpFrom(current, x, y, -1, 0, goal);
+            if ((neighbours & LevelGrid.EAST) != 0) jumpFrom(current, x, y, 1, 0, goal);
+            return;
+        }
+        int dx = Integer.signum(x - grid.getX(parent));
+        int dy = Integer.signum(y - grid.getY(parent));
+        if (dx != 0) {
+            jumpFrom(current, x, y, dx, 0, goal);
+            jumpFrom(current, x, y, 0, 1, goal);
+            jumpFrom(current, x, y, 0, -1, goal);
+        } else {
+            jumpFrom(current, x, y, 0, dy, goal);
+            jumpFrom(current, x, y, 1, 0, goal);
+            jumpFrom(current, x, y, -1, 0, goal);
+        }
+    }
+
+    private int distance(int from, int to) {
+        return Math.abs(grid.getX(to) - grid.getX(from))
+                + Math.abs(grid.getY(to) - grid.getY(from));
+    }
+
+    @Override
+    protected void addSegment(int node, IntArray outPath) {
+        int parent = getParent(node);
+        int step;
+        if (grid.getY(node) == grid.getY(parent)) step = parent > node ? 1 : -1;
+        else step = parent > node ? grid.getWidth() : -grid.getWidth();
+        for (int cell = node; cell != parent; cell += step) outPath.add(cell);
+    }
+
+    private void jumpFrom(int current, int x, int y, int dx, int dy, int goal) {
+        int jumpPoint = jump(x + dx, y + dy, dx, dy, goal);
+        if (jumpPoint != -1)
+            visit(current, jumpPoint, distance(current, jumpPoint) * STRAIGHT_COST, goal);
+    }
+
+    /**
+     * Runs in one direction until a jump point is found.
+     *
+     * @return Index of the jump point or -1 if the search ran into a wall.
+     */
+    private int jump(int x, int y, int dx, int dy, int goal) {
+        int goalY = grid.getY(goal);
+        while (isAccessible(x, y)) {
+            scannedRows[y] = searchCount;
+            int index = grid.index(x, y);
+            if (index == goal) return index;
+            if (dx != 0) {
+                if (isHorizontalJumpPoint(x, y, dx)) return index;
+            } else {
+                if (isAccessible(x + 1, y) && !isAccessible(x + 1, y - dy)) return index;
+                if (isAccessible(x - 1, y) && !isAccessible(x - 1, y - dy)) return index;
+                // vertical runs stop wherever a horizontal run would find something
+                if (horizontalJumps[index] != 0) return index;
+                if (y == goalY && canSeeGoal(x, grid.getX(goal), y)) return index;
+            }
+            x += dx;
+            y += dy;
+        }
+        return -1;
+    }
+
+    /** A cell above or below opens up, a shortest path might turn here. */
+    private boolean isHorizontalJumpPoint(int x, int y, int dx) {
+        return isAccessible(x, y + 1) && !isAccessible(x - dx, y + 1)
+                || isAccessible(x, y - 1) && !isAccessible(x - dx, y - 1);
+    }
+
+    private boolean canSeeGoal(int x, int goalX, int y) {
+        int step = goalX > x ? 1 : -1;
+        for (int cellX = x + step; cellX != goalX; cellX += step)
+            if (!isAccessible(cellX, y)) return false;
+        return true;
+    }
+
+    /**
+     * Runs over a row in both directions to find the cells where a horizontal run, started next to
+     * the cell, reaches a jump point before it hits a wall. The goal is not considered.
+     */
+    private void computeHorizontalJumps(int y) {
+        int width = grid.getWidth();
+        boolean found = false;
+        for (int x = width - 1; x >= 0; x--) {
+            horizontalJumps[grid.index(x, y)] = found ? EAST_JUMP : 0;
+            found = isAccessible(x, y) && (found || isHorizontalJumpPoint(x, y, 1));
+        }
+        found = false;
+        for (int x = 0; x < width; x++) {
+            if (found) horizontalJumps[grid.index(x, y)] |= WEST_JUMP;
+            found = isAccessible(x, y) && (found || isHorizontalJumpPoint(x, y, -1));
+        }
+    }
+
+    private boolean isAccessible(int x, int y) {
+        return grid.isInBounds(x, y) && grid.isAccessible(grid.index(x, y));
+    }
+}
@@ -0,0 +1,211 @@
+package level.elements.astar;
+
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Arrays;
+
+/**
+ * Bounded least-recently-used cache for paths between two tiles.
+ *
+ * <p>Paths are stored as grid indices and belong to a version of the level. As soon as a lookup
+ * comes with a different version, all stored paths are dropped, so a path is never returned after
+ * the level has changed.
+ *
+ * <p>All entries live in primitive arrays that are allocated once: the pair of start and end tile
+ * is a <code>long</code> key of an open-addressing hash table, and the paths are copied into
+ * buffers that are reused when an entry is replaced. Looking up and storing paths does not create
+ * garbage once the buffers have grown to the length of the paths.
+ */
+public class PathCache {
+    private static final int NONE = -1;
+
+    private final int capacity;
+    /** Slot of each bucket of the hash table, {@link #NONE} if the bucket is empty. */
+    private final int[] buckets;
+    private final int mask;
+    private final long[] keys;
+    private final int[][] paths;
+    private final int[] pathLengths;
+    /** The slots in order of use, from the least recently used (head) to the most recent (tail). */
+    private final int[] previous;
+    private final int[] next;
+    private int head = NONE;
+    private int tail = NONE;
+    private int size;
+    private int version;
+    private long hits;
+    private long misses;
+
+    /**
+     * Creates a new cache.
+     *
+     * @param capacity Maximum number of stored paths.
+     */
+    public PathCache(int capacity) {
+        assert (capacity > 0);
+        this.capacity = capacity;
+        // at most half of the buckets are used, so the probe sequences stay short
+        int bucketCount = Integer.highestOneBit(Math.max(capacity, 2) * 2 - 1) << 1;
+        buckets = new int[bucketCount];
+        Arrays.fill(buckets, NONE);
+        mask = bucketCount - 1;
+        keys = new long[capacity];
+        paths = new int[capacity][];
+        pathLengths = new int[capacity];
+        previous = new int[capacity];
+        next = new int[capacity];
+    }
+
+    /**
+     * Looks up a path.
+     *
+     * @param start Index of the start tile.
+     * @param end Index of the end tile.
+     * @param version Current version of the level.
+     * @param outPath Receives the indices of the tiles on the path. It is cleared first and stays
+     *     empty if there is no path or the path is not cached.
+     * @return true if the path (or the fact that there is none) is cached
+     */
+    public boolean get(int start, int end, int version, IntArray outPath) {
+        outPath.clear();
+        if (version != this.version) {
+            clear();
+            this.version = version;
+        }
+        int slot = find(key(start, end));
+        if (slot == NONE) {
+            misses++;
+            return false;
+        }
+        hits++;
+        moveToTail(slot);
+        outPath.addAll(paths[slot], 0, pathLengths[slot]);
+        return true;
+    }
+
+    /**
+     * Stores a path.
+     *
+     * @param start Index of the start tile.
+     * @param end Index of the end tile.
+     * @param version Version of the level the path was searched on.
+     * @param path The indices of the tiles on the path, empty if there is no path. They are copied.
+     */
+    public void put(int start, int end, int version, IntArray path) {
+        if (version != this.version) return;
+        long key = key(start, end);
+        int slot = find(key);
+        if (slot != NONE) {
+            moveToTail(slot);
+        } else if (size < capacity) {
+            slot = size++;
+            insert(key, slot);
+            append(slot);
+        } else {
+            // reuse the slot of the least recently used path
+            slot = head;
+            remove(keys[slot]);
+            insert(key, slot);
+            moveToTail(slot);
+        }
+        if (paths[slot] == null || paths[slot].length < path.size) paths[slot] = new int[path.size];
+        System.arraycopy(path.items, 0, paths[slot], 0, path.size);
+        pathLengths[slot] = path.size;
+    }
+
+    /** Removes all stored paths. The buffers of the paths are kept for reuse. */
+    public void clear() {
+        if (size == 0) return;
+        Arrays.fill(buckets, NONE);
+        size = 0;
+        head = NONE;
+        tail = NONE;
+    }
+
+    /**
+     * @return Maximum number of stored paths.
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return Number of stored paths.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Number of lookups that found a cached path.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * @return Number of lookups for paths that were not cached.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /** Sets the hit and miss counters to zero. */
+    public void resetStatistics() {
+        hits = 0;
+        misses = 0;
+    }
+
+    private static long key(int start, int end) {
+        return ((long) start << 32) | (end & 0xffffffffL);
+    }
+
+    private int bucketOf(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    private int find(long key) {
+        for (int bucket = bucketOf(key); buckets[bucket] != NONE; bucket = (bucket + 1) & mask)
+            if (keys[buckets[bucket]] == key) return buckets[bucket];
+        return NONE;
+    }
+
+    private void insert(long key, int slot) {
+        keys[slot] = key;
+        int bucket = bucketOf(key);
+        while (buckets[bucket] != NONE) bucket = (bucket + 1) & mask;
+        buckets[bucket] = slot;
+    }
+
+    /** Removes a key from the hash table and moves the following keys back into the gap. */
+    private void remove(long key) {
+        int bucket = bucketOf(key);
+        while (keys[buckets[bucket]] != key) bucket = (bucket + 1) & mask;
+        int gap = bucket;
+        for (bucket = (gap + 1) & mask; buckets[bucket] != NONE; bucket = (bucket + 1) & mask) {
+            int home = bucketOf(keys[buckets[bucket]]);
+            // a key may fill the gap if its home bucket is not between the gap and its bucket
+            if (((bucket - home) & mask) >= ((bucket - gap) & mask)) {
+                buckets[gap] = buckets[bucket];
+                gap = bucket;
+            }
+        }
+        buckets[gap] = NONE;
+    }
+
+    private void append(int slot) {
+        previous[slot] = tail;
+        next[slot] = NONE;
+        if (tail != NONE) next[tail] = slot;
+        else head = slot;
+        tail = slot;
+    }
+
+    private void moveToTail(int slot) {
+        if (slot == tail) return;
+        if (previous[slot] != NONE) next[previous[slot]] = next[slot];
+        else head = next[slot];
+        previous[next[slot]] = previous[slot];
+        append(slot);
+    }
+}
@@ -0,0 +1,43 @@
+package level.elements.astar;
+
+import level.elements.LevelGrid;
+
+/** The algorithms a level can use to search paths. */
+public enum PathfindingMode {
+    /**
+     * A* that expands every accessible neighbour of a tile, including the diagonal ones if the
+     * level allows diagonal movement.
+     */
+    A_STAR {
+        @Override
+        public AbstractGridPathFinder newPathFinder(LevelGrid grid) {
+            return new GridPathFinder(grid);
+        }
+    },
+    /** Jump Point Search, only expands the tiles where a shortest path can turn. */
+    JUMP_POINT_SEARCH {
+        @Override
+        public AbstractGridPathFinder newPathFinder(LevelGrid grid) {
+            return new JumpPointPathFinder(grid);
+        }
+    },
+    /**
+     * Hierarchical A* over clusters of tiles, finds nearly shortest paths on large levels much
+     * faster. The paths are approximate, only between tiles in the same or neighbouring clusters
+     * they are the shortest ones inside these clusters.
+     */
+    HIERARCHICAL {
+        @Override
+        public AbstractGridPathFinder newPathFinder(LevelGrid grid) {
+            return new HierarchicalPathFinder(grid);
+        }
+    };
+
+    /**
+     * Creates a pathfinder that uses this algorithm.
+     *
+     * @param grid The grid to search on.
+     * @return The new pathfinder.
+     */
+    public abstract AbstractGridPathFinder newPathFinder(LevelGrid grid);
+}
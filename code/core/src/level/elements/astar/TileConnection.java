@@ -1,7 +1,6 @@
 package level.elements.astar;
 
 import com.badlogic.gdx.ai.pfa.Connection;
-import com.badlogic.gdx.math.Vector2;
 import level.elements.Tile;
 
 /**
@@ -15,15 +14,33 @@ public class TileConnection implements Connection<Tile> {
     private final Tile to;
     private final float cost;
 
+    /**
+     * Creates a connection, the cost is the distance between the tiles.
+     *
+     * @param from Start tile
+     * @param to End tile
+     */
     public TileConnection(Tile from, Tile to) {
+        this(from, to, distance(from, to));
+    }
+
+    /**
+     * Creates a connection with a known cost.
+     *
+     * @param from Start tile
+     * @param to End tile
+     * @param cost Cost to go from start to end.
+     */
+    public TileConnection(Tile from, Tile to, float cost) {
         this.from = from;
         this.to = to;
-        this.cost =
-                Vector2.dst(
-                        from.getCoordinate().x,
-                        from.getCoordinate().y,
-                        to.getCoordinate().x,
-                        to.getCoordinate().y);
+        this.cost = cost;
+    }
+
+    private static float distance(Tile from, Tile to) {
+        int dx = to.getCoordinate().x - from.getCoordinate().x;
+        int dy = to.getCoordinate().y - from.getCoordinate().y;
+        return (float) Math.sqrt(dx * dx + dy * dy);
     }
 
     @Override
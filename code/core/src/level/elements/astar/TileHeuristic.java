@@ -1,27 +1,60 @@
 package level.elements.astar;
 
 import com.badlogic.gdx.ai.pfa.Heuristic;
-import com.badlogic.gdx.math.Vector2;
+import level.elements.LevelGrid;
 import level.elements.Tile;
+import level.tools.DiagonalMovement;
 
 /**
+ * Estimates the number of steps between two tiles with a {@link GridHeuristic}.
+ *
+ * <p>By default the estimate follows the rule of {@link
+ * AbstractGridPathFinder#getDefaultHeuristic()}: {@link GridHeuristic#OCTILE} if the level of the
+ * tiles allows diagonal steps, {@link GridHeuristic#MANHATTAN} if not. Then the heuristic never
+ * overestimates, see {@link GridHeuristic}.
+ *
  * @author Marti Stuwe
  */
 public class TileHeuristic implements Heuristic<Tile> {
+    private final GridHeuristic heuristic;
+
+    /**
+     * Creates a heuristic that follows the diagonal movement of the level of the tiles, also after
+     * it was changed.
+     */
+    public TileHeuristic() {
+        this(null);
+    }
+
+    /**
+     * Creates a heuristic that uses the given grid heuristic.
+     *
+     * @param heuristic The grid heuristic, <code>null</code> to choose it by the diagonal movement
+     *     of the level.
+     */
+    public TileHeuristic(GridHeuristic heuristic) {
+        this.heuristic = heuristic;
+    }
 
     /**
      * Heuristic used by the pathfinding algorithm
      *
      * @param start From
      * @param goal To
-     * @return Distance between from and to tile
+     * @return Distance between from and to tile, in steps
      */
     @Override
     public float estimate(Tile start, Tile goal) {
-        return Vector2.dst2(
-                start.getCoordinate().x,
-                start.getCoordinate().y,
-                goal.getCoordinate().x,
-                goal.getCoordinate().y);
+        int dx = Math.abs(goal.getCoordinate().x - start.getCoordinate().x);
+        int dy = Math.abs(goal.getCoordinate().y - start.getCoordinate().y);
+        return getHeuristic(start).estimate(dx, dy) / (float) AbstractGridPathFinder.STRAIGHT_COST;
+    }
+
+    private GridHeuristic getHeuristic(Tile tile) {
+        if (heuristic != null) return heuristic;
+        LevelGrid grid = tile.getGrid();
+        return grid != null && grid.getDiagonalMovement() != DiagonalMovement.NONE
+                ? GridHeuristic.OCTILE
+                : GridHeuristic.MANHATTAN;
     }
 }
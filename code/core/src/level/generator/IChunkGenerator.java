@@ -0,0 +1,25 @@
+package level.generator;
+
+import level.tools.LevelElement;
+
+/**
+ * Generates an endless level piece by piece, see {@link level.elements.StreamingWorld}.
+ *
+ * <p>Unlike {@link IGenerator} the generator does not create the whole level at once: it fills
+ * single square chunks when they are needed. The content of a chunk must only depend on the seed
+ * and the coordinates of the chunk, so a chunk that was dropped looks the same when it is generated
+ * again, and neighbouring chunks fit together.
+ */
+public interface IChunkGenerator {
+    /**
+     * Generates one chunk.
+     *
+     * @param seed The seed of the world.
+     * @param chunkX Column of the chunk, the chunk starts at x = chunkX * chunkSize.
+     * @param chunkY Row of the chunk, the chunk starts at y = chunkY * chunkSize.
+     * @param chunkSize Width and height of the chunk in tiles.
+     * @param outCells Receives the types of the chunkSize * chunkSize cells, row by row starting at
+     *     the bottom left cell.
+     */
+    void generateChunk(long seed, int chunkX, int chunkY, int chunkSize, LevelElement[] outCells);
+}
@@ -4,14 +4,14 @@ import java.util.Random;
 import java.util.logging.Logger;
 import level.elements.Level;
 import level.elements.Tile;
+import level.generator.IChunkGenerator;
 import level.generator.IGenerator;
-import level.tools.Coordinate;
 import level.tools.DesignLabel;
 import level.tools.LevelElement;
 import level.tools.LevelSize;
 import level.tools.TileTextureFactory;
 
-public class PerlinNoiseGenerator implements IGenerator {
+public class PerlinNoiseGenerator implements IGenerator, IChunkGenerator {
     private static final Logger LOG = Logger.getLogger(PerlinNoiseGenerator.class.getName());
     private static final int SMALL_MIN_X_SIZE = 10;
     private static final int SMALL_MIN_Y_SIZE = 10;
@@ -25,6 +25,10 @@ public class PerlinNoiseGenerator implements IGenerator {
     private static final int BIG_MIN_Y_SIZE = 100;
     private static final int BIG_MAX_X_SIZE = 300;
     private static final int BIG_MAX_Y_SIZE = 300;
+    private static final double FLOOR_MIN_NOISE = 0.4;
+    private static final double FLOOR_MAX_NOISE = 0.6;
+    /** Distance between the random values of the octaves of endless levels, see {@link #noise}. */
+    private static final int[] CHUNK_OCTAVE_PITCHES = {32, 16};
 
     @Override
     public Level getLevel(DesignLabel designLabel, LevelSize size) {
@@ -60,7 +64,7 @@ public class PerlinNoiseGenerator implements IGenerator {
         // playing field
         final NoiseArea playingArea = generateNoiseArea(size, random);
         LevelElement[][] elements = toLevelElementArray(playingArea);
-        Level generatedLevel = new Level(toTilesArray(elements, designLabel));
+        Level generatedLevel = new Level(elements, designLabel);
 
         // end tile
         final Tile end = generatedLevel.getEndTile();
@@ -97,7 +101,8 @@ public class PerlinNoiseGenerator implements IGenerator {
                         false,
                         randomGenerator);
         final double[][] noise = pNoise.noiseAll(1);
-        final NoiseArea[] areas = NoiseArea.getAreas(0.4, 0.6, noise, false);
+        final NoiseArea[] areas =
+                NoiseArea.getAreas(FLOOR_MIN_NOISE, FLOOR_MAX_NOISE, noise, false);
         NoiseArea area = areas[0];
         for (final NoiseArea f : areas) {
             if (area.getSize() < f.getSize()) {
@@ -107,6 +112,71 @@ public class PerlinNoiseGenerator implements IGenerator {
         return area;
     }
 
+    /**
+     * Generates a chunk of an endless level. Like in the levels of {@link #getLevel(DesignLabel,
+     * LevelSize, Random)} the floor is where the noise is between 0.4 and 0.6, but there is no
+     * search for the largest area, so not every floor tile can be reached from every other.
+     */
+    @Override
+    public void generateChunk(
+            long seed, int chunkX, int chunkY, int chunkSize, LevelElement[] outCells) {
+        for (int y = 0; y < chunkSize; y++)
+            for (int x = 0; x < chunkSize; x++) {
+                double noise = noise(seed, chunkX * chunkSize + x, chunkY * chunkSize + y);
+                outCells[x + y * chunkSize] =
+                        noise >= FLOOR_MIN_NOISE && noise <= FLOOR_MAX_NOISE
+                                ? LevelElement.FLOOR
+                                : LevelElement.VOID;
+            }
+    }
+
+    /**
+     * Noise of an endless level at one point. It blends random values on a grid like {@link
+     * PerlinNoise#noise(int, int)}, but the random values are hashed from the seed and their
+     * position instead of being read from a table. That way the noise needs no memory, is defined
+     * for all coordinates (also negative ones) and does not repeat.
+     */
+    private static double noise(long seed, int x, int y) {
+        double noise = 0;
+        double scaleSum = 0;
+        double scale = 1;
+        for (int octave = 0; octave < CHUNK_OCTAVE_PITCHES.length; octave++) {
+            int pitch = CHUNK_OCTAVE_PITCHES[octave];
+            int sampleX = Math.floorDiv(x, pitch);
+            int sampleY = Math.floorDiv(y, pitch);
+            double blendX = (double) (x - sampleX * pitch) / pitch;
+            double blendY = (double) (y - sampleY * pitch) / pitch;
+            long octaveSeed = seed + octave;
+            double bottom =
+                    interpolate(
+                            randomValue(octaveSeed, sampleX, sampleY),
+                            randomValue(octaveSeed, sampleX + 1, sampleY),
+                            blendX);
+            double top =
+                    interpolate(
+                            randomValue(octaveSeed, sampleX, sampleY + 1),
+                            randomValue(octaveSeed, sampleX + 1, sampleY + 1),
+                            blendX);
+            noise += interpolate(bottom, top, blendY) * scale;
+            scaleSum += scale;
+            scale /= 2;
+        }
+        return noise / scaleSum;
+    }
+
+    private static double interpolate(double sample1, double sample2, double blend) {
+        return blend * (sample2 - sample1) + sample1;
+    }
+
+    /** A random value in [0, 1) that only depends on the seed and the position (SplitMix64). */
+    private static double randomValue(long seed, int x, int y) {
+        long z = seed * 0x9E3779B97F4A7C15L + (((long) x << 32) ^ (y & 0xFFFFFFFFL));
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z ^= z >>> 31;
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
     private static LevelElement[][] toLevelElementArray(NoiseArea playingArea) {
         LevelElement[][] res = new LevelElement[playingArea.getWidth()][playingArea.getHeight()];
         for (int i = 0; i < playingArea.getWidth(); i++) {
@@ -121,20 +191,6 @@ public class PerlinNoiseGenerator implements IGenerator {
         return res;
     }
 
-    private static Tile[][] toTilesArray(
-            final LevelElement[][] levelElements, final DesignLabel design) {
-        final Tile[][] res = new Tile[levelElements.length][levelElements[0].length];
-        for (int y = 0; y < res.length; y++) {
-            for (int x = 0; x < res[0].length; x++) {
-                String texturePath =
-                        TileTextureFactory.findTexturePath(
-                                levelElements[y][x], design, levelElements, new Coordinate(x, y));
-                res[y][x] = new Tile(texturePath, new Coordinate(x, y), levelElements[y][x]);
-            }
-        }
-        return res;
-    }
-
     private static int getWidthFromLevelSize(LevelSize size, Random random) {
         switch (size) {
             case LARGE:
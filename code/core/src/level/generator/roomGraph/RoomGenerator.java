@@ -555,6 +555,6 @@ public class RoomGenerator implements IGenerator {
      * @return Can you reach the End-Tile from the Start-Tile?
      */
     private boolean checkIfCompletable(Level level) {
-        return level.findPath(level.getStartTile(), level.getEndTile()).getCount() != 0;
+        return level.isReachable(level.getStartTile(), level.getEndTile());
     }
 }
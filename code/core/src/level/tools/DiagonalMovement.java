@@ -0,0 +1,36 @@
+package level.tools;
+
+/**
+ * Specifies if characters can move diagonally between tiles and whether they may cut the corner of
+ * a wall on the way.
+ */
+public enum DiagonalMovement {
+    /** Only the four direct neighbours are connected. */
+    NONE,
+    /** Diagonal steps are allowed if both tiles next to the step are accessible. */
+    NO_CORNER_CUTTING,
+    /** Diagonal steps are allowed if at least one tile next to the step is accessible. */
+    ONE_FREE_SIDE,
+    /** Diagonal steps are always allowed, even between two walls. */
+    ALWAYS;
+
+    /**
+     * Checks if a diagonal step is allowed.
+     *
+     * @param first true if the first tile next to the step is accessible
+     * @param second true if the second tile next to the step is accessible
+     * @return true if the step is allowed
+     */
+    public boolean allows(boolean first, boolean second) {
+        switch (this) {
+            case NO_CORNER_CUTTING:
+                return first && second;
+            case ONE_FREE_SIDE:
+                return first || second;
+            case ALWAYS:
+                return true;
+            default:
+                return false;
+        }
+    }
+}
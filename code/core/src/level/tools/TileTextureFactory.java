@@ -1,5 +1,6 @@
 package level.tools;
 
+import level.elements.LevelGrid;
 import level.elements.Tile;
 
 public class TileTextureFactory {
@@ -87,6 +88,36 @@ public class TileTextureFactory {
         return findTexturePath(elementType, label, elementLayout, element.getCoordinate());
     }
 
+    /**
+     * Checks which texture must be used for the passed cell based on the surrounding cells.
+     *
+     * @param grid The level
+     * @param index Index of the cell to check for
+     * @param elementType The type of the cell if different than the stored one
+     * @param label Design of the element
+     * @return Path to texture
+     */
+    public static String findTexturePath(
+            LevelGrid grid, int index, LevelElement elementType, DesignLabel label) {
+        // only the direct neighbours decide the texture, so a window of at most 3x3 cells is
+        // enough; it ends at the border of the grid just like the whole layout would
+        int x = grid.getX(index);
+        int y = grid.getY(index);
+        int minX = Math.max(0, x - 1);
+        int minY = Math.max(0, y - 1);
+        int maxX = Math.min(grid.getWidth() - 1, x + 1);
+        int maxY = Math.min(grid.getHeight() - 1, y + 1);
+        LevelElement[][] window = new LevelElement[maxY - minY + 1][maxX - minX + 1];
+        for (int windowY = 0; windowY < window.length; windowY++)
+            for (int windowX = 0; windowX < window[0].length; windowX++) {
+                window[windowY][windowX] =
+                        grid.getLevelElement(grid.index(minX + windowX, minY + windowY));
+            }
+        Coordinate position = new Coordinate(x - minX, y - minY);
+        window[position.y][position.x] = elementType;
+        return findTexturePath(elementType, label, window, position);
+    }
+
     private static boolean isInSpace(Coordinate p, LevelElement[][] layout) {
         return (belowIsSkip(p, layout)
                         && aboveIsSkip(p, layout)
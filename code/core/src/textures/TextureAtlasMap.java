@@ -0,0 +1,159 @@
+package textures;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Many textures packed into a few large textures (pages), so drawing them one after another does
+ * not switch textures and the batch is not flushed in between.
+ *
+ * <p>Every packed texture gets an integer handle. Drawing by handle is a plain array access, {@link
+ * #getHandle(String)} translates a texture path once.
+ *
+ * <p>Textures are known by their path relative to the asset directory (for example <code>
+ * textures/dungeon/default/floor_1.png</code>), no matter if they are packed or looked up with that
+ * path or with the path {@link TextureHandler} lists for them.
+ */
+public class TextureAtlasMap implements Disposable {
+    /** Handle of textures that are not in the atlas. */
+    public static final int NO_REGION = -1;
+    /** Width and height of a page if nothing else is set. */
+    public static final int DEFAULT_PAGE_SIZE = 2048;
+
+    /** Free pixels between the textures, filled with their borders to avoid bleeding. */
+    private static final int PADDING = 2;
+
+    private final TextureAtlas atlas;
+    private final String root;
+    private final Array<TextureRegion> regions = new Array<>();
+    private final ObjectIntMap<String> handles = new ObjectIntMap<>();
+
+    private TextureAtlasMap(TextureAtlas atlas, String root) {
+        this.atlas = atlas;
+        this.root = normalize(root);
+    }
+
+    /**
+     * Packs the PNG files of the given paths into pages of the default size.
+     *
+     * @param texturePaths Paths of the textures, for example {@link
+     *     TextureHandler#getAvailablePaths()}; paths that are not PNG files are skipped.
+     * @return The atlas.
+     */
+    public static TextureAtlasMap pack(Iterable<String> texturePaths) {
+        return pack(texturePaths, DEFAULT_PAGE_SIZE);
+    }
+
+    /**
+     * Packs the PNG files of the given paths. Must be called on the render thread, because the
+     * pages are uploaded to the graphics card. Textures that are larger than a page are skipped and
+     * keep being drawn as separate textures.
+     *
+     * @param texturePaths Paths of the textures; paths that are not PNG files are skipped.
+     * @param pageSize Width and height of a page in pixels.
+     * @return The atlas.
+     */
+    public static TextureAtlasMap pack(Iterable<String> texturePaths, int pageSize) {
+        return pack(texturePaths, Gdx.files.getLocalStoragePath(), pageSize);
+    }
+
+    /**
+     * Packs the PNG files of the given paths, see {@link #pack(Iterable, int)}.
+     *
+     * @param texturePaths Paths of the textures; paths that are not PNG files are skipped.
+     * @param root The asset directory. Paths that start with it are stored relative to it.
+     * @param pageSize Width and height of a page in pixels.
+     * @return The atlas.
+     */
+    static TextureAtlasMap pack(Iterable<String> texturePaths, String root, int pageSize) {
+        String normalizedRoot = normalize(root);
+        Array<String> packed = new Array<>();
+        PixmapPacker packer =
+                new PixmapPacker(pageSize, pageSize, Pixmap.Format.RGBA8888, PADDING, true);
+        try {
+            for (String path : texturePaths) {
+                String key = relativize(normalize(path), normalizedRoot);
+                if (!key.endsWith(".png") || packer.getRect(key) != null) continue;
+                Pixmap pixmap = new Pixmap(Gdx.files.internal(path));
+                if (pixmap.getWidth() + 2 * PADDING <= pageSize
+                        && pixmap.getHeight() + 2 * PADDING <= pageSize) {
+                    packer.pack(key, pixmap);
+                    packed.add(key);
+                }
+                pixmap.dispose();
+            }
+            TextureAtlasMap map =
+                    new TextureAtlasMap(
+                            packer.generateTextureAtlas(
+                                    Texture.TextureFilter.Nearest,
+                                    Texture.TextureFilter.Nearest,
+                                    false),
+                            normalizedRoot);
+            for (String key : packed) map.add(key, map.atlas.findRegion(key));
+            return map;
+        } finally {
+            packer.dispose();
+        }
+    }
+
+    private void add(String path, TextureRegion region) {
+        handles.put(path, regions.size);
+        regions.add(region);
+    }
+
+    /**
+     * @param texturePath Path of a texture.
+     * @return The handle of the texture, {@link #NO_REGION} if it is not in the atlas.
+     */
+    public int getHandle(String texturePath) {
+        return handles.get(relativize(normalize(texturePath), root), NO_REGION);
+    }
+
+    /**
+     * @param handle Handle of a texture, see {@link #getHandle(String)}.
+     * @return The part of a page that holds the texture.
+     */
+    public TextureRegion getRegion(int handle) {
+        return regions.get(handle);
+    }
+
+    /**
+     * @return Number of packed textures.
+     */
+    public int size() {
+        return regions.size;
+    }
+
+    /**
+     * @return Number of pages, each page is one texture on the graphics card.
+     */
+    public int getPageCount() {
+        return atlas.getTextures().size;
+    }
+
+    @Override
+    public void dispose() {
+        atlas.dispose();
+    }
+
+    private static String normalize(String path) {
+        return path.replace('\\', '/');
+    }
+
+    /** Removes the asset directory and a leading <code>./</code> from a normalized path. */
+    private static String relativize(String path, String root) {
+        if (!root.isEmpty() && path.startsWith(root)) {
+            path = path.substring(root.length());
+            if (path.startsWith("/")) path = path.substring(1);
+        }
+        if (path.startsWith("./")) path = path.substring(2);
+        return path;
+    }
+}
@@ -0,0 +1,61 @@
+package textures;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * Gives every texture path a small integer id, the same id for the same path everywhere.
+ *
+ * <p>Tiles, animations and the painter keep these ids instead of the paths. The painter looks up
+ * the texture of an id in an array, so drawing does not hash strings, and every path is kept only
+ * once no matter how many tiles use it. Ids are dense: they start at 0 and are never reused.
+ *
+ * <p>Singleton (thread-safe).
+ */
+public class TextureRegistry {
+    /** Id of <code>null</code>, for example of tiles without a texture. */
+    public static final int NO_TEXTURE = -1;
+
+    private static final TextureRegistry REGISTRY = new TextureRegistry();
+
+    private final Array<String> paths = new Array<>();
+    private final ObjectIntMap<String> ids = new ObjectIntMap<>();
+
+    private TextureRegistry() {}
+
+    public static TextureRegistry getInstance() {
+        return REGISTRY;
+    }
+
+    /**
+     * Returns the id of a texture path, a new id if the path has not been seen before.
+     *
+     * @param texturePath Path of a texture.
+     * @return The id of the path, {@link #NO_TEXTURE} if the path is <code>null</code>.
+     */
+    public synchronized int getId(String texturePath) {
+        if (texturePath == null) return NO_TEXTURE;
+        int id = ids.get(texturePath, NO_TEXTURE);
+        if (id == NO_TEXTURE) {
+            id = paths.size;
+            paths.add(texturePath);
+            ids.put(texturePath, id);
+        }
+        return id;
+    }
+
+    /**
+     * @param textureId Id of a texture, see {@link #getId(String)}.
+     * @return The path of the texture, <code>null</code> for {@link #NO_TEXTURE}.
+     */
+    public synchronized String getPath(int textureId) {
+        return textureId == NO_TEXTURE ? null : paths.get(textureId);
+    }
+
+    /**
+     * @return Number of ids given out so far; all ids are smaller.
+     */
+    public synchronized int size() {
+        return paths.size;
+    }
+}
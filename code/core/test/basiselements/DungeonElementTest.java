@@ -0,0 +1,45 @@
+package basiselements;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+import textures.TextureRegistry;
+import tools.Point;
+
+public class DungeonElementTest {
+    private String texturePath;
+    private DungeonElement element;
+
+    @Before
+    public void setUp() {
+        texturePath = "character/knight.png";
+        element =
+                new DungeonElement(null) {
+                    @Override
+                    public Point getPosition() {
+                        return new Point(0, 0);
+                    }
+
+                    @Override
+                    public String getTexturePath() {
+                        return texturePath;
+                    }
+                };
+    }
+
+    @Test
+    public void test_getTextureId() {
+        int id = element.getTextureId();
+        assertEquals(TextureRegistry.getInstance().getId(texturePath), id);
+        assertEquals(id, element.getTextureId());
+        // an equal path built at runtime has the same id
+        texturePath = new String("character/knight.png");
+        assertEquals(id, element.getTextureId());
+
+        texturePath = "character/wizard.png";
+        assertEquals(TextureRegistry.getInstance().getId(texturePath), element.getTextureId());
+        texturePath = null;
+        assertEquals(TextureRegistry.NO_TEXTURE, element.getTextureId());
+    }
+}
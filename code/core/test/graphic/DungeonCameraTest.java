@@ -1,14 +1,18 @@
 package graphic;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyFloat;
 
 import basiselements.Entity;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.math.Frustum;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector3;
+import java.util.BitSet;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -124,20 +128,58 @@ public class DungeonCameraTest {
 
     @Test
     public void test_isPointInFrustum() {
-        cam.isPointInFrustum(2, 2);
-        Mockito.verify(cam).isPointInFrustum(2, 2);
-        Mockito.verify(frustum).boundsInFrustum(any());
-        Mockito.verifyNoMoreInteractions(cam, pos, frustum, entity);
+        cam.viewportWidth = 10;
+        cam.viewportHeight = 10;
+        cam.zoom = 1;
+        cam.update();
+        assertTrue(cam.isPointInFrustum(2, 2));
+        // one tile beyond the screen still counts
+        assertTrue(cam.isPointInFrustum(5.5f, -5.5f));
+        assertFalse(cam.isPointInFrustum(6.5f, 0));
+        assertFalse(cam.isPointInFrustum(0, -6.5f));
+        Mockito.verifyNoInteractions(frustum);
     }
 
     @Test
     public void test_isPointInFrustum_noFollow() {
         cam_noFollow.isPointInFrustum(2, 2);
         Mockito.verify(cam_noFollow).isPointInFrustum(2, 2);
-        Mockito.verify(frustum_noFollow).boundsInFrustum(any());
         Mockito.verifyNoMoreInteractions(cam_noFollow, pos_noFollow, frustum_noFollow);
     }
 
+    @Test
+    public void test_cullPoints() {
+        cam.viewportWidth = 10;
+        cam.viewportHeight = 10;
+        cam.zoom = 2;
+        cam.update();
+        float[] positions = {0, 0, 10.5f, 0, 11.5f, 0, -3, -9, 100, 100};
+        BitSet visible = new BitSet();
+        visible.set(4);
+        cam.cullPoints(positions, 4, visible);
+        assertEquals(3, visible.cardinality());
+        assertTrue(visible.get(0));
+        assertTrue(visible.get(1));
+        assertFalse(visible.get(2));
+        assertTrue(visible.get(3));
+        for (int i = 0; i < 4; i++)
+            assertEquals(
+                    cam.isPointInFrustum(positions[2 * i], positions[2 * i + 1]), visible.get(i));
+        Mockito.verifyNoInteractions(frustum);
+    }
+
+    @Test
+    public void test_getVisibleArea() {
+        Whitebox.setInternalState(cam_noFollow, "position", new Vector3());
+        cam_noFollow.setFocusPoint(new Point(10, 20));
+        cam_noFollow.viewportWidth = 8;
+        cam_noFollow.viewportHeight = 6;
+        cam_noFollow.zoom = 0.5f;
+        cam_noFollow.update();
+        Rectangle area = cam_noFollow.getVisibleArea(new Rectangle());
+        assertEquals(new Rectangle(10 - 2 - 1, 20 - 1.5f - 1, 4 + 2, 3 + 2), area);
+    }
+
     @Test
     public void test_getFrustum() {
         Mockito.verifyNoMoreInteractions(cam, pos, frustum, entity);
@@ -0,0 +1,127 @@
+package graphic;
+
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import com.badlogic.gdx.graphics.g2d.SpriteCache;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import level.elements.Level;
+import level.tools.Coordinate;
+import level.tools.DesignLabel;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+import textures.TextureAtlasMap;
+import tools.Point;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({LevelRenderCache.class})
+public class LevelRenderCacheTest {
+    LevelRenderCache renderCache;
+    SpriteCache spriteCache;
+    TextureRegion region;
+    DungeonCamera cam;
+    Level level;
+
+    @Before
+    public void setUp() throws Exception {
+        // 4x4 floor without the top right tile, in chunks of 2x2
+        LevelElement[][] layout = new LevelElement[4][4];
+        for (int y = 0; y < 4; y++)
+            for (int x = 0; x < 4; x++)
+                layout[y][x] = x == 3 && y == 3 ? LevelElement.VOID : LevelElement.FLOOR;
+        level = new Level(layout, DesignLabel.DEFAULT);
+        level.setChunkSize(2);
+
+        spriteCache = Mockito.mock(SpriteCache.class);
+        Mockito.when(spriteCache.endCache()).thenReturn(0, 1, 2, 3);
+        PowerMockito.whenNew(SpriteCache.class).withArguments(15, false).thenReturn(spriteCache);
+
+        region = Mockito.mock(TextureRegion.class);
+        Mockito.when(region.getRegionWidth()).thenReturn(16);
+        Mockito.when(region.getRegionHeight()).thenReturn(16);
+        TextureAtlasMap atlas = Mockito.mock(TextureAtlasMap.class);
+        Mockito.when(atlas.getHandle(anyString())).thenReturn(0);
+        Mockito.when(atlas.getRegion(0)).thenReturn(region);
+
+        cam = Mockito.mock(DungeonCamera.class);
+        Mockito.when(cam.isRectangleInFrustum(anyFloat(), anyFloat(), anyFloat(), anyFloat()))
+                .thenReturn(true);
+        Painter painter = new Painter(cam);
+        painter.setTextureAtlas(atlas);
+        renderCache = new LevelRenderCache(painter);
+    }
+
+    @Test
+    public void test_draw() {
+        // the top right chunk is out of sight
+        Mockito.when(
+                        cam.isRectangleInFrustum(
+                                Mockito.eq(1f), Mockito.eq(1f), anyFloat(), anyFloat()))
+                .thenReturn(false);
+        renderCache.setLevel(level);
+        Mockito.verify(spriteCache, Mockito.times(4)).beginCache();
+        Mockito.verify(spriteCache, Mockito.times(15))
+                .add(Mockito.same(region), anyFloat(), anyFloat(), Mockito.eq(1f), Mockito.eq(1f));
+
+        renderCache.draw();
+        renderCache.draw();
+        Mockito.verify(spriteCache, Mockito.times(2)).begin();
+        Mockito.verify(spriteCache, Mockito.times(2)).draw(0);
+        Mockito.verify(spriteCache, Mockito.times(2)).draw(1);
+        Mockito.verify(spriteCache, Mockito.times(2)).draw(2);
+        Mockito.verify(spriteCache, Mockito.never()).draw(3);
+        Mockito.verify(spriteCache, Mockito.times(2)).end();
+
+        // only the chunk of the changed tile is built again
+        level.changeTileElementType(level.getTileAt(new Coordinate(0, 0)), LevelElement.WALL);
+        renderCache.draw();
+        Mockito.verify(spriteCache).beginCache(0);
+        Mockito.verify(spriteCache, Mockito.times(4)).beginCache();
+        Mockito.verify(spriteCache, Mockito.times(15 + 4))
+                .add(Mockito.same(region), anyFloat(), anyFloat(), Mockito.eq(1f), Mockito.eq(1f));
+    }
+
+    @Test
+    public void test_draw_fieldOfView() {
+        level.computeFieldOfView(new Point(0.5f, 0.5f), 1);
+        int explored = level.getFieldOfView().countExplored();
+        renderCache.setLevel(level);
+        // only the bottom left chunk has explored tiles, its other tiles are reserved
+        Mockito.verify(spriteCache).beginCache();
+        Mockito.verify(spriteCache, Mockito.times(explored))
+                .add(Mockito.same(region), anyFloat(), anyFloat(), Mockito.eq(1f), Mockito.eq(1f));
+        Mockito.verify(spriteCache, Mockito.times(4 - explored))
+                .add(Mockito.same(region), anyFloat(), anyFloat(), Mockito.eq(0f), Mockito.eq(0f));
+
+        renderCache.draw();
+        Mockito.verify(spriteCache).draw(0);
+        Mockito.verify(spriteCache, Mockito.never()).draw(1);
+
+        // walking into the next chunk explores it
+        level.updateFieldOfView(new Point(2.5f, 0.5f));
+        renderCache.draw();
+        Mockito.verify(spriteCache, Mockito.times(2)).beginCache();
+        Mockito.verify(spriteCache).draw(1);
+    }
+
+    @Test
+    public void test_draw_fieldOfView_severalUpdatesPerFrame() {
+        level.computeFieldOfView(new Point(0.5f, 0.5f), 1);
+        renderCache.setLevel(level);
+        renderCache.draw();
+
+        // the first step explores the bottom right chunk, the second the top left one
+        level.updateFieldOfView(new Point(2.5f, 0.5f));
+        level.updateFieldOfView(new Point(0.5f, 2.5f));
+        renderCache.draw();
+        Mockito.verify(spriteCache, Mockito.times(3)).beginCache();
+        Mockito.verify(spriteCache).draw(1);
+        Mockito.verify(spriteCache).draw(2);
+    }
+}
@@ -3,8 +3,8 @@ package graphic;
 import static org.mockito.ArgumentMatchers.anyFloat;
 
 import com.badlogic.gdx.graphics.Texture;
-import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Frustum;
 import org.junit.Before;
 import org.junit.Test;
@@ -13,7 +13,9 @@ import org.mockito.Mockito;
 import org.powermock.api.mockito.PowerMockito;
 import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
+import textures.TextureAtlasMap;
 import textures.TextureMap;
+import textures.TextureRegistry;
 import tools.Point;
 
 @RunWith(PowerMockRunner.class)
@@ -35,9 +37,6 @@ public class PainterTest {
 
     @Test
     public void test_draw_1() throws Exception {
-        PowerMockito.whenNew(Sprite.class)
-                .withAnyArguments()
-                .thenReturn(Mockito.mock(Sprite.class));
         PowerMockito.whenNew(Texture.class)
                 .withAnyArguments()
                 .thenReturn(Mockito.mock(Texture.class));
@@ -46,16 +45,21 @@ public class PainterTest {
         painter.draw(10, 11, 1.1f, 1.2f, "texture", p, batch);
         Mockito.verify(cam).isPointInFrustum(p.x, p.y);
         Mockito.verify(painter).draw(10, 11, 1.1f, 1.2f, "texture", p, batch);
+        Mockito.verify(batch).isDrawing();
         Mockito.verify(batch).begin();
+        Mockito.verify(batch)
+                .draw(
+                        Mockito.any(Texture.class),
+                        Mockito.eq(12 + 10f),
+                        Mockito.eq(13 + 11f),
+                        Mockito.eq(1.1f),
+                        Mockito.eq(1.2f));
         Mockito.verify(batch).end();
         Mockito.verifyNoMoreInteractions(painter, batch, cam);
     }
 
     @Test
     public void test_draw_2() throws Exception {
-        PowerMockito.whenNew(Sprite.class)
-                .withAnyArguments()
-                .thenReturn(Mockito.mock(Sprite.class));
         Texture t = Mockito.mock(Texture.class);
         PowerMockito.whenNew(Texture.class).withAnyArguments().thenReturn(t);
         Mockito.when(t.getWidth()).thenReturn(100);
@@ -74,16 +78,21 @@ public class PainterTest {
                         "texture",
                         p,
                         batch);
+        Mockito.verify(batch).isDrawing();
         Mockito.verify(batch).begin();
+        Mockito.verify(batch)
+                .draw(
+                        Mockito.any(Texture.class),
+                        Mockito.eq(12 - 0.85f),
+                        Mockito.eq(13 - 0.5f),
+                        Mockito.eq(1f),
+                        Mockito.eq(85f / 100f));
         Mockito.verify(batch).end();
         Mockito.verifyNoMoreInteractions(painter, batch, cam);
     }
 
     @Test
     public void test_draw_3() throws Exception {
-        PowerMockito.whenNew(Sprite.class)
-                .withAnyArguments()
-                .thenReturn(Mockito.mock(Sprite.class));
         Texture t = Mockito.mock(Texture.class);
         PowerMockito.whenNew(Texture.class).withAnyArguments().thenReturn(t);
         Mockito.when(t.getWidth()).thenReturn(110);
@@ -102,16 +111,21 @@ public class PainterTest {
                         "texture",
                         p,
                         batch);
+        Mockito.verify(batch).isDrawing();
         Mockito.verify(batch).begin();
+        Mockito.verify(batch)
+                .draw(
+                        Mockito.any(Texture.class),
+                        Mockito.eq(12 + 10f),
+                        Mockito.eq(13 + 11f),
+                        Mockito.eq(1f),
+                        Mockito.eq(75f / 110f));
         Mockito.verify(batch).end();
         Mockito.verifyNoMoreInteractions(painter, batch, cam);
     }
 
     @Test
     public void test_drawWithScaling() throws Exception {
-        PowerMockito.whenNew(Sprite.class)
-                .withAnyArguments()
-                .thenReturn(Mockito.mock(Sprite.class));
         PowerMockito.whenNew(Texture.class)
                 .withAnyArguments()
                 .thenReturn(Mockito.mock(Texture.class));
@@ -121,8 +135,101 @@ public class PainterTest {
         Mockito.verify(painter).drawWithScaling(1.1f, 1.2f, "texture", p, batch);
         Mockito.verify(painter).draw(-0.85f, -0.5f, 1.1f, 1.2f, "texture", p, batch);
         Mockito.verify(cam).isPointInFrustum(p.x, p.y);
+        Mockito.verify(batch).isDrawing();
         Mockito.verify(batch).begin();
+        Mockito.verify(batch)
+                .draw(
+                        Mockito.any(Texture.class),
+                        Mockito.eq(12 - 0.85f),
+                        Mockito.eq(13 - 0.5f),
+                        Mockito.eq(1.1f),
+                        Mockito.eq(1.2f));
         Mockito.verify(batch).end();
         Mockito.verifyNoMoreInteractions(painter, batch, cam);
     }
+
+    @Test
+    public void test_draw_batchAlreadyDrawing() throws Exception {
+        PowerMockito.whenNew(Texture.class)
+                .withAnyArguments()
+                .thenReturn(Mockito.mock(Texture.class));
+        Mockito.when(batch.isDrawing()).thenReturn(true);
+        Point p = new Point(12, 13);
+
+        painter.draw(10, 11, 1.1f, 1.2f, "texture", p, batch);
+        painter.draw(10, 11, 1.1f, 1.2f, "texture", p, batch);
+        // the batch was begun by someone else, so the textures are only queued
+        Mockito.verify(batch, Mockito.times(2)).isDrawing();
+        Mockito.verify(batch, Mockito.times(2))
+                .draw(
+                        Mockito.any(Texture.class),
+                        Mockito.eq(22f),
+                        Mockito.eq(24f),
+                        Mockito.eq(1.1f),
+                        Mockito.eq(1.2f));
+        Mockito.verifyNoMoreInteractions(batch);
+    }
+
+    @Test
+    public void test_draw_textureId() throws Exception {
+        Texture t = Mockito.mock(Texture.class);
+        PowerMockito.whenNew(Texture.class).withAnyArguments().thenReturn(t);
+        Mockito.when(t.getWidth()).thenReturn(100);
+        Mockito.when(t.getHeight()).thenReturn(85);
+        Mockito.when(batch.isDrawing()).thenReturn(true);
+        int textureId = TextureRegistry.getInstance().getId("texture");
+        Point p = new Point(12, 13);
+
+        painter.draw(textureId, p, batch);
+        painter.draw(10, 11, 1.1f, 1.2f, textureId, p, batch);
+        Mockito.verify(batch)
+                .draw(
+                        Mockito.same(t),
+                        Mockito.eq(12 - 0.85f),
+                        Mockito.eq(13 - 0.5f),
+                        Mockito.eq(1f),
+                        Mockito.eq(85f / 100f));
+        Mockito.verify(batch)
+                .draw(
+                        Mockito.same(t),
+                        Mockito.eq(22f),
+                        Mockito.eq(24f),
+                        Mockito.eq(1.1f),
+                        Mockito.eq(1.2f));
+        // the texture is loaded once and then found by its id
+        PowerMockito.verifyNew(Texture.class).withArguments("texture");
+    }
+
+    @Test
+    public void test_draw_textureAtlas() {
+        TextureAtlasMap atlas = Mockito.mock(TextureAtlasMap.class);
+        TextureRegion region = Mockito.mock(TextureRegion.class);
+        Mockito.when(atlas.getHandle("texture")).thenReturn(3);
+        Mockito.when(atlas.getHandle("other")).thenReturn(TextureAtlasMap.NO_REGION);
+        Mockito.when(atlas.getRegion(3)).thenReturn(region);
+        Mockito.when(region.getRegionWidth()).thenReturn(16);
+        Mockito.when(region.getRegionHeight()).thenReturn(28);
+        painter.setTextureAtlas(atlas);
+        Point p = new Point(12, 13);
+
+        painter.draw(10, 11, "texture", p, batch);
+        Mockito.verify(batch)
+                .draw(
+                        Mockito.same(region),
+                        Mockito.eq(22f),
+                        Mockito.eq(24f),
+                        Mockito.eq(1f),
+                        Mockito.eq(28f / 16f));
+
+        painter.drawRegion(10, 11, 1.1f, 1.2f, 3, p, batch);
+        Mockito.verify(batch)
+                .draw(
+                        Mockito.same(region),
+                        Mockito.eq(22f),
+                        Mockito.eq(24f),
+                        Mockito.eq(1.1f),
+                        Mockito.eq(1.2f));
+        Mockito.verify(batch, Mockito.never())
+                .draw(Mockito.any(Texture.class), anyFloat(), anyFloat(), anyFloat(), anyFloat());
+    }
 }
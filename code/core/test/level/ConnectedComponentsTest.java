@@ -0,0 +1,84 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+import level.elements.LevelGrid;
+import level.elements.astar.ConnectedComponents;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConnectedComponentsTest {
+
+    private LevelGrid grid;
+    private ConnectedComponents components;
+
+    @Before
+    public void setup() {
+        grid = TestGrids.wallWithGap();
+        components = new ConnectedComponents(grid);
+    }
+
+    private void change(int x, int y, LevelElement element) {
+        int index = grid.index(x, y);
+        boolean wasAccessible = grid.isAccessible(index);
+        grid.setLevelElement(index, element, "");
+        grid.updateNeighbours(index);
+        components.cellChanged(index, wasAccessible);
+    }
+
+    @Test
+    public void test_isReachable() {
+        assertTrue(components.isReachable(grid.index(0, 0), grid.index(2, 0)));
+        assertFalse(components.isReachable(grid.index(0, 0), grid.index(1, 0)));
+        assertTrue(components.isReachable(grid.index(1, 0), grid.index(1, 0)));
+        assertEquals(-1, components.getComponent(grid.index(1, 1)));
+    }
+
+    @Test
+    public void test_cellChanged_close() {
+        change(1, 2, LevelElement.WALL);
+        assertFalse(components.isReachable(grid.index(0, 0), grid.index(2, 0)));
+        assertTrue(components.isReachable(grid.index(0, 0), grid.index(0, 2)));
+        assertTrue(components.isReachable(grid.index(2, 0), grid.index(2, 2)));
+    }
+
+    @Test
+    public void test_cellChanged_open() {
+        change(1, 2, LevelElement.WALL);
+        change(1, 0, LevelElement.FLOOR);
+        assertTrue(components.isReachable(grid.index(0, 2), grid.index(2, 2)));
+        assertTrue(components.isReachable(grid.index(1, 0), grid.index(0, 2)));
+    }
+
+    @Test
+    public void test_unreportedChange() {
+        grid.setLevelElement(grid.index(1, 2), LevelElement.WALL, "");
+        grid.makeNeighbours();
+        assertFalse(components.isReachable(grid.index(0, 0), grid.index(2, 0)));
+    }
+
+    @Test
+    public void test_cellChanged_sameAsCompute() {
+        Random random = new Random(3);
+        grid = new LevelGrid(30, 20);
+        for (int index = 0; index < grid.size(); index++)
+            grid.setLevelElement(
+                    index, random.nextInt(3) == 0 ? LevelElement.WALL : LevelElement.FLOOR, "");
+        grid.makeNeighbours();
+        components = new ConnectedComponents(grid);
+        for (int change = 0; change < 500; change++) {
+            change(
+                    random.nextInt(grid.getWidth()),
+                    random.nextInt(grid.getHeight()),
+                    random.nextInt(3) == 0 ? LevelElement.WALL : LevelElement.FLOOR);
+            ConnectedComponents expected = new ConnectedComponents(grid);
+            for (int i = 0; i < 200; i++) {
+                int from = random.nextInt(grid.size());
+                int to = random.nextInt(grid.size());
+                assertEquals(expected.isReachable(from, to), components.isReachable(from, to));
+            }
+        }
+    }
+}
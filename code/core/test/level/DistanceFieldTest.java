@@ -0,0 +1,127 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Random;
+import level.elements.LevelGrid;
+import level.elements.astar.DistanceField;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DistanceFieldTest {
+
+    private LevelGrid grid;
+    private DistanceField field;
+
+    @Before
+    public void setup() {
+        grid = TestGrids.wallWithGap();
+        field = new DistanceField(grid);
+    }
+
+    @Test
+    public void test_compute() {
+        field.compute(grid.index(2, 0));
+        assertEquals(0, field.getDistance(grid.index(2, 0)));
+        assertEquals(6, field.getDistance(grid.index(0, 0)));
+        assertEquals(DistanceField.UNREACHABLE, field.getDistance(grid.index(1, 0)));
+        assertTrue(field.isGoal(grid.index(2, 0)));
+    }
+
+    @Test
+    public void test_getNextStep() {
+        field.compute(grid.index(2, 0));
+        int cell = grid.index(0, 0);
+        int steps = 0;
+        while (cell != grid.index(2, 0)) {
+            cell = field.getNextStep(cell);
+            steps++;
+        }
+        assertEquals(6, steps);
+        assertEquals(-1, field.getNextStep(grid.index(2, 0)));
+        assertEquals(-1, field.getNextStep(grid.index(1, 1)));
+    }
+
+    @Test
+    public void test_compute_severalGoals() {
+        field.compute(grid.index(0, 0), grid.index(2, 0));
+        assertEquals(2, field.getDistance(grid.index(0, 2)));
+        assertEquals(3, field.getDistance(grid.index(1, 2)));
+    }
+
+    @Test
+    public void test_moveGoal() {
+        field.compute(grid.index(2, 0));
+        field.moveGoal(grid.index(2, 0), grid.index(2, 1));
+        assertFalse(field.isGoal(grid.index(2, 0)));
+        assertEquals(5, field.getDistance(grid.index(0, 0)));
+        assertEquals(1, field.getDistance(grid.index(2, 0)));
+    }
+
+    @Test
+    public void test_cellChanged() {
+        field.compute(grid.index(2, 0));
+        grid.setLevelElement(grid.index(1, 0), LevelElement.FLOOR, "");
+        grid.updateNeighbours(grid.index(1, 0));
+        field.cellChanged(grid.index(1, 0), false);
+        assertEquals(1, field.getDistance(grid.index(1, 0)));
+        assertEquals(2, field.getDistance(grid.index(0, 0)));
+
+        grid.setLevelElement(grid.index(1, 0), LevelElement.WALL, "");
+        grid.updateNeighbours(grid.index(1, 0));
+        field.cellChanged(grid.index(1, 0), true);
+        assertEquals(DistanceField.UNREACHABLE, field.getDistance(grid.index(1, 0)));
+        assertEquals(6, field.getDistance(grid.index(0, 0)));
+    }
+
+    @Test
+    public void test_cellChanged_sameAsCompute() {
+        Random random = new Random(11);
+        grid = new LevelGrid(30, 20);
+        for (int index = 0; index < grid.size(); index++)
+            grid.setLevelElement(
+                    index, random.nextInt(4) == 0 ? LevelElement.WALL : LevelElement.FLOOR, "");
+        grid.makeNeighbours();
+        field = new DistanceField(grid);
+        DistanceField expected = new DistanceField(grid);
+        int[] goals = {0, 77, 300};
+        field.compute(goals);
+        for (int change = 0; change < 200; change++) {
+            int index = random.nextInt(grid.size());
+            boolean wasAccessible = grid.isAccessible(index);
+            grid.setLevelElement(index, wasAccessible ? LevelElement.WALL : LevelElement.FLOOR, "");
+            grid.updateNeighbours(index);
+            field.cellChanged(index, wasAccessible);
+            expected.compute(goals);
+            for (int cell = 0; cell < grid.size(); cell++)
+                assertEquals(expected.getDistance(cell), field.getDistance(cell));
+        }
+    }
+
+    @Test
+    public void test_moveGoal_sameAsCompute() {
+        Random random = new Random(7);
+        grid = new LevelGrid(30, 20);
+        for (int index = 0; index < grid.size(); index++)
+            grid.setLevelElement(
+                    index, random.nextInt(4) == 0 ? LevelElement.WALL : LevelElement.FLOOR, "");
+        grid.makeNeighbours();
+        field = new DistanceField(grid);
+        DistanceField expected = new DistanceField(grid);
+        IntArray goals = new IntArray(new int[] {0, 77, 300});
+        field.compute(goals.toArray());
+        for (int move = 0; move < 200; move++) {
+            int goal = random.nextInt(goals.size);
+            int from = goals.get(goal);
+            int to = from + (random.nextBoolean() ? 1 : grid.getWidth());
+            if (to >= grid.size() || goals.contains(to)) continue;
+            field.moveGoal(from, to);
+            goals.set(goal, to);
+            expected.compute(goals.toArray());
+            for (int index = 0; index < grid.size(); index++)
+                assertEquals(expected.getDistance(index), field.getDistance(index));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import level.elements.FieldOfView;
+import level.elements.LevelGrid;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FieldOfViewTest {
+
+    private LevelGrid grid;
+    private FieldOfView fieldOfView;
+
+    @Before
+    public void setup() {
+        grid = new LevelGrid(11, 11);
+        for (int index = 0; index < grid.size(); index++)
+            grid.setLevelElement(index, LevelElement.FLOOR, "");
+        fieldOfView = new FieldOfView(grid, 3);
+    }
+
+    @Test
+    public void test_update_openArea() {
+        assertTrue(fieldOfView.update(5, 5));
+        // every cell with dx * dx + dy * dy <= 3 * 3
+        assertEquals(29, fieldOfView.countVisible());
+        assertTrue(fieldOfView.isVisible(8, 5));
+        assertTrue(fieldOfView.isVisible(7, 7));
+        assertFalse(fieldOfView.isVisible(8, 6));
+        assertFalse(fieldOfView.isVisible(-1, 5));
+    }
+
+    @Test
+    public void test_update_wall() {
+        /** A wall from (4, 3) to (6, 3) below the viewer at (5, 5) */
+        for (int x = 4; x <= 6; x++) grid.setLevelElement(grid.index(x, 3), LevelElement.WALL, "");
+        fieldOfView.update(5, 5);
+        assertTrue(fieldOfView.isVisible(5, 3));
+        assertFalse(fieldOfView.isVisible(5, 2));
+        assertTrue(fieldOfView.isVisible(3, 3));
+        assertTrue(fieldOfView.isVisible(8, 5));
+    }
+
+    @Test
+    public void test_update_onlyWhenNeeded() {
+        assertTrue(fieldOfView.update(5, 5));
+        assertFalse(fieldOfView.update(5, 5));
+        grid.setLevelElement(grid.index(5, 4), LevelElement.WALL, "");
+        assertTrue(fieldOfView.update(5, 5));
+        assertFalse(fieldOfView.isVisible(5, 3));
+        fieldOfView.setRadius(1);
+        assertTrue(fieldOfView.update(5, 5));
+        assertEquals(5, fieldOfView.countVisible());
+    }
+
+    @Test
+    public void test_explored() {
+        fieldOfView.update(2, 5);
+        fieldOfView.update(8, 5);
+        assertFalse(fieldOfView.isVisible(2, 5));
+        assertTrue(fieldOfView.isExplored(2, 5));
+        int count = 0;
+        for (int index = fieldOfView.nextExplored(0);
+                index >= 0;
+                index = fieldOfView.nextExplored(index + 1)) count++;
+        assertEquals(fieldOfView.countExplored(), count);
+        assertTrue(count > fieldOfView.countVisible());
+
+        fieldOfView.resetExplored();
+        assertFalse(fieldOfView.isExplored(2, 5));
+        assertEquals(fieldOfView.countVisible(), fieldOfView.countExplored());
+    }
+}
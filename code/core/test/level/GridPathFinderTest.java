@@ -0,0 +1,138 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import com.badlogic.gdx.utils.IntArray;
+import level.elements.LevelGrid;
+import level.elements.astar.AbstractGridPathFinder;
+import level.elements.astar.GridHeuristic;
+import level.elements.astar.GridPathFinder;
+import level.tools.DiagonalMovement;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GridPathFinderTest {
+
+    private LevelGrid grid;
+    private GridPathFinder pathFinder;
+    private IntArray path;
+
+    @Before
+    public void setup() {
+        grid = TestGrids.wallWithGap();
+        pathFinder = new GridPathFinder(grid);
+        path = new IntArray();
+    }
+
+    @Test
+    public void test_searchNodePath() {
+        assertTrue(pathFinder.searchNodePath(grid.index(0, 0), grid.index(2, 0), path));
+        assertArrayEquals(
+                new int[] {
+                    grid.index(0, 0),
+                    grid.index(0, 1),
+                    grid.index(0, 2),
+                    grid.index(1, 2),
+                    grid.index(2, 2),
+                    grid.index(2, 1),
+                    grid.index(2, 0)
+                },
+                path.toArray());
+    }
+
+    @Test
+    public void test_searchNodePath_startIsGoal() {
+        assertTrue(pathFinder.searchNodePath(grid.index(2, 2), grid.index(2, 2), path));
+        assertArrayEquals(new int[] {grid.index(2, 2)}, path.toArray());
+    }
+
+    @Test
+    public void test_searchNodePath_noPath() {
+        grid.setLevelElement(grid.index(1, 2), LevelElement.WALL, "");
+        grid.makeNeighbours();
+        path.add(42);
+        assertFalse(pathFinder.searchNodePath(grid.index(0, 0), grid.index(2, 0), path));
+        assertEquals(0, path.size);
+    }
+
+    @Test
+    public void test_searchNodePath_reuse() {
+        assertTrue(pathFinder.searchNodePath(grid.index(0, 0), grid.index(2, 0), path));
+        assertTrue(pathFinder.searchNodePath(grid.index(2, 1), grid.index(2, 2), path));
+        assertArrayEquals(new int[] {grid.index(2, 1), grid.index(2, 2)}, path.toArray());
+        assertTrue(pathFinder.searchNodePath(grid.index(0, 0), grid.index(2, 0), path));
+        assertEquals(7, path.size);
+    }
+
+    @Test
+    public void test_heuristics() {
+        assertEquals(0, GridHeuristic.MANHATTAN.estimate(0, 0));
+        assertEquals(
+                5 * AbstractGridPathFinder.STRAIGHT_COST, GridHeuristic.MANHATTAN.estimate(3, 2));
+        assertEquals(
+                AbstractGridPathFinder.STRAIGHT_COST + 2 * AbstractGridPathFinder.DIAGONAL_COST,
+                GridHeuristic.OCTILE.estimate(3, 2));
+        assertEquals(
+                5 * AbstractGridPathFinder.STRAIGHT_COST, GridHeuristic.EUCLIDEAN.estimate(3, 4));
+    }
+
+    @Test
+    public void test_searchNodePath_diagonal() {
+        grid.setDiagonalMovement(DiagonalMovement.NO_CORNER_CUTTING);
+        grid.makeNeighbours();
+        assertTrue(pathFinder.searchNodePath(grid.index(0, 0), grid.index(2, 0), path));
+        assertEquals(7, path.size);
+
+        grid.setDiagonalMovement(DiagonalMovement.ONE_FREE_SIDE);
+        grid.makeNeighbours();
+        assertTrue(pathFinder.searchNodePath(grid.index(0, 0), grid.index(2, 0), path));
+        assertArrayEquals(
+                new int[] {
+                    grid.index(0, 0),
+                    grid.index(0, 1),
+                    grid.index(1, 2),
+                    grid.index(2, 1),
+                    grid.index(2, 0)
+                },
+                path.toArray());
+        assertEquals(GridHeuristic.OCTILE, pathFinder.getDefaultHeuristic());
+    }
+
+    @Test
+    public void test_searchNodePath_diagonalOpenArea() {
+        grid = new LevelGrid(30, 30);
+        for (int index = 0; index < grid.size(); index++)
+            grid.setLevelElement(index, LevelElement.FLOOR, "");
+        grid.setDiagonalMovement(DiagonalMovement.NO_CORNER_CUTTING);
+        grid.makeNeighbours();
+        pathFinder = new GridPathFinder(grid);
+        assertTrue(pathFinder.searchNodePath(grid.index(2, 3), grid.index(25, 20), path));
+        assertEquals(23 + 1, path.size);
+        assertEquals(path.size, pathFinder.getExpandedNodes());
+    }
+
+    @Test
+    public void test_searchNodePath_openArea() {
+        grid = new LevelGrid(30, 30);
+        for (int index = 0; index < grid.size(); index++)
+            grid.setLevelElement(index, LevelElement.FLOOR, "");
+        grid.setLevelElement(grid.index(10, 10), LevelElement.WALL, "");
+        grid.makeNeighbours();
+        pathFinder = new GridPathFinder(grid);
+        int start = grid.index(2, 3);
+        int goal = grid.index(25, 20);
+        int[] expandedNodes = new int[GridHeuristic.values().length];
+        for (GridHeuristic heuristic : GridHeuristic.values()) {
+            assertTrue(pathFinder.searchNodePath(start, goal, heuristic, path));
+            // every heuristic finds a shortest path
+            assertEquals(23 + 17 + 1, path.size);
+            expandedNodes[heuristic.ordinal()] = pathFinder.getExpandedNodes();
+        }
+        // the closer the estimate, the fewer tiles are expanded
+        assertEquals(path.size, expandedNodes[GridHeuristic.MANHATTAN.ordinal()]);
+        assertTrue(
+                expandedNodes[GridHeuristic.MANHATTAN.ordinal()]
+                        < expandedNodes[GridHeuristic.EUCLIDEAN.ordinal()]);
+    }
+}
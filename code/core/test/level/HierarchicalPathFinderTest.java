@@ -0,0 +1,96 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import com.badlogic.gdx.utils.IntArray;
+import level.elements.LevelGrid;
+import level.elements.astar.HierarchicalPathFinder;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class HierarchicalPathFinderTest {
+
+    private LevelGrid grid;
+    private HierarchicalPathFinder pathFinder;
+    private IntArray path;
+
+    @Before
+    public void setup() {
+        /** 8x8 floor with a wall in column x=3 from y=0 to y=6, clusters of 4x4 cells */
+        grid = new LevelGrid(8, 8);
+        for (int index = 0; index < grid.size(); index++)
+            grid.setLevelElement(index, LevelElement.FLOOR, "");
+        for (int y = 0; y < 7; y++) grid.setLevelElement(grid.index(3, y), LevelElement.WALL, "");
+        grid.makeNeighbours();
+        pathFinder = new HierarchicalPathFinder(grid, 4);
+        path = new IntArray();
+    }
+
+    @Test
+    public void test_searchNodePath() {
+        assertTrue(pathFinder.searchNodePath(grid.index(0, 0), grid.index(7, 0), path));
+        assertEquals(grid.index(0, 0), path.first());
+        assertEquals(grid.index(7, 0), path.peek());
+        assertValidPath();
+        // around the wall, the shortest path has 22 cells
+        assertTrue(path.size >= 22);
+    }
+
+    @Test
+    public void test_searchNodePath_sameCluster() {
+        assertTrue(pathFinder.searchNodePath(grid.index(0, 0), grid.index(2, 2), path));
+        assertEquals(5, path.size);
+        assertValidPath();
+    }
+
+    @Test
+    public void test_searchNodePath_neighbouringClusters_shortestPath() {
+        /** 16x16 floor, clusters of 8x8 cells with transitions only at the ends of the borders */
+        LevelGrid open = new LevelGrid(16, 16);
+        for (int index = 0; index < open.size(); index++)
+            open.setLevelElement(index, LevelElement.FLOOR, "");
+        open.makeNeighbours();
+        HierarchicalPathFinder openPathFinder = new HierarchicalPathFinder(open, 8);
+        assertTrue(openPathFinder.searchNodePath(open.index(6, 3), open.index(9, 4), path));
+        assertEquals(5, path.size);
+        assertTrue(openPathFinder.searchNodePath(open.index(6, 6), open.index(9, 9), path));
+        assertEquals(7, path.size);
+    }
+
+    @Test
+    public void test_searchNodePath_startIsGoal() {
+        assertTrue(pathFinder.searchNodePath(grid.index(5, 5), grid.index(5, 5), path));
+        assertArrayEquals(new int[] {grid.index(5, 5)}, path.toArray());
+    }
+
+    @Test
+    public void test_cellChanged_rebuildsOnlyAffectedCluster() {
+        int rebuilds = pathFinder.getClusterRebuilds();
+        grid.setLevelElement(grid.index(1, 1), LevelElement.WALL, "");
+        pathFinder.cellChanged(grid.index(1, 1));
+        assertTrue(pathFinder.searchNodePath(grid.index(0, 0), grid.index(7, 0), path));
+        assertEquals(rebuilds + 1, pathFinder.getClusterRebuilds());
+
+        // closing the gap above the wall disconnects both sides
+        grid.setLevelElement(grid.index(3, 7), LevelElement.WALL, "");
+        pathFinder.cellChanged(grid.index(3, 7));
+        path.add(42);
+        assertFalse(pathFinder.searchNodePath(grid.index(0, 0), grid.index(7, 0), path));
+        assertEquals(0, path.size);
+    }
+
+    @Test
+    public void test_searchNodePath_unreportedChange() {
+        grid.setLevelElement(grid.index(3, 7), LevelElement.WALL, "");
+        assertFalse(pathFinder.searchNodePath(grid.index(0, 0), grid.index(7, 0), path));
+    }
+
+    private void assertValidPath() {
+        for (int i = 1; i < path.size; i++) {
+            int step = Math.abs(path.get(i) - path.get(i - 1));
+            assertTrue(step == 1 || step == grid.getWidth());
+            assertTrue(grid.isAccessible(path.get(i)));
+        }
+    }
+}
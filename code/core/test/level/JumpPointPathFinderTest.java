@@ -0,0 +1,129 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import com.badlogic.gdx.utils.IntArray;
+import java.util.Random;
+import level.elements.LevelGrid;
+import level.elements.astar.GridPathFinder;
+import level.elements.astar.JumpPointPathFinder;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JumpPointPathFinderTest {
+
+    private LevelGrid grid;
+    private JumpPointPathFinder pathFinder;
+    private IntArray path;
+
+    @Before
+    public void setup() {
+        grid = TestGrids.wallWithGap();
+        pathFinder = new JumpPointPathFinder(grid);
+        path = new IntArray();
+    }
+
+    @Test
+    public void test_searchNodePath() {
+        assertTrue(pathFinder.searchNodePath(grid.index(0, 0), grid.index(2, 0), path));
+        assertArrayEquals(
+                new int[] {
+                    grid.index(0, 0),
+                    grid.index(0, 1),
+                    grid.index(0, 2),
+                    grid.index(1, 2),
+                    grid.index(2, 2),
+                    grid.index(2, 1),
+                    grid.index(2, 0)
+                },
+                path.toArray());
+    }
+
+    @Test
+    public void test_searchNodePath_startIsGoal() {
+        assertTrue(pathFinder.searchNodePath(grid.index(2, 2), grid.index(2, 2), path));
+        assertArrayEquals(new int[] {grid.index(2, 2)}, path.toArray());
+    }
+
+    @Test
+    public void test_searchNodePath_noPath() {
+        grid.setLevelElement(grid.index(1, 2), LevelElement.WALL, "");
+        grid.makeNeighbours();
+        path.add(42);
+        assertFalse(pathFinder.searchNodePath(grid.index(0, 0), grid.index(2, 0), path));
+        assertEquals(0, path.size);
+    }
+
+    @Test
+    public void test_searchNodePath_jumpsToCorner() {
+        // the only way to the goal leads around the end of the wall at (3, 3)
+        grid = TestGrids.parse("FFFWF", "FFFWF", "FFFWF", "FFFWF", "FFFFF");
+        pathFinder = new JumpPointPathFinder(grid);
+        assertTrue(pathFinder.searchNodePath(grid.index(2, 0), grid.index(4, 0), path));
+        assertEquals(11, path.size);
+        assertEquals(grid.index(2, 4), path.get(4));
+        assertEquals(grid.index(4, 4), path.get(6));
+        // only the start, the two turns around the end of the wall and the goal
+        assertEquals(4, pathFinder.getExpandedNodes());
+    }
+
+    @Test
+    public void test_searchNodePath_expandsLessThanAStar() {
+        // open room with a wall in the middle
+        grid = new LevelGrid(20, 20);
+        for (int index = 0; index < grid.size(); index++)
+            grid.setLevelElement(index, LevelElement.FLOOR, "");
+        for (int y = 0; y < 15; y++) grid.setLevelElement(grid.index(10, y), LevelElement.WALL, "");
+        grid.makeNeighbours();
+        pathFinder = new JumpPointPathFinder(grid);
+        GridPathFinder aStar = new GridPathFinder(grid);
+        IntArray aStarPath = new IntArray();
+
+        assertTrue(pathFinder.searchNodePath(grid.index(0, 0), grid.index(19, 0), path));
+        assertTrue(aStar.searchNodePath(grid.index(0, 0), grid.index(19, 0), aStarPath));
+        assertEquals(aStarPath.size, path.size);
+        for (int i = 1; i < path.size; i++) {
+            int step = Math.abs(path.get(i) - path.get(i - 1));
+            assertTrue(step == 1 || step == grid.getWidth());
+            assertTrue(grid.isAccessible(path.get(i)));
+        }
+        assertTrue(pathFinder.getExpandedNodes() < aStar.getExpandedNodes());
+    }
+
+    @Test
+    public void test_searchNodePath_sameLengthAsAStarOnRandomGrids() {
+        Random random = new Random(42);
+        for (int round = 0; round < 50; round++) {
+            grid = new LevelGrid(5 + random.nextInt(30), 5 + random.nextInt(30));
+            for (int index = 0; index < grid.size(); index++)
+                grid.setLevelElement(
+                        index,
+                        random.nextInt(10) < 3 ? LevelElement.WALL : LevelElement.FLOOR,
+                        "");
+            grid.makeNeighbours();
+            pathFinder = new JumpPointPathFinder(grid);
+            GridPathFinder aStar = new GridPathFinder(grid);
+            IntArray aStarPath = new IntArray();
+            for (int change = 0; change < 10; change++) {
+                for (int query = 0; query < 20; query++) {
+                    int start = random.nextInt(grid.size());
+                    int goal = random.nextInt(grid.size());
+                    assertEquals(
+                            aStar.searchNodePath(start, goal, aStarPath),
+                            pathFinder.searchNodePath(start, goal, path));
+                    assertEquals(aStarPath.size, path.size);
+                }
+                // the jump table is updated for the rows of a reported change and computed
+                // again for the whole grid after a change that was not reported
+                int cell = random.nextInt(grid.size());
+                grid.setLevelElement(
+                        cell,
+                        grid.isAccessible(cell) ? LevelElement.WALL : LevelElement.FLOOR,
+                        "");
+                grid.updateNeighbours(cell);
+                if (random.nextBoolean()) pathFinder.cellChanged(cell);
+            }
+        }
+    }
+}
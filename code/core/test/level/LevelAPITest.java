@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.*;
 
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import graphic.LevelRenderCache;
 import graphic.Painter;
 import level.elements.Level;
 import level.generator.IGenerator;
@@ -70,4 +71,20 @@ public class LevelAPITest {
         verify(level).drawLevel(painter, batch);
         verifyNoMoreInteractions(level);
     }
+
+    @Test
+    public void test_update_renderCache() {
+        LevelRenderCache renderCache = Mockito.mock(LevelRenderCache.class);
+        when(batch.isDrawing()).thenReturn(true);
+        api.setRenderCache(renderCache);
+        api.setLevel(level);
+        verify(renderCache).setLevel(level);
+        api.update();
+
+        // the batch is paused while the cache draws
+        verify(batch).end();
+        verify(renderCache).draw();
+        verify(batch).begin();
+        verifyNoInteractions(level);
+    }
 }
@@ -0,0 +1,82 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import com.badlogic.gdx.utils.IntArray;
+import java.util.BitSet;
+import level.elements.LevelChunks;
+import level.elements.LevelGrid;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LevelChunksTest {
+
+    private LevelGrid grid;
+    private LevelChunks chunks;
+
+    @Before
+    public void setup() {
+        /** 10x7 cells in chunks of 4x4: 3 chunks per row, 2 per column */
+        grid = new LevelGrid(10, 7);
+        for (int index = 0; index < grid.size(); index++)
+            grid.setLevelElement(index, LevelElement.FLOOR, "");
+        chunks = new LevelChunks(grid, 4);
+    }
+
+    @Test
+    public void test_layout() {
+        assertEquals(3, chunks.getChunksX());
+        assertEquals(2, chunks.getChunksY());
+        assertEquals(6, chunks.size());
+        assertEquals(5, chunks.chunkAt(9, 6));
+        assertEquals(8, chunks.getX(5));
+        assertEquals(4, chunks.getY(5));
+
+        IntArray cells = new IntArray();
+        chunks.getCells(5, cells);
+        // the last chunk is cut off by the border of the grid
+        assertArrayEquals(
+                new int[] {
+                    grid.index(8, 4),
+                    grid.index(9, 4),
+                    grid.index(8, 5),
+                    grid.index(9, 5),
+                    grid.index(8, 6),
+                    grid.index(9, 6)
+                },
+                cells.toArray());
+    }
+
+    @Test
+    public void test_cellChanged() {
+        BitSet renderer = chunks.addConsumer();
+        BitSet minimap = chunks.addConsumer();
+        assertEquals(6, renderer.cardinality());
+        renderer.clear();
+        minimap.clear();
+
+        chunks.cellChanged(grid.index(1, 1));
+        assertEquals(1, renderer.cardinality());
+        assertTrue(renderer.get(0));
+
+        // each consumer clears its own flags
+        renderer.clear(0);
+        assertTrue(minimap.get(0));
+
+        // the neighbours of a cell on the border of a chunk are in other chunks
+        minimap.clear();
+        chunks.cellChanged(grid.index(4, 3));
+        assertEquals(4, minimap.cardinality());
+        assertTrue(minimap.get(0) && minimap.get(1) && minimap.get(3) && minimap.get(4));
+    }
+
+    @Test
+    public void test_removeConsumer() {
+        BitSet renderer = chunks.addConsumer();
+        renderer.clear();
+        chunks.removeConsumer(renderer);
+        chunks.markAllDirty();
+        assertTrue(renderer.isEmpty());
+    }
+}
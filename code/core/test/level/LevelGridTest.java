@@ -0,0 +1,168 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import com.badlogic.gdx.utils.IntArray;
+import level.elements.LevelGrid;
+import level.tools.DiagonalMovement;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LevelGridTest {
+
+    private LevelGrid grid;
+
+    @Before
+    public void setup() {
+        /** How the grid looks: (W=Wall, F=Floor, V=Void) row y=0: FFW, y=1: FWV */
+        grid = new LevelGrid(3, 2);
+        grid.setLevelElement(grid.index(0, 0), LevelElement.FLOOR, "floor");
+        grid.setLevelElement(grid.index(1, 0), LevelElement.FLOOR, "floor");
+        grid.setLevelElement(grid.index(2, 0), LevelElement.WALL, "wall");
+        grid.setLevelElement(grid.index(0, 1), LevelElement.FLOOR, "floor");
+        grid.setLevelElement(grid.index(1, 1), LevelElement.WALL, "wall");
+        grid.makeNeighbours();
+    }
+
+    @Test
+    public void test_index() {
+        assertEquals(6, grid.size());
+        assertEquals(5, grid.index(2, 1));
+        assertEquals(2, grid.getX(5));
+        assertEquals(1, grid.getY(5));
+        assertTrue(grid.isInBounds(2, 1));
+        assertFalse(grid.isInBounds(3, 0));
+        assertFalse(grid.isInBounds(0, -1));
+    }
+
+    @Test
+    public void test_levelElement() {
+        assertEquals(LevelElement.FLOOR, grid.getLevelElement(grid.index(0, 0)));
+        assertEquals(LevelElement.WALL, grid.getLevelElement(grid.index(1, 1)));
+        assertEquals(LevelElement.VOID, grid.getLevelElement(grid.index(2, 1)));
+        assertTrue(grid.isAccessible(grid.index(0, 1)));
+        assertFalse(grid.isAccessible(grid.index(2, 0)));
+    }
+
+    @Test
+    public void test_texture() {
+        assertEquals("floor", grid.getTexturePath(grid.index(0, 0)));
+        assertEquals("wall", grid.getTexturePath(grid.index(1, 1)));
+        // equal texture paths share one id
+        assertEquals(grid.getTextureId(grid.index(0, 0)), grid.getTextureId(grid.index(1, 0)));
+        assertNotEquals(grid.getTextureId(grid.index(0, 0)), grid.getTextureId(grid.index(2, 0)));
+    }
+
+    @Test
+    public void test_makeNeighbours() {
+        assertEquals(LevelGrid.NORTH | LevelGrid.EAST, grid.getNeighbours(grid.index(0, 0)));
+        assertEquals(LevelGrid.WEST, grid.getNeighbours(grid.index(1, 0)));
+        assertEquals(LevelGrid.SOUTH, grid.getNeighbours(grid.index(0, 1)));
+        assertEquals(0, grid.getNeighbours(grid.index(2, 0)));
+
+        grid.setLevelElement(grid.index(1, 1), LevelElement.FLOOR, "floor");
+        grid.makeNeighbours();
+        assertEquals(LevelGrid.SOUTH | LevelGrid.WEST, grid.getNeighbours(grid.index(1, 1)));
+    }
+
+    @Test
+    public void test_updateNeighbours() {
+        grid.setLevelElement(grid.index(1, 1), LevelElement.FLOOR, "floor");
+        grid.updateNeighbours(grid.index(1, 1));
+        assertEquals(LevelGrid.SOUTH | LevelGrid.WEST, grid.getNeighbours(grid.index(1, 1)));
+        assertEquals(LevelGrid.NORTH | LevelGrid.WEST, grid.getNeighbours(grid.index(1, 0)));
+        assertEquals(LevelGrid.SOUTH | LevelGrid.EAST, grid.getNeighbours(grid.index(0, 1)));
+
+        grid.setLevelElement(grid.index(0, 0), LevelElement.WALL, "wall");
+        grid.updateNeighbours(grid.index(0, 0));
+        assertEquals(0, grid.getNeighbours(grid.index(0, 0)));
+        assertEquals(LevelGrid.NORTH, grid.getNeighbours(grid.index(1, 0)));
+        assertEquals(LevelGrid.EAST, grid.getNeighbours(grid.index(0, 1)));
+    }
+
+    @Test
+    public void test_diagonalNeighbours() {
+        grid.setDiagonalMovement(DiagonalMovement.NO_CORNER_CUTTING);
+        grid.makeNeighbours();
+        assertEquals(LevelGrid.WEST, grid.getNeighbours(grid.index(1, 0)));
+
+        grid.setDiagonalMovement(DiagonalMovement.ONE_FREE_SIDE);
+        grid.makeNeighbours();
+        assertEquals(LevelGrid.WEST | LevelGrid.NORTH_WEST, grid.getNeighbours(grid.index(1, 0)));
+        assertEquals(LevelGrid.SOUTH | LevelGrid.SOUTH_EAST, grid.getNeighbours(grid.index(0, 1)));
+
+        // opening the corner allows the step without cutting it
+        grid.setDiagonalMovement(DiagonalMovement.NO_CORNER_CUTTING);
+        grid.setLevelElement(grid.index(1, 1), LevelElement.FLOOR, "floor");
+        grid.updateNeighbours(grid.index(1, 1));
+        assertEquals(
+                LevelGrid.NORTH | LevelGrid.WEST | LevelGrid.NORTH_WEST,
+                grid.getNeighbours(grid.index(1, 0)));
+        assertEquals(
+                LevelGrid.EAST | LevelGrid.NORTH | LevelGrid.NORTH_EAST,
+                grid.getNeighbours(grid.index(0, 0)));
+    }
+
+    @Test
+    public void test_getCellsInRadius() {
+        grid = new LevelGrid(10, 10);
+        IntArray cells = new IntArray();
+        grid.getCellsInRadius(5, 5, 2, cells);
+        assertEquals(13, cells.size);
+        assertTrue(cells.contains(grid.index(5, 7)));
+        assertTrue(cells.contains(grid.index(6, 6)));
+        assertFalse(cells.contains(grid.index(7, 7)));
+
+        // clipped at the border
+        grid.getCellsInRadius(0, 0, 1, cells);
+        assertEquals(3, cells.size);
+        grid.getCellsInRadius(0, 0, 0, cells);
+        assertArrayEquals(new int[] {0}, cells.toArray());
+    }
+
+    @Test
+    public void test_getCellsInRectangle() {
+        IntArray cells = new IntArray();
+        grid.getCellsInRectangle(2, 1, 1, 0, cells);
+        assertArrayEquals(
+                new int[] {grid.index(1, 0), grid.index(2, 0), grid.index(1, 1), grid.index(2, 1)},
+                cells.toArray());
+        grid.getCellsInRectangle(-5, -5, 0, 0, cells);
+        assertArrayEquals(new int[] {0}, cells.toArray());
+    }
+
+    @Test
+    public void test_hasLineOfSight() {
+        grid = new LevelGrid(10, 10);
+        for (int index = 0; index < grid.size(); index++)
+            grid.setLevelElement(index, LevelElement.FLOOR, "");
+        grid.setLevelElement(grid.index(5, 5), LevelElement.WALL, "");
+        assertTrue(grid.hasLineOfSight(0, 0, 9, 3));
+        assertTrue(grid.hasLineOfSight(2, 2, 2, 2));
+        assertFalse(grid.hasLineOfSight(3, 3, 7, 7));
+        assertFalse(grid.hasLineOfSight(7, 7, 3, 3));
+        assertFalse(grid.hasLineOfSight(5, 0, 5, 9));
+        // the wall itself can be seen
+        assertTrue(grid.hasLineOfSight(0, 5, 5, 5));
+    }
+
+    @Test
+    public void test_getCell() {
+        assertEquals(3, grid.countCells(LevelElement.FLOOR));
+        assertEquals(2, grid.countCells(LevelElement.WALL));
+        assertEquals(1, grid.countCells(LevelElement.VOID));
+        assertEquals(0, grid.countCells(LevelElement.EXIT));
+        assertEquals(grid.index(2, 1), grid.getCell(LevelElement.VOID, 0));
+
+        grid.setLevelElement(grid.index(1, 0), LevelElement.EXIT, "exit");
+        grid.setLevelElement(grid.index(2, 1), LevelElement.WALL, "wall");
+        assertEquals(2, grid.countCells(LevelElement.FLOOR));
+        assertEquals(3, grid.countCells(LevelElement.WALL));
+        assertEquals(0, grid.countCells(LevelElement.VOID));
+        assertEquals(grid.index(1, 0), grid.getCell(LevelElement.EXIT, 0));
+        for (LevelElement element : LevelElement.values())
+            for (int i = 0; i < grid.countCells(element); i++)
+                assertEquals(element, grid.getLevelElement(grid.getCell(element, i)));
+    }
+}
@@ -0,0 +1,102 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+import level.elements.Level;
+import level.elements.LevelGrid;
+import level.elements.LevelSnapshot;
+import level.generator.perlinNoise.PerlinNoiseGenerator;
+import level.tools.DesignLabel;
+import level.tools.DiagonalMovement;
+import level.tools.LevelElement;
+import level.tools.LevelSize;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LevelSnapshotTest {
+
+    private File file;
+
+    @Before
+    public void setup() throws IOException {
+        file = File.createTempFile("level", ".bin");
+        file.deleteOnExit();
+    }
+
+    @Test
+    public void test_saveAndLoad() throws IOException {
+        Level level =
+                new PerlinNoiseGenerator()
+                        .getLevel(DesignLabel.DEFAULT, LevelSize.MEDIUM, new Random(42));
+        level.setDiagonalMovement(DiagonalMovement.NO_CORNER_CUTTING);
+        LevelSnapshot.save(level, file.getPath());
+        Level loaded = LevelSnapshot.load(file.getPath());
+
+        LevelGrid grid = level.getGrid();
+        LevelGrid loadedGrid = loaded.getGrid();
+        assertEquals(grid.getWidth(), loadedGrid.getWidth());
+        assertEquals(level.printLevel(), loaded.printLevel());
+        for (int index = 0; index < grid.size(); index++) {
+            assertEquals(grid.getTexturePath(index), loadedGrid.getTexturePath(index));
+            assertEquals(grid.getNeighbours(index), loadedGrid.getNeighbours(index));
+        }
+        assertEquals(level.getStartTile().getIndex(), loaded.getStartTile().getIndex());
+        assertEquals(LevelElement.EXIT, loaded.getEndTile().getLevelElement());
+        assertEquals(DiagonalMovement.NO_CORNER_CUTTING, loaded.getDiagonalMovement());
+        assertEquals(
+                level.findPath(level.getStartTile(), level.getEndTile()).getCount(),
+                loaded.findPath(loaded.getStartTile(), loaded.getEndTile()).getCount());
+        // floor and empty tiles come in runs, so a cell takes less than a byte
+        assertTrue(file.length() < grid.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void test_load_notALevel() throws IOException {
+        Files.write(file.toPath(), new byte[] {'P', 'M', 'D', 'X', 1});
+        LevelSnapshot.load(file.getPath());
+    }
+
+    @Test(expected = IOException.class)
+    public void test_load_damaged() throws IOException {
+        Level level =
+                new PerlinNoiseGenerator()
+                        .getLevel(DesignLabel.DEFAULT, LevelSize.SMALL, new Random(42));
+        LevelSnapshot.save(level, file.getPath());
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+        LevelSnapshot.load(file.getPath());
+    }
+
+    /** Writes a header with the given size and start and end tile, followed by no cells. */
+    private void writeHeader(int width, int height, int start, int end) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(23);
+        header.put(new byte[] {'P', 'M', 'D', 'L', 1});
+        header.putInt(width).putInt(height).put((byte) 0).putInt(start).putInt(end);
+        header.put((byte) 0);
+        Files.write(file.toPath(), header.array());
+    }
+
+    @Test(expected = IOException.class)
+    public void test_load_negativeSize() throws IOException {
+        writeHeader(-5, 10, -1, -1);
+        LevelSnapshot.load(file.getPath());
+    }
+
+    @Test(expected = IOException.class)
+    public void test_load_sizeOverflows() throws IOException {
+        writeHeader(65536, 65536, -1, -1);
+        LevelSnapshot.load(file.getPath());
+    }
+
+    @Test(expected = IOException.class)
+    public void test_load_startOutsideGrid() throws IOException {
+        writeHeader(4, 4, 16, -1);
+        LevelSnapshot.load(file.getPath());
+    }
+}
@@ -4,15 +4,36 @@ import static org.junit.Assert.*;
 import static org.mockito.Mockito.when;
 
 import basiselements.Entity;
+import com.badlogic.gdx.ai.pfa.Connection;
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
 import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.ai.pfa.indexed.IndexedAStarPathFinder;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import graphic.DungeonCamera;
+import graphic.Painter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import level.elements.Level;
+import level.elements.PathRequest;
 import level.elements.Tile;
+import level.elements.astar.AbstractGridPathFinder;
+import level.elements.astar.GridHeuristic;
+import level.elements.astar.PathfindingMode;
+import level.elements.astar.TileHeuristic;
 import level.tools.Coordinate;
 import level.tools.DesignLabel;
+import level.tools.DiagonalMovement;
 import level.tools.LevelElement;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Mockito;
+import org.powermock.reflect.Whitebox;
 import tools.Point;
 
 public class LevelTest {
@@ -99,6 +120,177 @@ public class LevelTest {
         assertEquals(layout[0][2], path.get(4));
     }
 
+    @Test
+    public void test_findPath_intoGivenPath() {
+        GraphPath<Tile> path = new DefaultGraphPath<>();
+        path.add(startTile);
+        assertTrue(level.findPath(layout[0][0], layout[2][1], path));
+        assertEquals(4, path.getCount());
+        assertEquals(layout[0][0], path.get(0));
+        assertEquals(layout[2][1], path.get(3));
+        assertTrue(level.findPath(layout[2][1], layout[2][1], path));
+        assertEquals(1, path.getCount());
+        assertFalse(level.findPath(layout[0][0], layout[0][2], path));
+        assertEquals(0, path.getCount());
+    }
+
+    @Test
+    public void test_findPath_jumpPointSearch() {
+        level.setPathfindingMode(PathfindingMode.JUMP_POINT_SEARCH);
+        assertEquals(PathfindingMode.JUMP_POINT_SEARCH, level.getPathfindingMode());
+        GraphPath<Tile> path = level.findPath(layout[0][0], layout[2][1]);
+        assertEquals(4, path.getCount());
+        assertEquals(layout[0][0], path.get(0));
+        assertEquals(layout[2][1], path.get(3));
+        assertEquals(0, level.findPath(layout[0][0], layout[0][2]).getCount());
+    }
+
+    @Test
+    public void test_getNextStep() {
+        assertNull(level.getNextStep(layout[0][0]));
+        level.computeDistanceField(layout[2][1]);
+        assertEquals(layout[1][0], level.getNextStep(layout[0][0]));
+        assertNull(level.getNextStep(layout[2][1]));
+        level.moveDistanceFieldGoal(layout[2][1], layout[1][1]);
+        assertEquals(1, level.getDistanceField().getDistance(layout[2][1].getIndex()));
+    }
+
+    @Test
+    public void test_getNextStep_afterChangeTileElementType() {
+        /** How the level layout looks: (W=Wall, F=Floor) FFW FFW FFW */
+        level.computeDistanceField(layout[2][1]);
+        level.changeTileElementType(layout[0][2], LevelElement.FLOOR);
+        assertEquals(3, level.getDistanceField().getDistance(layout[0][2].getIndex()));
+        assertEquals(layout[0][1], level.getNextStep(layout[0][2]));
+
+        level.changeTileElementType(layout[1][1], LevelElement.WALL);
+        assertEquals(5, level.getDistanceField().getDistance(layout[0][2].getIndex()));
+        assertEquals(layout[0][0], level.getNextStep(layout[0][1]));
+        assertNull(level.getNextStep(layout[1][1]));
+    }
+
+    @Test
+    public void test_findPaths() {
+        level.setPathCacheCapacity(4);
+        List<PathRequest> requests = new ArrayList<>();
+        requests.add(new PathRequest(layout[0][0], layout[2][1]));
+        requests.add(new PathRequest(layout[0][0], layout[0][2]));
+        requests.add(new PathRequest(layout[1][1], layout[1][1]));
+        level.findPaths(requests);
+        assertTrue(requests.get(0).isFound());
+        assertEquals(4, requests.get(0).getPath().getCount());
+        assertEquals(layout[2][1], requests.get(0).getPath().get(3));
+        assertFalse(requests.get(1).isFound());
+        assertEquals(0, requests.get(1).getPath().getCount());
+        assertEquals(1, requests.get(2).getPath().getCount());
+
+        // the second batch is answered from the cache
+        level.findPaths(requests);
+        assertEquals(3, level.getPathCache().getHits());
+        assertEquals(4, requests.get(0).getPath().getCount());
+    }
+
+    /**
+     * How the level layout looks (W=Wall, F=Floor, first row is y = 0): FWFFF FWWFF FFFFF FFWFF
+     * FFFFF. With diagonal steps, MANHATTAN finds a longer path from (0, 0) to (4, 4).
+     */
+    private Tile[][] manhattanDetourLayout() {
+        Tile[][] detourLayout = new Tile[5][5];
+        for (int x = 0; x < 5; x++)
+            for (int y = 0; y < 5; y++)
+                detourLayout[y][x] = new Tile("", new Coordinate(x, y), LevelElement.FLOOR);
+        for (Coordinate wall :
+                new Coordinate[] {
+                    new Coordinate(1, 0), new Coordinate(1, 1), new Coordinate(2, 1),
+                    new Coordinate(2, 3)
+                })
+            detourLayout[wall.y][wall.x] = new Tile("", wall, LevelElement.WALL);
+        return detourLayout;
+    }
+
+    @Test
+    public void test_findPath_otherHeuristic_notCached() {
+        layout = manhattanDetourLayout();
+        level = new Level(layout);
+        level.setDiagonalMovement(DiagonalMovement.ALWAYS);
+        level.setPathCacheCapacity(4);
+        GraphPath<Tile> path = new DefaultGraphPath<>();
+        assertTrue(level.findPath(layout[0][0], layout[4][4], GridHeuristic.MANHATTAN, path));
+        assertEquals(7, path.getCount());
+        assertEquals(6, level.findPath(layout[0][0], layout[4][4]).getCount());
+        assertEquals(0, level.getPathCache().getHits());
+    }
+
+    @Test
+    public void test_findPaths_otherHeuristic_notCached() {
+        layout = manhattanDetourLayout();
+        level = new Level(layout);
+        level.setDiagonalMovement(DiagonalMovement.ALWAYS);
+        level.setPathCacheCapacity(4);
+        PathRequest request = new PathRequest(layout[0][0], layout[4][4]);
+        request.setHeuristic(GridHeuristic.MANHATTAN);
+        level.findPaths(List.of(request));
+        assertEquals(7, request.getPath().getCount());
+        request.setHeuristic(null);
+        level.findPaths(List.of(request));
+        assertEquals(6, request.getPath().getCount());
+        assertEquals(0, level.getPathCache().getHits());
+    }
+
+    @Test
+    public void test_findPathConcurrently() {
+        IntArray path = new IntArray();
+        assertTrue(
+                level.findPathConcurrently(layout[0][0].getIndex(), layout[2][1].getIndex(), path));
+        assertEquals(4, path.size);
+        assertEquals(layout[2][1], level.getTile(path.peek()));
+    }
+
+    @Test
+    public void test_findPaths_reusesSearchStates() {
+        List<PathRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) requests.add(new PathRequest(layout[0][0], layout[2][1]));
+        ForkJoinPool pool = new ForkJoinPool(2);
+        level.findPaths(requests, pool);
+        level.findPaths(requests, pool);
+        pool.shutdown();
+        for (PathRequest request : requests) assertEquals(4, request.getPath().getCount());
+        // one search state per worker, kept by the level and not by the threads
+        Array<?> free = Whitebox.getInternalState(level, "freePathFinders");
+        assertTrue(free.size >= 1 && free.size <= 3);
+    }
+
+    @Test
+    public void test_freePathFinder_modeChangedMeanwhile() {
+        AbstractGridPathFinder finder = level.obtainPathFinder();
+        level.setPathfindingMode(PathfindingMode.JUMP_POINT_SEARCH);
+        level.freePathFinder(finder);
+        Array<?> free = Whitebox.getInternalState(level, "freePathFinders");
+        assertEquals(0, free.size);
+        assertEquals(
+                PathfindingMode.JUMP_POINT_SEARCH, level.obtainPathFinder().getPathfindingMode());
+    }
+
+    @Test
+    public void test_levelCTOR_noFloor() {
+        LevelElement[][] walls = {{LevelElement.WALL, LevelElement.WALL}};
+        level = new Level(walls, DesignLabel.DEFAULT);
+        assertNull(level.getStartTile());
+        assertNull(level.getEndTile());
+        assertFalse(level.isOnEndTile(Mockito.mock(Entity.class)));
+    }
+
+    @Test
+    public void test_setRandomStart_onlyExitLeft() {
+        LevelElement[][] floor = {{LevelElement.FLOOR}};
+        level = new Level(floor, DesignLabel.DEFAULT);
+        // the only floor tile became the exit
+        assertEquals(LevelElement.EXIT, level.getEndTile().getLevelElement());
+        assertNull(level.getStartTile());
+        level.setRandomEnd();
+        assertEquals(LevelElement.EXIT, level.getEndTile().getLevelElement());
+    }
+
     @Test
     public void test_isOnEndTile() {
         Entity entity = Mockito.mock(Entity.class);
@@ -113,6 +305,221 @@ public class LevelTest {
         assertEquals(layout[1][2], level.getTileAt(new Coordinate(2, 1)));
     }
 
+    @Test
+    public void test_getTileAt_outOfBounds() {
+        assertNull(level.getTileAt(new Coordinate(3, 1)));
+        assertNull(level.getTileAt(new Coordinate(-1, 0)));
+    }
+
+    @Test
+    public void test_getTileAt_sameTileForLevelElements() {
+        LevelElement[][] elementsLayout = new LevelElement[2][2];
+        for (LevelElement[] row : elementsLayout) Arrays.fill(row, LevelElement.FLOOR);
+        level = new Level(elementsLayout, DesignLabel.DEFAULT);
+        Tile tile = level.getTileAt(new Coordinate(1, 0));
+        assertSame(tile, level.getTileAt(new Coordinate(1, 0)));
+        assertSame(tile, level.getLayout()[0][1]);
+        level.changeTileElementType(tile, LevelElement.WALL);
+        assertEquals(LevelElement.WALL, level.getLayout()[0][1].getLevelElement());
+        assertEquals(LevelElement.WALL, level.getGrid().getLevelElement(1));
+    }
+
+    @Test
+    public void test_changeTileElementType_updatesConnections() {
+        /** How the level layout looks: (W=Wall, F=Floor) FFW FFW FFW */
+        assertEquals(2, level.getConnections(layout[0][1]).size);
+        assertEquals(0, level.findPath(layout[0][0], layout[0][2]).getCount());
+
+        level.changeTileElementType(layout[0][2], LevelElement.FLOOR);
+        assertEquals(3, level.getConnections(layout[0][1]).size);
+        assertEquals(1, level.getConnections(layout[0][2]).size);
+        assertEquals(3, level.findPath(layout[0][0], layout[0][2]).getCount());
+
+        level.changeTileElementType(layout[0][1], LevelElement.WALL);
+        assertEquals(0, level.getConnections(layout[0][1]).size);
+        assertEquals(0, level.getConnections(layout[0][2]).size);
+        assertEquals(1, level.getConnections(layout[0][0]).size);
+    }
+
+    @Test
+    public void test_tileHeuristic_followsDiagonalMovement() {
+        TileHeuristic heuristic = new TileHeuristic();
+        assertEquals(2f, heuristic.estimate(layout[0][0], layout[1][1]), 0.001f);
+        level.setDiagonalMovement(DiagonalMovement.ALWAYS);
+        assertEquals(1.415f, heuristic.estimate(layout[0][0], layout[1][1]), 0.001f);
+        assertEquals(
+                2f,
+                new TileHeuristic(GridHeuristic.MANHATTAN).estimate(layout[0][0], layout[1][1]),
+                0.001f);
+    }
+
+    @Test
+    public void test_tileHeuristic_doesNotOverestimateDiagonalConnection() {
+        level.setDiagonalMovement(DiagonalMovement.ALWAYS);
+        TileHeuristic heuristic = new TileHeuristic();
+        for (Connection<Tile> connection : level.getConnections(layout[0][0]))
+            assertTrue(
+                    heuristic.estimate(connection.getFromNode(), connection.getToNode())
+                            <= connection.getCost());
+    }
+
+    @Test
+    public void test_findPath_sameLengthAsIndexedAStarPathFinder() {
+        Random random = new Random(42);
+        for (DiagonalMovement diagonalMovement : DiagonalMovement.values())
+            for (int round = 0; round < 20; round++) {
+                LevelElement[][] elements = new LevelElement[20][20];
+                for (int y = 0; y < 20; y++)
+                    for (int x = 0; x < 20; x++)
+                        elements[y][x] =
+                                random.nextInt(4) == 0 ? LevelElement.WALL : LevelElement.FLOOR;
+                Level randomLevel = new Level(elements, DesignLabel.DEFAULT);
+                randomLevel.setDiagonalMovement(diagonalMovement);
+                IndexedAStarPathFinder<Tile> gdxPathFinder =
+                        new IndexedAStarPathFinder<>(randomLevel);
+                for (int query = 0; query < 20; query++) {
+                    Tile start = randomLevel.getTile(random.nextInt(400));
+                    Tile end = randomLevel.getTile(random.nextInt(400));
+                    GraphPath<Tile> expected = new DefaultGraphPath<>();
+                    boolean found =
+                            gdxPathFinder.searchNodePath(
+                                    start, end, new TileHeuristic(), expected);
+                    GraphPath<Tile> path = randomLevel.findPath(start, end);
+                    assertEquals(found, path.getCount() > 0);
+                    // equally long paths may take other tiles
+                    assertEquals(pathLength(expected), pathLength(path), 0.001f);
+                }
+            }
+    }
+
+    private static float pathLength(GraphPath<Tile> path) {
+        float length = 0;
+        for (int i = 1; i < path.getCount(); i++) {
+            Coordinate from = path.get(i - 1).getCoordinate();
+            Coordinate to = path.get(i).getCoordinate();
+            length += from.x != to.x && from.y != to.y ? 1.415f : 1f;
+        }
+        return length;
+    }
+
+    @Test
+    public void test_findPath_heuristic() {
+        /** How the level layout looks: (W=Wall, F=Floor) FFW FFW FFW */
+        GraphPath<Tile> path = new DefaultGraphPath<>();
+        for (GridHeuristic heuristic : GridHeuristic.values()) {
+            assertTrue(level.findPath(layout[0][0], layout[2][1], heuristic, path));
+            assertEquals(4, path.getCount());
+            assertTrue(level.getExpandedNodes() >= 4);
+        }
+    }
+
+    @Test
+    public void test_getConnections_reusesArray() {
+        Array<Connection<Tile>> connections = level.getConnections(layout[0][0]);
+        Connection<Tile> north = connections.get(0);
+        assertSame(layout[0][0], north.getFromNode());
+        assertSame(layout[1][0], north.getToNode());
+        assertEquals(1, north.getCost(), 0.0001f);
+
+        assertSame(connections, level.getConnections(layout[1][1]));
+        // the libGDX pathfinding keeps the connections, so they must not change
+        assertSame(layout[0][0], north.getFromNode());
+        assertSame(layout[1][0], north.getToNode());
+    }
+
+    @Test
+    public void test_setDiagonalMovement() {
+        /** How the level layout looks: (W=Wall, F=Floor) FFW FFW FFW */
+        assertEquals(2, level.getConnections(layout[0][0]).size);
+        level.setDiagonalMovement(DiagonalMovement.NO_CORNER_CUTTING);
+        assertEquals(3, level.getConnections(layout[0][0]).size);
+        assertEquals(3, level.findPath(layout[0][0], layout[2][1]).getCount());
+
+        level.changeTileElementType(layout[1][1], LevelElement.WALL);
+        assertEquals(2, level.getConnections(layout[0][0]).size);
+        assertEquals(4, level.findPath(layout[0][0], layout[2][1]).getCount());
+    }
+
+    @Test
+    public void test_getTilesInRadius() {
+        Array<Tile> tiles = new Array<>();
+        level.getTilesInRadius(layout[1][1], 1, tiles);
+        assertEquals(5, tiles.size);
+        assertTrue(tiles.contains(layout[0][1], true));
+        assertFalse(tiles.contains(layout[0][0], true));
+    }
+
+    @Test
+    public void test_hasLineOfSight() {
+        /** How the level layout looks: (W=Wall, F=Floor) FFW FFW FFW */
+        assertTrue(level.hasLineOfSight(layout[0][0], layout[2][1]));
+        level.changeTileElementType(layout[1][0], LevelElement.WALL);
+        assertFalse(level.hasLineOfSight(layout[0][0], layout[2][0]));
+        assertFalse(level.hasLineOfSight(new Point(0.5f, 0.2f), new Point(0.1f, 2.9f)));
+    }
+
+    @Test
+    public void test_drawLevel_fieldOfView() {
+        Painter painter = Mockito.mock(Painter.class);
+        level.drawLevel(painter, null);
+        Mockito.verify(painter, Mockito.times(9))
+                .draw(Mockito.anyInt(), Mockito.any(), Mockito.any());
+
+        /** How the level layout looks: (W=Wall, F=Floor) FFW FFW FFW */
+        painter = Mockito.mock(Painter.class);
+        level.computeFieldOfView(new Point(0.5f, 0.5f), 1);
+        level.drawLevel(painter, null);
+        // only the viewer's tile and the two next to it have been seen
+        Mockito.verify(painter, Mockito.times(3))
+                .draw(Mockito.anyInt(), Mockito.any(), Mockito.any());
+
+        assertFalse(level.updateFieldOfView(new Point(0.9f, 0.1f)));
+        assertTrue(level.updateFieldOfView(new Point(1.5f, 0.5f)));
+        assertEquals(5, level.getFieldOfView().countExplored());
+    }
+
+    @Test
+    public void test_drawLevel_visibleArea() {
+        Painter painter = Mockito.mock(Painter.class);
+        DungeonCamera camera = Mockito.mock(DungeonCamera.class);
+        when(painter.getCamera()).thenReturn(camera);
+        // the camera shows the middle column only
+        when(camera.getVisibleArea(Mockito.any()))
+                .thenAnswer(
+                        invocation -> invocation.<Rectangle>getArgument(0).set(1.2f, -5, 0.5f, 10));
+        level.drawLevel(painter, null);
+        Mockito.verify(painter, Mockito.times(3))
+                .draw(Mockito.anyInt(), Mockito.any(), Mockito.any());
+        Mockito.verify(painter, Mockito.never())
+                .draw(Mockito.anyInt(), Mockito.argThat(point -> point.x != 1), Mockito.any());
+    }
+
+    @Test
+    public void test_getChunks() {
+        level.setChunkSize(2);
+        BitSet dirty = level.getChunks().addConsumer();
+        assertEquals(4, dirty.cardinality());
+        dirty.clear();
+        level.changeTileElementType(layout[0][0], LevelElement.WALL);
+        assertEquals(1, dirty.cardinality());
+        assertTrue(dirty.get(level.getChunks().chunkAt(0, 0)));
+        level.makeConnections();
+        assertEquals(4, dirty.cardinality());
+    }
+
+    @Test
+    public void test_isReachable() {
+        /** How the level layout looks: (W=Wall, F=Floor) FFW FFW FFW */
+        assertTrue(level.isReachable(layout[0][0], layout[2][1]));
+        assertFalse(level.isReachable(layout[0][0], layout[0][2]));
+
+        level.changeTileElementType(layout[0][2], LevelElement.FLOOR);
+        assertTrue(level.isReachable(layout[0][0], layout[0][2]));
+        level.changeTileElementType(layout[0][1], LevelElement.WALL);
+        level.changeTileElementType(layout[1][2], LevelElement.WALL);
+        assertFalse(level.isReachable(layout[0][0], layout[0][2]));
+    }
+
     @Test
     public void test_getRandomTile() {
         assertNotNull(level.getRandomTile());
@@ -149,6 +556,14 @@ public class LevelTest {
         assertEquals(LevelElement.FLOOR, randomFloor.getLevelElement());
     }
 
+    @Test
+    public void test_getRandomTile_noTileOfType() {
+        assertNull(level.getRandomTile(LevelElement.VOID));
+        assertNull(level.getRandomTilePoint(LevelElement.VOID));
+        level.changeTileElementType(layout[0][2], LevelElement.VOID);
+        assertSame(layout[0][2], level.getRandomTile(LevelElement.VOID));
+    }
+
     @Test
     public void test_getLayout() {
         assertArrayEquals(layout, level.getLayout());
@@ -0,0 +1,128 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import com.badlogic.gdx.ai.pfa.DefaultGraphPath;
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.utils.IntArray;
+import level.elements.Level;
+import level.elements.Tile;
+import level.elements.astar.PathCache;
+import level.tools.Coordinate;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PathCacheTest {
+
+    private PathCache cache;
+    private IntArray path;
+
+    @Before
+    public void setup() {
+        cache = new PathCache(2);
+        path = new IntArray();
+    }
+
+    @Test
+    public void test_get_hitAndMiss() {
+        assertFalse(cache.get(1, 2, 0, path));
+        cache.put(1, 2, 0, new IntArray(new int[] {1, 2}));
+        assertTrue(cache.get(1, 2, 0, path));
+        assertArrayEquals(new int[] {1, 2}, path.toArray());
+        assertFalse(cache.get(2, 1, 0, path));
+        assertEquals(0, path.size);
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        cache.resetStatistics();
+        assertEquals(0, cache.getHits());
+        assertEquals(0, cache.getMisses());
+    }
+
+    @Test
+    public void test_get_noPath() {
+        cache.put(1, 2, 0, new IntArray());
+        path.add(42);
+        assertTrue(cache.get(1, 2, 0, path));
+        assertEquals(0, path.size);
+    }
+
+    @Test
+    public void test_put_copiesPath() {
+        IntArray stored = new IntArray(new int[] {1, 2});
+        cache.put(1, 2, 0, stored);
+        stored.set(0, 7);
+        assertTrue(cache.get(1, 2, 0, path));
+        assertArrayEquals(new int[] {1, 2}, path.toArray());
+
+        // a shorter path replaces the longer one
+        cache.put(1, 2, 0, new IntArray(new int[] {2}));
+        assertTrue(cache.get(1, 2, 0, path));
+        assertArrayEquals(new int[] {2}, path.toArray());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void test_put_evictsLeastRecentlyUsed() {
+        cache.put(1, 2, 0, new IntArray(new int[] {1, 2}));
+        cache.put(3, 4, 0, new IntArray(new int[] {3, 4}));
+        cache.get(1, 2, 0, path);
+        cache.put(5, 6, 0, new IntArray(new int[] {5, 6}));
+        assertEquals(2, cache.size());
+        assertTrue(cache.get(1, 2, 0, path));
+        assertFalse(cache.get(3, 4, 0, path));
+        assertTrue(cache.get(5, 6, 0, path));
+        assertArrayEquals(new int[] {5, 6}, path.toArray());
+    }
+
+    @Test
+    public void test_put_manyPaths() {
+        PathCache large = new PathCache(50);
+        for (int i = 0; i < 500; i++) large.put(i, i * 7, 0, new IntArray(new int[] {i}));
+        assertEquals(50, large.size());
+        for (int i = 0; i < 450; i++) assertFalse(large.get(i, i * 7, 0, path));
+        for (int i = 450; i < 500; i++) {
+            assertTrue(large.get(i, i * 7, 0, path));
+            assertArrayEquals(new int[] {i}, path.toArray());
+        }
+    }
+
+    @Test
+    public void test_get_newVersion() {
+        cache.put(1, 2, 0, new IntArray(new int[] {1, 2}));
+        assertFalse(cache.get(1, 2, 1, path));
+        assertEquals(0, cache.size());
+        // paths of an old version are not stored
+        cache.put(1, 2, 0, new IntArray(new int[] {1, 2}));
+        assertFalse(cache.get(1, 2, 1, path));
+    }
+
+    @Test
+    public void test_level_findPath() {
+        Tile[][] layout = new Tile[3][3];
+        for (int x = 0; x < 3; x++)
+            for (int y = 0; y < 3; y++)
+                layout[y][x] = new Tile("", new Coordinate(x, y), LevelElement.FLOOR);
+        Level level = new Level(layout);
+        level.setPathCacheCapacity(4);
+        GraphPath<Tile> path = new DefaultGraphPath<>();
+
+        assertTrue(level.findPath(layout[0][0], layout[2][2], path));
+        assertTrue(level.findPath(layout[0][0], layout[2][2], path));
+        assertEquals(5, path.getCount());
+        assertEquals(layout[0][0], path.get(0));
+        assertEquals(layout[2][2], path.get(4));
+        assertEquals(1, level.getPathCache().getHits());
+        assertEquals(1, level.getPathCache().getMisses());
+
+        int version = level.getVersion();
+        level.setEndTile(layout[1][1]);
+        assertTrue(level.getVersion() > version);
+        assertTrue(level.findPath(layout[0][0], layout[2][2], path));
+        assertEquals(1, level.getPathCache().getHits());
+        assertEquals(2, level.getPathCache().getMisses());
+
+        level.setPathCacheCapacity(0);
+        assertNull(level.getPathCache());
+    }
+}
@@ -0,0 +1,170 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import com.badlogic.gdx.ai.pfa.GraphPath;
+import com.badlogic.gdx.utils.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import level.elements.Level;
+import level.elements.PathScheduler;
+import level.elements.Tile;
+import level.elements.astar.AbstractGridPathFinder;
+import level.elements.astar.HierarchicalPathFinder;
+import level.elements.astar.PathfindingMode;
+import level.tools.DesignLabel;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.reflect.Whitebox;
+
+public class PathSchedulerTest {
+
+    private Level level;
+    private PathScheduler scheduler;
+
+    @Before
+    public void setup() {
+        /** 100x100 floor with walls in every second column, the gaps alternate top and bottom */
+        LevelElement[][] layout = new LevelElement[100][100];
+        for (int y = 0; y < 100; y++)
+            for (int x = 0; x < 100; x++) {
+                boolean wall = x % 2 == 1 && (x % 4 == 1 ? y != 99 : y != 0);
+                layout[y][x] = wall ? LevelElement.WALL : LevelElement.FLOOR;
+            }
+        level = new Level(layout, DesignLabel.DEFAULT);
+        scheduler = new PathScheduler();
+    }
+
+    @Test
+    public void test_update_spreadsSearchOverFrames() {
+        CompletableFuture<GraphPath<Tile>> future =
+                scheduler.findPath(level, tileAt(0, 0), tileAt(98, 0));
+        scheduler.update(0);
+        assertFalse(future.isDone());
+        int frames = 1;
+        while (!future.isDone()) {
+            scheduler.update(0);
+            frames++;
+        }
+        assertTrue(frames > 1);
+        GraphPath<Tile> path = future.join();
+        assertEquals(tileAt(0, 0), path.get(0));
+        assertEquals(tileAt(98, 0), path.get(path.getCount() - 1));
+        assertEquals(level.findPath(tileAt(0, 0), tileAt(98, 0)).getCount(), path.getCount());
+        assertEquals(0, scheduler.getPendingRequests());
+    }
+
+    @Test
+    public void test_update_priority() {
+        List<String> finished = new ArrayList<>();
+        scheduler.findPath(level, tileAt(0, 0), tileAt(2, 0)).thenRun(() -> finished.add("low"));
+        scheduler
+                .findPath(level, tileAt(0, 0), tileAt(0, 5), 10)
+                .thenRun(() -> finished.add("high"));
+        scheduler.update(Long.MAX_VALUE);
+        assertEquals(List.of("high", "low"), finished);
+    }
+
+    @Test
+    public void test_cancel() {
+        CompletableFuture<GraphPath<Tile>> cancelled =
+                scheduler.findPath(level, tileAt(0, 0), tileAt(98, 0));
+        CompletableFuture<GraphPath<Tile>> other =
+                scheduler.findPath(level, tileAt(0, 0), tileAt(0, 5));
+        scheduler.update(0);
+        cancelled.cancel(false);
+        scheduler.update(Long.MAX_VALUE);
+        assertTrue(cancelled.isCancelled());
+        assertEquals(6, other.join().getCount());
+        assertEquals(0, scheduler.getPendingRequests());
+    }
+
+    @Test
+    public void test_noPath() {
+        CompletableFuture<GraphPath<Tile>> future =
+                scheduler.findPath(level, tileAt(0, 0), tileAt(1, 50));
+        scheduler.update(Long.MAX_VALUE);
+        assertEquals(0, future.join().getCount());
+    }
+
+    @Test
+    public void test_changeTile_rebuildsOnlyChangedCluster() {
+        level.setPathfindingMode(PathfindingMode.HIERARCHICAL);
+        CompletableFuture<GraphPath<Tile>> first =
+                scheduler.findPath(level, tileAt(0, 0), tileAt(98, 0));
+        scheduler.update(Long.MAX_VALUE);
+        assertTrue(first.join().getCount() > 0);
+        // the empty queue gave the search state back to the level
+        assertNull(Whitebox.getInternalState(scheduler, "pathFinder"));
+        Array<AbstractGridPathFinder> pool = Whitebox.getInternalState(level, "freePathFinders");
+        HierarchicalPathFinder finder = (HierarchicalPathFinder) pool.peek();
+        int rebuilds = finder.getClusterRebuilds();
+        int clusterSize = finder.getClusterSize();
+        int clusters = (100 / clusterSize) * (100 / clusterSize);
+
+        // a gap in the wall in the middle of a cluster
+        int middle = clusterSize / 2;
+        level.changeTileElementType(tileAt(clusterSize + 1, middle), LevelElement.FLOOR);
+        CompletableFuture<GraphPath<Tile>> second =
+                scheduler.findPath(level, tileAt(0, 0), tileAt(98, 0));
+        scheduler.update(Long.MAX_VALUE);
+        assertEquals(
+                level.findPath(tileAt(0, 0), tileAt(98, 0)).getCount(), second.join().getCount());
+        assertSame(finder, pool.peek());
+        int changed = finder.getClusterRebuilds() - rebuilds;
+        assertTrue(changed > 0);
+        assertTrue(changed < clusters);
+    }
+
+    @Test
+    public void test_changeTile_notReached_searchGoesOn() {
+        CompletableFuture<GraphPath<Tile>> future =
+                scheduler.findPath(level, tileAt(0, 0), tileAt(98, 0));
+        scheduler.update(0);
+        AbstractGridPathFinder finder = Whitebox.getInternalState(scheduler, "pathFinder");
+        int expanded = finder.getExpandedNodes();
+
+        // a gap in a wall far away from the tiles searched so far
+        level.changeTileElementType(tileAt(51, 50), LevelElement.FLOOR);
+        scheduler.update(0);
+        assertTrue(finder.getExpandedNodes() > expanded);
+        scheduler.update(Long.MAX_VALUE);
+        assertEquals(
+                level.findPath(tileAt(0, 0), tileAt(98, 0)).getCount(), future.join().getCount());
+    }
+
+    @Test
+    public void test_changeTile_reached_searchStartsAgain() {
+        CompletableFuture<GraphPath<Tile>> future =
+                scheduler.findPath(level, tileAt(0, 0), tileAt(98, 0));
+        scheduler.update(0);
+        AbstractGridPathFinder finder = Whitebox.getInternalState(scheduler, "pathFinder");
+        int expanded = finder.getExpandedNodes();
+
+        // a gap in the wall next to the tiles searched so far
+        level.changeTileElementType(tileAt(1, 10), LevelElement.FLOOR);
+        scheduler.update(0);
+        assertEquals(expanded, finder.getExpandedNodes());
+        scheduler.update(Long.MAX_VALUE);
+        GraphPath<Tile> path = future.join();
+        assertEquals(level.findPath(tileAt(0, 0), tileAt(98, 0)).getCount(), path.getCount());
+        for (Tile tile : path) assertTrue(tile.isAccessible());
+    }
+
+    @Test
+    public void test_clear_givesSearchStateBack() {
+        scheduler.findPath(level, tileAt(0, 0), tileAt(98, 0));
+        scheduler.update(0);
+        AbstractGridPathFinder finder = Whitebox.getInternalState(scheduler, "pathFinder");
+        scheduler.clear();
+        assertNull(Whitebox.getInternalState(scheduler, "pathFinder"));
+        Array<AbstractGridPathFinder> pool = Whitebox.getInternalState(level, "freePathFinders");
+        assertSame(finder, pool.peek());
+    }
+
+    private Tile tileAt(int x, int y) {
+        return level.getTile(level.getGrid().index(x, y));
+    }
+}
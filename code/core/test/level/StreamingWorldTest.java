@@ -0,0 +1,89 @@
+package level;
+
+import static org.junit.Assert.*;
+
+import com.badlogic.gdx.utils.Array;
+import level.elements.StreamingWorld;
+import level.generator.IChunkGenerator;
+import level.tools.Coordinate;
+import level.tools.DesignLabel;
+import level.tools.LevelElement;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamingWorldTest {
+
+    private StreamingWorld world;
+
+    /**
+     * Chunks of 4x4 tiles. Each chunk is floor except for its left column, which is a wall with a
+     * gap at y = 2 in every chunk.
+     */
+    private final IChunkGenerator generator =
+            (seed, chunkX, chunkY, chunkSize, outCells) -> {
+                for (int y = 0; y < chunkSize; y++)
+                    for (int x = 0; x < chunkSize; x++)
+                        outCells[x + y * chunkSize] =
+                                x == 0 && y != 2 ? LevelElement.WALL : LevelElement.FLOOR;
+            };
+
+    @Before
+    public void setup() {
+        world = new StreamingWorld(generator, 42, DesignLabel.DEFAULT, 4, 1, 12);
+    }
+
+    @Test
+    public void test_update() {
+        assertFalse(world.isLoaded(0, 0));
+        assertTrue(world.update(1.5f, 1.5f));
+        assertEquals(9, world.getGeneratedChunks());
+        assertEquals(-4, world.getOriginX());
+        assertTrue(world.isLoaded(-4, -4));
+        assertTrue(world.isLoaded(7, 7));
+        assertFalse(world.isLoaded(8, 0));
+        assertEquals(LevelElement.WALL, world.getLevelElement(-4, -3));
+        assertEquals(LevelElement.VOID, world.getLevelElement(8, 0));
+
+        // the camera stays in its chunk
+        assertFalse(world.update(3.9f, 0.1f));
+
+        // one chunk to the right loads one new column of chunks
+        assertTrue(world.update(4.5f, 1.5f));
+        assertEquals(12, world.getGeneratedChunks());
+        assertEquals(LevelElement.FLOOR, world.getLevelElement(9, 0));
+    }
+
+    @Test
+    public void test_update_cache() {
+        world.update(1.5f, 1.5f);
+        world.update(5.5f, 1.5f);
+        world.update(1.5f, 1.5f);
+        // the chunks on the left were still cached
+        assertEquals(12, world.getGeneratedChunks());
+
+        world.update(100, 100);
+        assertEquals(21, world.getGeneratedChunks());
+        // only 12 chunks fit into the cache, the first chunks were dropped
+        assertEquals(12, world.getCachedChunks());
+        world.update(1.5f, 1.5f);
+        assertEquals(30, world.getGeneratedChunks());
+    }
+
+    @Test
+    public void test_findPath() {
+        world.update(-2.5f, 0.5f);
+        Array<Coordinate> path = new Array<>();
+        // through the gaps in the walls at x = -4 and x = 0
+        assertTrue(world.findPath(new Coordinate(-5, 0), new Coordinate(1, 0), path));
+        assertEquals(new Coordinate(-5, 0), path.first());
+        assertEquals(new Coordinate(1, 0), path.peek());
+        assertEquals(6 + 2 * 2 + 1, path.size);
+        assertTrue(
+                path.contains(new Coordinate(0, 2), false)
+                        || path.contains(new Coordinate(0, -2), false));
+
+        assertFalse(world.findPath(new Coordinate(-5, 0), new Coordinate(0, 0), path));
+        assertEquals(0, path.size);
+        assertFalse(world.findPath(new Coordinate(-5, 0), new Coordinate(20, 0), path));
+    }
+}
@@ -0,0 +1,39 @@
+package level;
+
+import level.elements.LevelGrid;
+import level.tools.LevelElement;
+
+/** Grids for the tests of the searches on a {@link LevelGrid}. */
+final class TestGrids {
+
+    private TestGrids() {}
+
+    /**
+     * Creates a grid from rows of characters and computes its neighbours.
+     *
+     * @param rows The rows from y = 0 upwards, all of the same length. W is a wall, every other
+     *     character a floor.
+     * @return The grid.
+     */
+    static LevelGrid parse(String... rows) {
+        LevelGrid grid = new LevelGrid(rows[0].length(), rows.length);
+        for (int y = 0; y < rows.length; y++)
+            for (int x = 0; x < rows[y].length(); x++)
+                grid.setLevelElement(
+                        grid.index(x, y),
+                        rows[y].charAt(x) == 'W' ? LevelElement.WALL : LevelElement.FLOOR,
+                        "");
+        grid.makeNeighbours();
+        return grid;
+    }
+
+    /**
+     * A wall in the middle column that is open at the top, so the only path from (0, 0) to (2, 0)
+     * goes around it.
+     *
+     * @return The grid, row y=0: FWF, y=1: FWF, y=2: FFF
+     */
+    static LevelGrid wallWithGap() {
+        return parse("FWF", "FWF", "FFF");
+    }
+}
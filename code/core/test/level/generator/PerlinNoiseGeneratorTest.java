@@ -1,9 +1,11 @@
 package level.generator;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertNotNull;
 
 import level.elements.Level;
 import level.generator.perlinNoise.PerlinNoiseGenerator;
+import level.tools.LevelElement;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -27,4 +29,21 @@ public class PerlinNoiseGeneratorTest {
         // can be beaten.
         assert ((level.findPath(level.getStartTile(), level.getEndTile()).getCount() > 0));
     }
+
+    @Test
+    public void test_generateChunk() {
+        LevelElement[] large = new LevelElement[16 * 16];
+        generator.generateChunk(42, -1, 0, 16, large);
+        // the chunks only depend on the seed and the world coordinates, so the right half of a
+        // large chunk is the same as the small chunks it covers
+        LevelElement[] small = new LevelElement[8 * 8];
+        generator.generateChunk(42, -1, 0, 8, small);
+        LevelElement[] expected = new LevelElement[8 * 8];
+        for (int y = 0; y < 8; y++) System.arraycopy(large, 8 + y * 16, expected, y * 8, 8);
+        assertArrayEquals(expected, small);
+
+        LevelElement[] again = new LevelElement[8 * 8];
+        generator.generateChunk(42, -1, 0, 8, again);
+        assertArrayEquals(small, again);
+    }
 }
@@ -0,0 +1,84 @@
+package textures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import com.badlogic.gdx.Files;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.g2d.PixmapPacker;
+import com.badlogic.gdx.graphics.g2d.TextureAtlas;
+import java.util.List;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mockito;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({TextureAtlasMap.class})
+public class TextureAtlasMapTest {
+    private static final String ROOT = "/home/dungeon/game/";
+
+    Files oldFiles;
+    PixmapPacker packer;
+    Pixmap pixmap;
+
+    @Before
+    public void setUp() throws Exception {
+        oldFiles = Gdx.files;
+        Gdx.files = Mockito.mock(Files.class);
+        Mockito.when(Gdx.files.internal(anyString())).thenReturn(Mockito.mock(FileHandle.class));
+
+        pixmap = Mockito.mock(Pixmap.class);
+        Mockito.when(pixmap.getWidth()).thenReturn(16);
+        Mockito.when(pixmap.getHeight()).thenReturn(16);
+        PowerMockito.whenNew(Pixmap.class).withAnyArguments().thenReturn(pixmap);
+
+        TextureAtlas atlas = Mockito.mock(TextureAtlas.class);
+        Mockito.when(atlas.findRegion(anyString()))
+                .thenReturn(Mockito.mock(TextureAtlas.AtlasRegion.class));
+        packer = Mockito.mock(PixmapPacker.class);
+        Mockito.when(packer.generateTextureAtlas(any(), any(), Mockito.anyBoolean()))
+                .thenReturn(atlas);
+        PowerMockito.whenNew(PixmapPacker.class).withAnyArguments().thenReturn(packer);
+    }
+
+    @After
+    public void tearDown() {
+        Gdx.files = oldFiles;
+    }
+
+    @Test
+    public void test_pack_texturePathsFromTextureHandler() {
+        // TextureHandler lists the files below the asset directory with the directory in front
+        TextureAtlasMap atlas =
+                TextureAtlasMap.pack(
+                        List.of(
+                                ROOT + "textures/dungeon/default/floor_1.png",
+                                ROOT + "textures/dungeon/default/wall/left.png",
+                                ROOT + "README.md"),
+                        ROOT,
+                        TextureAtlasMap.DEFAULT_PAGE_SIZE);
+
+        assertEquals(2, atlas.size());
+        Mockito.verify(packer).pack("textures/dungeon/default/floor_1.png", pixmap);
+        // the tiles look their textures up with the relative path
+        assertNotEquals(
+                TextureAtlasMap.NO_REGION, atlas.getHandle("textures/dungeon/default/floor_1.png"));
+        assertEquals(
+                atlas.getHandle("textures/dungeon/default/floor_1.png"),
+                atlas.getHandle(ROOT + "textures/dungeon/default/floor_1.png"));
+        assertNotEquals(
+                TextureAtlasMap.NO_REGION,
+                atlas.getHandle("textures\\dungeon\\default\\wall\\left.png"));
+        assertEquals(
+                TextureAtlasMap.NO_REGION, atlas.getHandle("textures/dungeon/default/other.png"));
+    }
+}